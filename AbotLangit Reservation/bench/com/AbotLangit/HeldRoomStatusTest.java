@@ -0,0 +1,60 @@
+package com.AbotLangit;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * HeldRoomStatusTest class holds one room and books another, then lists the rooms through GET /rooms
+ * and the room table. A held room has no guest and no dates, so both have to show it without failing.
+ * Exits with status 1 if a check fails.
+ * Run it as a plain Java application: java com.AbotLangit.HeldRoomStatusTest
+ */
+public class HeldRoomStatusTest {
+    private static int failures;
+
+    public static void main(String[] args) throws Exception {
+        List<Room> inventory = new ArrayList<>();
+        inventory.add(new Room("Single", 1525, 1));
+        inventory.add(new Room("Double", 2500, 2));
+        RoomManager roomManager = new RoomManager(inventory);
+        check(roomManager.hold(roomManager.getRoom(1), 20000, 20002, Duration.ofMinutes(10)) != null, "room 1 is held");
+        check(roomManager.tryReserve(roomManager.getRoom(2), "Juan Dela Cruz", "09171234567", 20000, 20002, 2).isReserved(), "room 2 is booked");
+
+        ReservationHttpServer server = new ReservationHttpServer(new ReservationService(roomManager), 0);
+        server.start();
+        try {
+            HttpClient client = HttpClient.newHttpClient();
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + "/rooms")).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            check(response.statusCode() == 200, "GET /rooms answers 200 with a held room: " + response.statusCode());
+            check(response.body().contains("\"number\":1,\"available\":false") && response.body().contains("\"checkInDate\":\"\""),
+                    "the held room is listed without dates: " + response.body());
+            check(response.body().contains("\"checkInDate\":\"2024-10-04\""), "the booked room keeps its dates: " + response.body());
+        } finally {
+            server.stop();
+        }
+
+        RoomTableModel table = new RoomTableModel(roomManager);
+        int heldRow = roomManager.snapshot().positionOf(1);
+        check("".equals(table.getValueAt(heldRow, 6)) && "".equals(table.getValueAt(heldRow, 7)), "the room table shows no dates for the held room");
+        int bookedRow = roomManager.snapshot().positionOf(2);
+        check("2024/10/04".equals(table.getValueAt(bookedRow, 6)), "the room table shows the check-in of the booked room");
+
+        System.out.println(failures == 0 ? "HeldRoomStatusTest passed" : failures + " check(s) failed");
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static void check(boolean passed, String what) {
+        if (!passed) {
+            failures++;
+            System.out.println("FAILED: " + what);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.AbotLangit;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * HoldPersistenceTest class closes a RoomManager while a room is held and opens the data folder again.
+ * Holds are not saved, so the held room has to come back available with no bookings,
+ * while a booked room comes back with its booking and not available. Exits with status 1 if a check fails.
+ * Run it as a plain Java application: java com.AbotLangit.HoldPersistenceTest
+ */
+public class HoldPersistenceTest {
+    private static int failures;
+
+    public static void main(String[] args) throws Exception {
+        Path dataDirectory = Files.createTempDirectory("holds");
+        RoomManager roomManager = RoomManager.open(dataDirectory, rooms());
+        RoomHold hold = roomManager.hold(roomManager.getRoom(1), 20000, 20002, Duration.ofMinutes(10));
+        check(hold != null && !roomManager.getRoom(1).isAvailable(), "room 1 is held and not available");
+        check(roomManager.tryReserve(roomManager.getRoom(2), "Juan Dela Cruz", "09171234567", 20000, 20002, 2).isReserved(), "room 2 is booked");
+        roomManager.close(); // Writes the snapshot with the hold still active
+
+        RoomManager reopened = RoomManager.open(dataDirectory, rooms());
+        Room held = reopened.getRoom(1);
+        check(held.isAvailable(), "the held room comes back available");
+        check(reopened.getBookings(held).isEmpty() && held.getCalendar().getHolds().isEmpty(), "the held room has no bookings or holds");
+        check(reopened.getAvailableRooms().contains(held), "the held room is listed as available");
+        check(reopened.snapshot().find(1).isAvailable(), "the snapshot shows the held room available");
+        check(reopened.tryReserve(held, "Maria Santos", "09181234567", 20000, 20002, 1).isReserved(), "the held nights can be booked");
+        Room booked = reopened.getRoom(2);
+        check(!booked.isAvailable() && reopened.getBookings(booked).size() == 1, "the booked room keeps its booking");
+        reopened.close();
+
+        System.out.println(failures == 0 ? "HoldPersistenceTest passed" : failures + " check(s) failed");
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static List<Room> rooms() {
+        List<Room> rooms = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            rooms.add(new Room("Single", 1525, i));
+        }
+        return rooms;
+    }
+
+    private static void check(boolean passed, String what) {
+        if (!passed) {
+            failures++;
+            System.out.println("FAILED: " + what);
+        }
+    }
+}
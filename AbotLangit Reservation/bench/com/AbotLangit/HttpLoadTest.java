@@ -0,0 +1,78 @@
+package com.AbotLangit;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * HttpLoadTest class starts a ReservationHttpServer on a free port with a large in-memory inventory
+ * and drives it from many concurrent virtual-thread clients, a mix of availability searches and bookings.
+ * It prints the throughput and the p50/p99/max latency of the requests.
+ * Run it as a plain Java application: java com.AbotLangit.HttpLoadTest [clients] [requests per client] [rooms]
+ */
+public class HttpLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int requestsPerClient = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int roomCount = args.length > 2 ? Integer.parseInt(args[2]) : 10_000;
+
+        List<Room> inventory = new ArrayList<>();
+        String[] types = {"Single", "Double", "VIP"};
+        for (int i = 1; i <= roomCount; i++) {
+            inventory.add(new Room(types[i % types.length], 1500 + 1000 * (i % types.length), i));
+        }
+        ReservationHttpServer server = new ReservationHttpServer(new ReservationService(new RoomManager(inventory)), 0);
+        server.start();
+        String base = "http://localhost:" + server.getPort();
+
+        HttpClient client = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+        long[] latencies = new long[clients * requestsPerClient];
+        long startTime = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int c = 0; c < clients; c++) {
+                int clientIndex = c;
+                futures.add(executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int r = 0; r < requestsPerClient; r++) {
+                        String checkIn = String.format("2025-%02d-%02d", 1 + random.nextInt(12), 1 + random.nextInt(28));
+                        HttpRequest request;
+                        if (random.nextInt(4) == 0) {
+                            String body = "{\"name\":\"Load Test\",\"contactNumber\":\"09171234567\",\"roomNumber\":" + (1 + random.nextInt(roomCount))
+                                    + ",\"checkInDate\":\"" + checkIn + "\",\"duration\":\"" + (1 + random.nextInt(5)) + "\",\"guests\":\"2\"}";
+                            request = HttpRequest.newBuilder(URI.create(base + "/reservations")).POST(HttpRequest.BodyPublishers.ofString(body)).build();
+                        } else {
+                            request = HttpRequest.newBuilder(URI.create(base + "/availability?type=" + types[random.nextInt(types.length)]
+                                    + "&checkIn=" + checkIn + "&nights=" + (1 + random.nextInt(5)))).GET().build();
+                        }
+                        long sent = System.nanoTime();
+                        client.send(request, HttpResponse.BodyHandlers.discarding());
+                        latencies[clientIndex * requestsPerClient + r] = System.nanoTime() - sent;
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            server.stop();
+        }
+        long elapsed = System.nanoTime() - startTime;
+
+        Arrays.sort(latencies);
+        System.out.printf("%d clients x %d requests against %d rooms%n", clients, requestsPerClient, roomCount);
+        System.out.printf("throughput %.0f requests/s%n", latencies.length / (elapsed / 1e9));
+        System.out.printf("p50 %.2f ms, p99 %.2f ms, max %.2f ms%n",
+                latencies[latencies.length / 2] / 1e6, latencies[(int) (latencies.length * 0.99)] / 1e6, latencies[latencies.length - 1] / 1e6);
+    }
+}
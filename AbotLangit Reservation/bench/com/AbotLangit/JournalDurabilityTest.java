@@ -0,0 +1,76 @@
+package com.AbotLangit;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JournalDurabilityTest class books rooms, one by one and as a group, cancels and checks out early with a journal open and, right after each call returns,
+ * copies the journal file the way a crash would leave it and replays the copy.
+ * A change that was confirmed has to be in the copy already. Exits with status 1 if a check fails.
+ * Run it as a plain Java application: java com.AbotLangit.JournalDurabilityTest
+ */
+public class JournalDurabilityTest {
+    private static final int BOOKINGS = 50;
+    private static int failures;
+
+    public static void main(String[] args) throws Exception {
+        Path dataDirectory = Files.createTempDirectory("durability");
+        Path crashDirectory = Files.createTempDirectory("crash");
+        List<Room> inventory = new ArrayList<>();
+        for (int i = 1; i <= BOOKINGS; i++) {
+            inventory.add(new Room("Single", 1525, i));
+        }
+        RoomManager roomManager = RoomManager.open(dataDirectory, inventory);
+
+        int missing = 0;
+        List<Booking> booked = new ArrayList<>();
+        for (int i = 1; i <= BOOKINGS; i++) {
+            ReservationResult result = roomManager.tryReserve(roomManager.getRoom(i), "Juan Dela Cruz", "09171234567", 20000, 20003, 2);
+            booked.add(result.getBooking());
+            if (replay(dataDirectory, crashDirectory)[0] != i) {
+                missing++;
+            }
+        }
+        check(missing == 0, missing + " of " + BOOKINGS + " confirmed bookings were not in the journal yet");
+
+        GroupReservation group = new GroupReservation("Maria Santos", "09181234567");
+        group.add(roomManager.getRoom(1), 20003, 20005, 1);
+        group.add(roomManager.getRoom(2), 20003, 20005, 1);
+        check(roomManager.tryReserveGroup(group).isReserved(), "a group books the nights after the first two bookings");
+        check(replay(dataDirectory, crashDirectory)[0] == BOOKINGS + 2, "the group is in the journal when tryReserveGroup returns");
+
+        check(roomManager.cancel(booked.get(0)), "the first booking is cancelled");
+        check(replay(dataDirectory, crashDirectory)[1] == 1, "the cancellation is in the journal when cancel returns");
+        check(roomManager.checkOutEarly(booked.get(1), 20001) != null, "the second guest checks out early");
+        check(replay(dataDirectory, crashDirectory)[1] == 2, "the early check-out is in the journal when checkOutEarly returns");
+        roomManager.close();
+
+        System.out.println(failures == 0 ? "JournalDurabilityTest passed" : failures + " check(s) failed");
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Replays a copy of the journal as it is on disk right now.
+     * @return The number of bookings and of releases in it.
+     */
+    private static long[] replay(Path dataDirectory, Path crashDirectory) throws Exception {
+        Files.copy(dataDirectory.resolve(ReservationJournal.JOURNAL_FILE), crashDirectory.resolve(ReservationJournal.JOURNAL_FILE),
+                StandardCopyOption.REPLACE_EXISTING);
+        long[] releases = new long[1];
+        long bookings = ReservationJournal.recover(crashDirectory, booking -> { },
+                (roomNumber, checkInDay, bookedCheckOutDay, checkOutDay) -> releases[0]++).getBookings();
+        return new long[] {bookings, releases[0]};
+    }
+
+    private static void check(boolean passed, String what) {
+        if (!passed) {
+            failures++;
+            System.out.println("FAILED: " + what);
+        }
+    }
+}
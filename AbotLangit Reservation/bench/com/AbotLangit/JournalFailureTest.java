@@ -0,0 +1,191 @@
+package com.AbotLangit;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JournalFailureTest class books rooms with a journal whose disk tears a write in half once, the way a full disk does.
+ * The booking that could not be saved must be refused and taken back out of its room, every later change refused,
+ * and replaying the journal must still give every booking that was confirmed. Exits with status 1 if a check fails.
+ * Run it as a plain Java application: java com.AbotLangit.JournalFailureTest
+ */
+public class JournalFailureTest {
+    private static int failures;
+
+    public static void main(String[] args) throws Exception {
+        Path dataDirectory = Files.createTempDirectory("journal-failure");
+        List<Room> inventory = new ArrayList<>();
+        for (int i = 1; i <= 4; i++) {
+            inventory.add(new Room("Single", 1525, i));
+        }
+        TearingChannel[] disk = new TearingChannel[1];
+        RoomManager roomManager = new RoomManager(inventory) {
+            @Override
+            ReservationJournal createJournal(Path directory, ReservationJournal.SnapshotWriter snapshotWriter) throws IOException {
+                disk[0] = new TearingChannel(FileChannel.open(directory.resolve(ReservationJournal.JOURNAL_FILE),
+                        StandardOpenOption.CREATE, StandardOpenOption.WRITE));
+                return new ReservationJournal(directory, snapshotWriter, 100_000, disk[0]);
+            }
+        };
+        roomManager.openJournal(dataDirectory);
+
+        check(book(roomManager, 1), "room 1 is booked while the disk works");
+        disk[0].tearNextWrite = true;
+        check(!book(roomManager, 2), "the booking of room 2 is refused when its write fails");
+        check(roomManager.getBookings(roomManager.getRoom(2)).isEmpty(), "the refused booking is taken back out of room 2");
+        check(roomManager.getRoom(2).isAvailable(), "room 2 shows available again");
+        check(!book(roomManager, 3), "room 3 is refused after the journal failed, though the disk works again");
+        check(roomManager.getBookings(roomManager.getRoom(3)).isEmpty(), "room 3 has no booking");
+        Booking first = roomManager.getBookings(roomManager.getRoom(1)).get(0);
+        boolean cancelled;
+        try {
+            cancelled = roomManager.cancel(first);
+        } catch (UncheckedIOException e) {
+            cancelled = false;
+        }
+        check(!cancelled && roomManager.getBookings(roomManager.getRoom(1)).size() == 1, "the confirmed booking of room 1 can't be cancelled any more");
+        roomManager.close();
+
+        List<Booking> replayed = new ArrayList<>();
+        RecoveryReport report = ReservationJournal.recover(dataDirectory, replayed::add, (roomNumber, checkInDay, bookedCheckOutDay, checkOutDay) -> { });
+        check(replayed.size() == 1 && replayed.get(0).getRoomNumber() == 1, "the journal replays the confirmed booking: " + replayed.size());
+        check(report.getCutOffBytes() == 0, "the torn record was cut off when the write failed: " + report);
+
+        System.out.println(failures == 0 ? "JournalFailureTest passed" : failures + " check(s) failed");
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static boolean book(RoomManager roomManager, int roomNumber) {
+        try {
+            return roomManager.tryReserve(roomManager.getRoom(roomNumber), "Juan Dela Cruz", "09171234567", 20000, 20002, 2).isReserved();
+        } catch (UncheckedIOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * A journal file that writes only half of the next batch and then fails, if asked to.
+     */
+    private static class TearingChannel extends FileChannel {
+        private final FileChannel file;
+        volatile boolean tearNextWrite;
+
+        TearingChannel(FileChannel file) {
+            this.file = file;
+        }
+
+        @Override
+        public long write(ByteBuffer[] sources, int offset, int length) throws IOException {
+            if (tearNextWrite) {
+                tearNextWrite = false;
+                ByteBuffer half = sources[offset].duplicate();
+                half.limit(half.position() + half.remaining() / 2);
+                file.write(half);
+                throw new IOException("No space left on device");
+            }
+            return file.write(sources, offset, length);
+        }
+
+        @Override
+        public int write(ByteBuffer source) throws IOException {
+            return file.write(source);
+        }
+
+        @Override
+        public int write(ByteBuffer source, long position) throws IOException {
+            return file.write(source, position);
+        }
+
+        @Override
+        public int read(ByteBuffer destination) throws IOException {
+            return file.read(destination);
+        }
+
+        @Override
+        public long read(ByteBuffer[] destinations, int offset, int length) throws IOException {
+            return file.read(destinations, offset, length);
+        }
+
+        @Override
+        public int read(ByteBuffer destination, long position) throws IOException {
+            return file.read(destination, position);
+        }
+
+        @Override
+        public long position() throws IOException {
+            return file.position();
+        }
+
+        @Override
+        public FileChannel position(long newPosition) throws IOException {
+            file.position(newPosition);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return file.size();
+        }
+
+        @Override
+        public FileChannel truncate(long size) throws IOException {
+            file.truncate(size);
+            return this;
+        }
+
+        @Override
+        public void force(boolean metaData) throws IOException {
+            file.force(metaData);
+        }
+
+        @Override
+        public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+            return file.transferTo(position, count, target);
+        }
+
+        @Override
+        public long transferFrom(ReadableByteChannel source, long position, long count) throws IOException {
+            return file.transferFrom(source, position, count);
+        }
+
+        @Override
+        public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+            return file.map(mode, position, size);
+        }
+
+        @Override
+        public FileLock lock(long position, long size, boolean shared) throws IOException {
+            return file.lock(position, size, shared);
+        }
+
+        @Override
+        public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+            return file.tryLock(position, size, shared);
+        }
+
+        @Override
+        protected void implCloseChannel() throws IOException {
+            file.close();
+        }
+    }
+
+    private static void check(boolean passed, String what) {
+        if (!passed) {
+            failures++;
+            System.out.println("FAILED: " + what);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.AbotLangit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * QuoteCacheEventTest class books one room twice, for two different stays, while the events wait in one batch,
+ * the way they do when two desks book at the same moment. The QuoteCache must then drop the quotes of both stays,
+ * not only of the booking that came last. Exits with status 1 if a check fails.
+ * Run it as a plain Java application: java com.AbotLangit.QuoteCacheEventTest
+ */
+public class QuoteCacheEventTest {
+    private static final int FIRST_STAY = 20000;
+    private static final int SECOND_STAY = 20010;
+    private static int failures;
+
+    public static void main(String[] args) {
+        // Every event of a room in the batch reaches the cache
+        List<Runnable> deliveries = new ArrayList<>();
+        RoomManager roomManager = new RoomManager(rooms());
+        QuoteCache quoteCache = QuoteCache.create(roomManager, 100, 1, TimeUnit.MINUTES);
+        roomManager.getEventBus().unsubscribe(quoteCache);
+        roomManager.getEventBus().subscribe(quoteCache, deliveries::add, false); // Held back until the test runs it
+        bookBoth(roomManager, quoteCache, deliveries);
+        check(deliveries.size() == 1, "both bookings are delivered in one batch");
+        check(quoteCache.search("Single", FIRST_STAY, 2, 1).isEmpty(), "the quote of the first stay is dropped");
+        check(quoteCache.search("Single", SECOND_STAY, 2, 1).isEmpty(), "the quote of the second stay is dropped");
+
+        // What the cache got before, only the latest event of the room
+        deliveries.clear();
+        roomManager = new RoomManager(rooms());
+        quoteCache = QuoteCache.create(roomManager, 100, 1, TimeUnit.MINUTES);
+        roomManager.getEventBus().unsubscribe(quoteCache);
+        roomManager.getEventBus().subscribe(quoteCache, deliveries::add, true);
+        bookBoth(roomManager, quoteCache, deliveries);
+        check(quoteCache.search("Single", FIRST_STAY, 2, 1).size() == 1, "a coalesced batch leaves the first stay quoted");
+
+        System.out.println(failures == 0 ? "QuoteCacheEventTest passed" : failures + " check(s) failed");
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static void bookBoth(RoomManager roomManager, QuoteCache quoteCache, List<Runnable> deliveries) {
+        check(quoteCache.search("Single", FIRST_STAY, 2, 1).size() == 1, "the first stay is quoted");
+        check(quoteCache.search("Single", SECOND_STAY, 2, 1).size() == 1, "the second stay is quoted");
+        Room room = roomManager.getRoom(1);
+        check(roomManager.tryReserve(room, "Juan Dela Cruz", "09171234567", FIRST_STAY, FIRST_STAY + 2, 1).isReserved(), "the first stay is booked");
+        check(roomManager.tryReserve(room, "Maria Santos", "09181234567", SECOND_STAY, SECOND_STAY + 2, 1).isReserved(), "the second stay is booked");
+        for (Runnable delivery : new ArrayList<>(deliveries)) {
+            delivery.run();
+        }
+    }
+
+    private static List<Room> rooms() {
+        List<Room> rooms = new ArrayList<>();
+        rooms.add(new Room("Single", 1525, 1));
+        return rooms;
+    }
+
+    private static void check(boolean passed, String what) {
+        if (!passed) {
+            failures++;
+            System.out.println("FAILED: " + what);
+        }
+    }
+}
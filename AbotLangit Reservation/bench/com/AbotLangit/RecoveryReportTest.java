@@ -0,0 +1,54 @@
+package com.AbotLangit;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * RecoveryReportTest class leaves a journal behind with a booking and a cancellation for a room that is no longer in the inventory
+ * and half a record at the end, the way a crash in the middle of a write leaves it, then opens it with a RoomManager.
+ * The skipped booking and the cut off bytes have to show up in the recovery report. Exits with status 1 if a check fails.
+ * Run it as a plain Java application: java com.AbotLangit.RecoveryReportTest
+ */
+public class RecoveryReportTest {
+    private static int failures;
+
+    public static void main(String[] args) throws Exception {
+        Path dataDirectory = Files.createTempDirectory("recovery");
+        ReservationJournal journal = new ReservationJournal(dataDirectory, snapshot -> { });
+        journal.append(new Booking(1, "Juan Dela Cruz", "09171234567", 20000, 20002, 2, 3050)).join();
+        Booking removedRoom = new Booking(99, "Maria Santos", "09181234567", 20000, 20002, 1, 3050); // Room 99 was taken out
+        journal.append(removedRoom).join();
+        journal.appendRelease(removedRoom, removedRoom.getCheckInDay()).join(); // And so was its cancellation
+        // Not closed: closing saves a snapshot and empties the journal, a crash doesn't
+        byte[] torn = ByteBuffer.allocate(10).putInt(64).putInt(12345).array(); // Says 64 bytes follow, only 2 do
+        Files.write(dataDirectory.resolve(ReservationJournal.JOURNAL_FILE), torn, StandardOpenOption.APPEND);
+
+        List<Room> inventory = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            inventory.add(new Room("Single", 1525, i));
+        }
+        RoomManager roomManager = RoomManager.open(dataDirectory, inventory);
+        RecoveryReport report = roomManager.getRecoveryReport();
+        check(report.getBookings() == 2, "both bookings are read from the journal: " + report);
+        check(report.getSkippedRecords() == 2, "the booking and the cancellation of room 99 are skipped: " + report);
+        check(report.getCutOffBytes() == torn.length, "the torn record is cut off: " + report);
+        check(roomManager.getBookings(roomManager.getRoom(1)).size() == 1, "room 1 has its booking back");
+        roomManager.close();
+
+        System.out.println(failures == 0 ? "RecoveryReportTest passed" : failures + " check(s) failed");
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static void check(boolean passed, String what) {
+        if (!passed) {
+            failures++;
+            System.out.println("FAILED: " + what);
+        }
+    }
+}
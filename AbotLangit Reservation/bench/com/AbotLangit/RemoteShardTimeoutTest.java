@@ -0,0 +1,94 @@
+package com.AbotLangit;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * RemoteShardTimeoutTest class points a RemoteShard at fake shard servers: one that accepts and never answers,
+ * and one that answers a reservation with a line missing its fields once and properly after that.
+ * The silent shard must time out instead of holding the caller, and the bad answer must fail only its own
+ * request, not leave a broken connection for the next one. Exits with status 1 if a check fails.
+ * Run it as a plain Java application: java com.AbotLangit.RemoteShardTimeoutTest
+ */
+public class RemoteShardTimeoutTest {
+    private static final int TIMEOUT_MILLIS = 500;
+    private static int failures;
+
+    public static void main(String[] args) throws Exception {
+        InetAddress loopback = InetAddress.getLoopbackAddress();
+        try (ServerSocket silent = new ServerSocket(0, 50, loopback)) {
+            long start = System.nanoTime();
+            try {
+                new RemoteShard(loopback, silent.getLocalPort(), TIMEOUT_MILLIS);
+                check(false, "a shard that never answers can't be connected");
+            } catch (SocketTimeoutException e) {
+                long waited = (System.nanoTime() - start) / 1_000_000;
+                check(waited < TIMEOUT_MILLIS * 4, "the silent shard times out after about " + TIMEOUT_MILLIS + " ms: " + waited + " ms");
+            }
+        }
+
+        try (ServerSocket server = new ServerSocket(0, 50, loopback)) {
+            Thread fake = new Thread(() -> serve(server));
+            fake.setDaemon(true);
+            fake.start();
+            RemoteShard shard = new RemoteShard(loopback, server.getLocalPort(), TIMEOUT_MILLIS);
+            try {
+                shard.reserve("Single", 1, "Juan Dela Cruz", "09171234567", 20000, 2, 1);
+                check(false, "an answer without its fields fails the reservation");
+            } catch (RuntimeException e) {
+                // Expected, the answer can't be read
+            }
+            PropertyReservation second = shard.reserve("Single", 1, "Juan Dela Cruz", "09171234567", 20000, 2, 1);
+            check(second.getStatus() == ReservationResult.Status.RESERVED, "the next reservation goes through on a new connection: " + second.getStatus());
+            shard.close();
+        }
+
+        System.out.println(failures == 0 ? "RemoteShardTimeoutTest passed" : failures + " check(s) failed");
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * A shard that answers HELLO, then the first RESERVE with a bare status and every later one in full.
+     */
+    private static void serve(ServerSocket server) {
+        boolean answeredBadly = false;
+        while (true) {
+            try (Socket socket = server.accept()) {
+                BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
+                String line;
+                while ((line = in.readLine()) != null) {
+                    String command = ShardProtocol.fields(line).get(0);
+                    if (command.equals(ShardProtocol.HELLO)) {
+                        out.write(ShardProtocol.line(ShardProtocol.OK, "fake", "Single") + "\n");
+                    } else if (!answeredBadly) {
+                        answeredBadly = true;
+                        out.write("RESERVED\n");
+                    } else {
+                        out.write(ShardProtocol.line("RESERVED", 1, 3050.0) + "\n");
+                    }
+                    out.flush();
+                }
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private static void check(boolean passed, String what) {
+        if (!passed) {
+            failures++;
+            System.out.println("FAILED: " + what);
+        }
+    }
+}
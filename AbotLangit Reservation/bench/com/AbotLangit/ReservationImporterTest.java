@@ -0,0 +1,187 @@
+package com.AbotLangit;
+
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+
+/**
+ * ReservationImporterTest class imports a small CSV file with a bad row of every kind and checks the error report,
+ * then imports one million generated rows into a hotel with a journal. The big import has to stay within a few chunks
+ * of the rows it has committed while it reads, and has to finish within a minute.
+ * Exits with status 1 if a check fails.
+ * Run it as a plain Java application: java com.AbotLangit.ReservationImporterTest
+ */
+public class ReservationImporterTest {
+    private static final int THREADS = 2;
+    private static final long ROWS = 1_000_000;
+    private static final int ROOMS = 20000; // About a quarter full after the import, the way a real hotel takes a channel dump
+    private static int failures;
+
+    public static void main(String[] args) throws Exception {
+        List<Room> inventory = new ArrayList<>();
+        inventory.add(new Room("Single", 1525, 1));
+        inventory.add(new Room("Single", 1525, 2));
+        RoomManager roomManager = new RoomManager(inventory);
+        String csv = "Namelia Cruz,09171234567,Single,2030-01-10,2,1\n"
+                + "Juan Dela Cruz,0917,Single,2030-01-10,2,1\n"
+                + "Juan Dela Cruz,09171234567,Penthouse,2030-01-10,2,1\n"
+                + "Juan Dela Cruz,09171234567,Single,2030/01/10,2,1\n"
+                + "Juan Dela Cruz,09171234567,Single,2030-01-10,0,1\n"
+                + "Juan Dela Cruz,09171234567,Single\n"
+                + "\"Santos, Maria\",09181234567,Single,2030-01-11,2,1\n"
+                + "Pedro Reyes,09191234567,Single,2030-01-10,2,1\n";
+        StringWriter report = new StringWriter();
+        ImportSummary summary = new ReservationImporter(roomManager, THREADS).importCsv(new StringReader(csv), report);
+        check(summary.getRows() == 8 && summary.getImported() == 2 && summary.getRejected() == 6, "8 rows, 2 imported, 6 rejected: " + summary);
+        check(countBookings(roomManager, "Namelia Cruz") == 1, "a first row that only starts like the header is imported");
+        check(countBookings(roomManager, "Santos, Maria") == 1, "a quoted name with a comma is imported");
+        String[] lines = report.toString().split("\n");
+        check(lines.length == 7 && lines[0].equals("line,error"), "the report has a header and a line per rejected row: " + lines.length);
+        check(lines.length == 7 && lines[1].startsWith("2,") && lines[1].contains("Contact"), "line 2 is rejected for its contact number: " + lines[1]);
+        check(lines.length == 7 && lines[2].startsWith("3,") && lines[2].contains("Penthouse"), "line 3 is rejected for its room type: " + lines[2]);
+        check(lines.length == 7 && lines[3].startsWith("4,"), "line 4 is rejected for its date: " + lines[3]);
+        check(lines.length == 7 && lines[4].startsWith("5,"), "line 5 is rejected for its duration: " + lines[4]);
+        check(lines.length == 7 && lines[5].startsWith("6,") && lines[5].contains("columns"), "line 6 is rejected for its columns: " + lines[5]);
+        check(lines.length == 7 && lines[6].startsWith("8,") && lines[6].contains("no Single rooms"), "line 8 finds no free room: " + lines[6]);
+
+        RoomManager withHeader = new RoomManager(List.of(new Room("Single", 1525, 1)));
+        StringWriter headerReport = new StringWriter();
+        ImportSummary headerSummary = new ReservationImporter(withHeader, THREADS).importCsv(new StringReader(
+                "Name, Contact Number ,ROOM TYPE,Check-in Date,Duration,Guests\n"
+                        + "Juan Dela Cruz,0917,Single,2030-01-10,2,1\n"), headerReport);
+        check(headerSummary.getRows() == 1, "the header is not counted as a row: " + headerSummary);
+        check(headerReport.toString().contains("\n2,"), "line numbers count the header: " + headerReport);
+
+        // One million rows into a hotel with a journal
+        Path dataDirectory = Files.createTempDirectory("import-test");
+        List<Room> hotel = new ArrayList<>();
+        for (int i = 1; i <= ROOMS; i++) {
+            hotel.add(new Room(i % 3 == 0 ? "VIP" : i % 2 == 0 ? "Double" : "Single", 1525, i));
+        }
+        AtomicLong reserved = new AtomicLong();
+        AtomicLong rejected = new AtomicLong();
+        AtomicLong worstLag = new AtomicLong();
+        RoomManager bigManager = new RoomManager(hotel) {
+            @Override
+            public List<ReservationResult> tryReserveBatch(List<String> types, List<Stay> stays) {
+                List<ReservationResult> results = super.tryReserveBatch(types, stays);
+                for (ReservationResult result : results) {
+                    if (result.isReserved()) {
+                        reserved.incrementAndGet();
+                    }
+                }
+                return results;
+            }
+        };
+        bigManager.openJournal(dataDirectory);
+        Reader generated = new GeneratedCsv(ROWS, lineNumber -> {
+            long lag = lineNumber - reserved.get() - rejected.get();
+            worstLag.accumulateAndGet(lag, Math::max);
+        });
+        Writer countingReport = new Writer() {
+            @Override
+            public void write(char[] buffer, int offset, int length) {
+                for (int i = offset; i < offset + length; i++) {
+                    if (buffer[i] == '\n') {
+                        rejected.incrementAndGet();
+                    }
+                }
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        ImportSummary bigSummary = new ReservationImporter(bigManager, THREADS).importCsv(generated, countingReport);
+        bigManager.close();
+        System.out.println(bigSummary + ", most lines read ahead of the commits: " + worstLag.get());
+        check(bigSummary.getRows() == ROWS, "every generated row is counted: " + bigSummary.getRows());
+        check(bigSummary.getImported() == reserved.get(), "every imported row was booked: " + reserved.get());
+        check(bigSummary.getImported() > 0 && bigSummary.getRejected() > 0, "the good rows are booked and the bad ones rejected");
+        // The chunks being validated and committed, plus the chunk being read and the reader's buffer
+        long allowed = (long) ReservationImporter.CHUNK_SIZE * (2 * THREADS + 2) + 1 + 2 * ReservationImporter.CHUNK_SIZE;
+        check(worstLag.get() <= allowed, "the import reads at most " + allowed + " lines ahead of its commits: " + worstLag.get());
+        check(bigSummary.getElapsedMillis() < 60_000, "one million rows import within a minute: " + bigSummary.getElapsedMillis() + " ms");
+
+        System.out.println(failures == 0 ? "ReservationImporterTest passed" : failures + " check(s) failed");
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * CSV rows made up while they are read, so the file itself takes no memory.
+     */
+    private static class GeneratedCsv extends Reader {
+        private static final String[] TYPES = {"Single", "Double", "VIP"};
+        private final long rows;
+        private final LongConsumer onLine;
+        private final SplittableRandom random = new SplittableRandom(42);
+        private final LocalDate firstDay = LocalDate.now().plusDays(1);
+        private String current = "";
+        private int position;
+        private long lineNumber;
+
+        GeneratedCsv(long rows, LongConsumer onLine) {
+            this.rows = rows;
+            this.onLine = onLine;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) {
+            int count = 0;
+            while (count < length) {
+                if (position == current.length()) {
+                    if (lineNumber == rows) {
+                        break;
+                    }
+                    lineNumber++;
+                    onLine.accept(lineNumber);
+                    current = nextLine();
+                    position = 0;
+                }
+                int n = Math.min(length - count, current.length() - position);
+                current.getChars(position, position + n, buffer, offset + count);
+                position += n;
+                count += n;
+            }
+            return count == 0 ? -1 : count;
+        }
+
+        private String nextLine() {
+            if (lineNumber % 50 == 0) {
+                return "Guest " + lineNumber + ",12345,Single,2030-01-10,2,1\n"; // Bad contact number
+            }
+            return "Guest " + lineNumber + ",09171234567," + TYPES[random.nextInt(TYPES.length)] + ","
+                    + firstDay.plusDays(random.nextInt(365)) + "," + (1 + random.nextInt(3)) + ",2\n";
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static long countBookings(RoomManager roomManager, String customerName) {
+        return roomManager.getAllBookings().stream().filter(booking -> booking.getCustomerName().equals(customerName)).count();
+    }
+
+    private static void check(boolean passed, String what) {
+        if (!passed) {
+            failures++;
+            System.out.println("FAILED: " + what);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.AbotLangit;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ReservationServiceTest class books one room for stays that don't overlap through the ReservationService,
+ * the way the reservation form and POST /reservations do, and checks that only a stay clashing with
+ * an existing booking is turned down, and that a duration too long to book is rejected instead of thrown. Exits with status 1 if a check fails.
+ * Run it as a plain Java application: java com.AbotLangit.ReservationServiceTest
+ */
+public class ReservationServiceTest {
+    private static int failures;
+
+    public static void main(String[] args) {
+        List<Room> inventory = new ArrayList<>();
+        inventory.add(new Room("Single", 1525, 1));
+        inventory.add(new Room("Double", 2500, 2));
+        RoomManager roomManager = new RoomManager(inventory);
+        ReservationService service = new ReservationService(roomManager);
+        LocalDate tonight = LocalDate.now();
+        LocalDate nextMonth = tonight.plusDays(30);
+
+        ReservationResponse first = service.reserve(request(1, tonight, 2));
+        check(first.isReserved(), "room 1 books for tonight: " + first.getStatus());
+
+        // The room is booked now, but the calendar still has next month free
+        check(roomManager.findAvailable("Single", nextMonth, nextMonth.plusDays(3)).contains(roomManager.getRoom(1)),
+                "room 1 is listed as free next month");
+        ReservationResponse later = service.reserve(request(1, nextMonth, 3));
+        check(later.isReserved(), "room 1 books for next month through the service: " + later.getStatus());
+
+        // Checking out the day the next guest checks in is not an overlap
+        ReservationResponse backToBack = service.reserve(request(1, tonight.plusDays(2), 1));
+        check(backToBack.isReserved(), "room 1 books from the check-out day of the first stay: " + backToBack.getStatus());
+
+        ReservationResponse clash = service.reserve(request(1, tonight.plusDays(1), 2));
+        check(clash.getStatus() == ReservationResponse.Status.UNAVAILABLE, "an overlapping stay is turned down: " + clash.getStatus());
+        check(roomManager.getBookings(roomManager.getRoom(1)).size() == 3, "room 1 has three bookings");
+
+        // A duration that would overflow the epoch days is turned down, not thrown
+        ReservationResponse huge = service.reserve(request(2, tonight, Integer.MAX_VALUE));
+        check(huge.getStatus() == ReservationResponse.Status.INVALID_NUMBER, "a duration of Integer.MAX_VALUE is an invalid number: " + huge.getStatus());
+        ReservationResponse tooLong = service.reserve(request(2, tonight, 366));
+        check(tooLong.getStatus() == ReservationResponse.Status.INVALID_NUMBER, "a stay over a year is an invalid number: " + tooLong.getStatus());
+        ReservationResponse pastLastDay = service.reserve(request(2, LocalDate.of(9999, 12, 30), 2));
+        check(pastLastDay.getStatus() == ReservationResponse.Status.INVALID_NUMBER, "a check-out after 9999-12-31 is an invalid number: " + pastLastDay.getStatus());
+        check(service.reserve(request(2, tonight, 365)).isReserved(), "a stay of a whole year books");
+
+        System.out.println(failures == 0 ? "ReservationServiceTest passed" : failures + " check(s) failed");
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static ReservationRequest request(int roomNumber, LocalDate checkIn, int nights) {
+        return new ReservationRequest("Juan Dela Cruz", "09171234567", roomNumber, Dates.ISO.format(checkIn),
+                String.valueOf(nights), "2");
+    }
+
+    private static void check(boolean passed, String what) {
+        if (!passed) {
+            failures++;
+            System.out.println("FAILED: " + what);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.AbotLangit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ReservationStressTest class hammers RoomManager.tryReserve from many threads at once.
+ * For every thread count from 1 up to twice the number of cores it books random rooms and dates,
+ * then checks that no room calendar ended up with two bookings on the same night and
+ * prints the throughput of that run.
+ * Run it as a plain Java application: java com.AbotLangit.ReservationStressTest [rooms] [attempts per thread]
+ */
+public class ReservationStressTest {
+    private static final int BASE_DAY = 20000; // Somewhere in 2024, as epoch day
+    private static final int DAYS = 365; // Bookings fall within one year
+    private static final int MAX_NIGHTS = 7;
+
+    public static void main(String[] args) throws InterruptedException {
+        int roomCount = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int attempts = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+        int maxThreads = Runtime.getRuntime().availableProcessors() * 2;
+
+        System.out.printf("%d rooms, %d attempts per thread%n", roomCount, attempts);
+        System.out.printf("%8s %12s %12s %14s %s%n", "threads", "reserved", "conflicts", "attempts/s", "double-bookings");
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            run(roomCount, attempts, threads);
+        }
+    }
+
+    /**
+     * Runs one round with a fresh RoomManager and the given number of threads.
+     */
+    private static void run(int roomCount, int attempts, int threads) throws InterruptedException {
+        List<Room> inventory = new ArrayList<>();
+        for (int i = 1; i <= roomCount; i++) {
+            inventory.add(new Room("Single", 1525, i));
+        }
+        RoomManager roomManager = new RoomManager(inventory);
+        List<Room> rooms = roomManager.getRooms();
+
+        AtomicLong reserved = new AtomicLong();
+        AtomicLong conflicts = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long ok = 0;
+                long failed = 0;
+                try {
+                    start.await();
+                    for (int i = 0; i < attempts; i++) {
+                        Room room = rooms.get(random.nextInt(rooms.size()));
+                        // Epoch days straight in, so the run measures the reservation engine and not date handling
+                        int checkIn = BASE_DAY + random.nextInt(DAYS);
+                        int checkOut = checkIn + 1 + random.nextInt(MAX_NIGHTS);
+                        if (roomManager.tryReserve(room, "Guest", "09171234567", checkIn, checkOut, 1).isReserved()) {
+                            ok++;
+                        } else {
+                            failed++;
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    reserved.addAndGet(ok);
+                    conflicts.addAndGet(failed);
+                    done.countDown();
+                }
+            }).start();
+        }
+
+        long startTime = System.nanoTime();
+        start.countDown();
+        done.await();
+        long elapsed = System.nanoTime() - startTime;
+
+        long stored = 0;
+        long doubleBookings = 0;
+        for (Room room : rooms) {
+            List<Booking> bookings = room.getCalendar().getBookings();
+            stored += bookings.size();
+            for (int i = 1; i < bookings.size(); i++) {
+                if (bookings.get(i).getCheckInDay() < bookings.get(i - 1).getCheckOutDay()) {
+                    doubleBookings++;
+                }
+            }
+        }
+        if (stored != reserved.get()) {
+            doubleBookings += Math.abs(stored - reserved.get()); // A lost or extra booking is just as bad
+        }
+
+        double perSecond = (double) threads * attempts / (elapsed / 1e9);
+        System.out.printf("%8d %12d %12d %14.0f %d%n", threads, reserved.get(), conflicts.get(), perSecond, doubleBookings);
+        if (doubleBookings != 0) {
+            throw new IllegalStateException("Found " + doubleBookings + " double-bookings with " + threads + " threads");
+        }
+    }
+}
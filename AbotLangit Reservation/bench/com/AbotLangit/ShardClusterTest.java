@@ -0,0 +1,129 @@
+package com.AbotLangit;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ShardClusterTest class runs several properties as ShardServers in JVMs of their own on this machine,
+ * plus one property split by room type over two more JVMs, and registers all of them in a PropertyRegistry.
+ * Many virtual-thread clients then search every property at once and book through the registry.
+ * It checks that no room got a night twice and prints the throughput and the p50/p99/max latency of the fan-out searches.
+ * Run it as a plain Java application: java com.AbotLangit.ShardClusterTest [properties] [clients] [requests per client]
+ */
+public class ShardClusterTest {
+
+    public static void main(String[] args) throws Exception {
+        int propertyCount = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        int requestsPerClient = args.length > 2 ? Integer.parseInt(args[2]) : 50;
+
+        Path workDirectory = Files.createTempDirectory("shards"); // Each shard journals into data/ under here
+        List<Process> processes = new ArrayList<>();
+        PropertyRegistry registry = new PropertyRegistry();
+        try {
+            for (int i = 1; i <= propertyCount; i++) {
+                registry.register(new RemoteShard(spawn(workDirectory, processes, "hotel-" + i)));
+            }
+            // One more property split by room type over two JVMs
+            registry.register(new RemoteShard(spawn(workDirectory, processes, "resort", "0", "Single,Double")));
+            registry.register(new RemoteShard(spawn(workDirectory, processes, "resort", "0", "VIP")));
+            System.out.printf("%d shards for %s%n", processes.size(), registry.getProperties());
+
+            LocalDate firstDay = LocalDate.of(2025, 1, 1);
+            long[] latencies = new long[clients * requestsPerClient];
+            AtomicLong reserved = new AtomicLong();
+            AtomicLong searches = new AtomicLong();
+            long startTime = System.nanoTime();
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int c = 0; c < clients; c++) {
+                    int clientIndex = c;
+                    futures.add(executor.submit(() -> {
+                        ThreadLocalRandom random = ThreadLocalRandom.current();
+                        for (int r = 0; r < requestsPerClient; r++) {
+                            LocalDate checkIn = firstDay.plusDays(random.nextInt(365));
+                            int nights = 1 + random.nextInt(5);
+                            long sent = System.nanoTime();
+                            List<PropertyQuote> quotes = registry.search(null, null, checkIn, nights, 2);
+                            latencies[clientIndex * requestsPerClient + r] = System.nanoTime() - sent;
+                            searches.incrementAndGet();
+                            if (!quotes.isEmpty() && random.nextInt(4) == 0) {
+                                PropertyQuote cheapest = quotes.get(0);
+                                if (registry.reserve(cheapest.getProperty(), cheapest.getType(), cheapest.getRoomNumber(),
+                                        "Cluster Test", "09171234567", checkIn, nights, 2).isReserved()) {
+                                    reserved.incrementAndGet();
+                                }
+                            }
+                        }
+                        return null;
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            }
+            double seconds = (System.nanoTime() - startTime) / 1e9;
+
+            // Every reserved stay must still be the only one on its nights, ask each night range again
+            long overlaps = 0;
+            for (String property : registry.getProperties()) {
+                for (int day = 0; day < 370; day++) {
+                    for (PropertyQuote quote : registry.search(property, null, firstDay.plusDays(day), 1, 1)) {
+                        if (registry.reserve(property, quote.getType(), quote.getRoomNumber(), "Check", "09171234567",
+                                firstDay.plusDays(day), 1, 1).getStatus() != ReservationResult.Status.RESERVED) {
+                            overlaps++; // Said to be free but it wasn't
+                        }
+                    }
+                }
+            }
+
+            Arrays.sort(latencies);
+            System.out.printf("%d searches and %d bookings in %.1f s, %.0f searches/s%n", searches.get(), reserved.get(), seconds, searches.get() / seconds);
+            System.out.printf("search latency p50 %.2f ms, p99 %.2f ms, max %.2f ms%n",
+                    latencies[latencies.length / 2] / 1e6, latencies[(int) (latencies.length * 0.99)] / 1e6, latencies[latencies.length - 1] / 1e6);
+            System.out.println("stale free rooms: " + overlaps);
+            System.out.println("shards skipped in searches: " + registry.getSkippedShards()
+                    + (registry.getLastShardError() == null ? "" : ", last because of " + registry.getLastShardError().getCause()));
+        } finally {
+            registry.close();
+            for (Process process : processes) {
+                process.destroy();
+            }
+        }
+    }
+
+    /**
+     * Starts a ShardServer in a new JVM with the classpath of this one and waits for its port.
+     */
+    private static int spawn(Path workDirectory, List<Process> processes, String... shardArgs) throws IOException {
+        List<String> command = new ArrayList<>(Arrays.asList(
+                System.getProperty("java.home") + File.separator + "bin" + File.separator + "java",
+                "-cp", System.getProperty("java.class.path"), ShardServer.class.getName()));
+        command.addAll(Arrays.asList(shardArgs));
+        Process process = new ProcessBuilder(command).directory(workDirectory.toFile()).redirectErrorStream(true).start();
+        processes.add(process);
+        BufferedReader out = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+        String line;
+        while ((line = out.readLine()) != null) {
+            if (line.startsWith("READY ")) {
+                return Integer.parseInt(line.substring(6).trim());
+            }
+            System.out.println("[" + shardArgs[0] + "] " + line);
+        }
+        throw new IOException("Shard " + shardArgs[0] + " exited before it was ready");
+    }
+}
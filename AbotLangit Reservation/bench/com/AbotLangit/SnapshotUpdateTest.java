@@ -0,0 +1,105 @@
+package com.AbotLangit;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * SnapshotUpdateTest class books, cancels, holds and reprices rooms in two snapshot chunks after a view asked for a snapshot,
+ * and checks that the next snapshot shows every change while the views already handed out stay as they were.
+ * Then a few threads book and cancel while another keeps reading snapshots, and the last one has to match the rooms.
+ * Exits with status 1 if a check fails.
+ * Run it as a plain Java application: java com.AbotLangit.SnapshotUpdateTest
+ */
+public class SnapshotUpdateTest {
+    private static final int ROOMS = 1500; // More than one chunk
+    private static final int THREADS = 4;
+    private static int failures;
+
+    public static void main(String[] args) throws Exception {
+        List<Room> inventory = new ArrayList<>();
+        for (int i = 1; i <= ROOMS; i++) {
+            inventory.add(new Room("Single", 1525, i));
+        }
+        RoomManager roomManager = new RoomManager(inventory);
+        RoomSnapshot first = roomManager.snapshot();
+        check(roomManager.snapshot() == first, "nothing changed, the same snapshot is handed out again");
+
+        ReservationResult booked = roomManager.tryReserve(roomManager.getRoom(7), "Juan Dela Cruz", "09171234567", 20000, 20002, 2);
+        check(roomManager.tryReserve(roomManager.getRoom(1400), "Maria Santos", "09181234567", 20000, 20003, 1).isReserved(), "room 1400 is booked");
+        RoomHold hold = roomManager.hold(roomManager.getRoom(8), 20000, 20002, Duration.ofMinutes(10));
+        roomManager.changePrice(roomManager.getRoom(9), 1800);
+        RoomSnapshot second = roomManager.snapshot();
+        check(second.getVersion() > first.getVersion(), "the changes make a new version");
+        check(!second.find(7).isAvailable() && "Juan Dela Cruz".equals(second.find(7).getCustomerName()), "the booking of room 7 is in the snapshot");
+        check(!second.find(1400).isAvailable() && second.find(1400).getCheckOutDate().equals(Dates.toLocalDate(20003)), "the booking of room 1400 is in the snapshot");
+        check(!second.find(8).isAvailable(), "the held room is not available in the snapshot");
+        check(second.find(9).getPrice() == 1800, "the new price is in the snapshot");
+        check(first.find(7).isAvailable() && first.find(1400).isAvailable() && first.find(9).getPrice() == 1525, "the first snapshot is unchanged");
+        check(second.find(10) == first.find(10), "an unchanged room is shared with the first snapshot");
+
+        check(roomManager.cancel(booked.getBooking()), "the booking of room 7 is cancelled");
+        check(roomManager.release(hold), "the hold of room 8 is released");
+        RoomSnapshot third = roomManager.snapshot();
+        check(third.find(7).isAvailable() && third.find(8).isAvailable(), "the cancelled and released rooms are available again");
+        check(!second.find(7).isAvailable(), "the second snapshot still shows the booking");
+
+        // Bookings and cancellations from several threads while snapshots are read
+        Thread[] desks = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            int seed = t;
+            desks[t] = new Thread(() -> churn(roomManager, new SplittableRandom(seed)));
+            desks[t].start();
+        }
+        AtomicBoolean done = new AtomicBoolean();
+        Thread reader = new Thread(() -> {
+            while (!done.get()) {
+                roomManager.snapshot().getStatuses();
+            }
+        });
+        reader.start();
+        for (Thread desk : desks) {
+            desk.join();
+        }
+        done.set(true);
+        reader.join();
+        RoomSnapshot last = roomManager.snapshot();
+        int wrong = 0;
+        for (Room room : roomManager.getRooms()) {
+            if (last.find(room.getNumber()).isAvailable() != room.isAvailable()) {
+                wrong++;
+            }
+        }
+        check(wrong == 0, wrong + " rooms show the wrong availability in the last snapshot");
+
+        System.out.println(failures == 0 ? "SnapshotUpdateTest passed" : failures + " check(s) failed");
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static void churn(RoomManager roomManager, SplittableRandom random) {
+        List<Booking> booked = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            if (booked.isEmpty() || random.nextBoolean()) {
+                Room room = roomManager.getRoom(1 + random.nextInt(ROOMS));
+                int checkIn = 20000 + random.nextInt(30);
+                ReservationResult result = roomManager.tryReserve(room, "Churn Guest", "09171234567", checkIn, checkIn + 2, 1);
+                if (result.isReserved()) {
+                    booked.add(result.getBooking());
+                }
+            } else {
+                roomManager.cancel(booked.remove(booked.size() - 1));
+            }
+        }
+    }
+
+    private static void check(boolean passed, String what) {
+        if (!passed) {
+            failures++;
+            System.out.println("FAILED: " + what);
+        }
+    }
+}
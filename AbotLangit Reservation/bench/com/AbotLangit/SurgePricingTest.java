@@ -0,0 +1,110 @@
+package com.AbotLangit;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SurgePricingTest class books most rooms of a type for a few nights with a surging DynamicPricingEngine
+ * and checks that only stays on those nights pay the surge, through RoomManager.quote and the QuoteCache.
+ * Bookings made before the first quote, after it, and released again all have to count.
+ * It also moves a NightOccupancy window forward over bookings inside, before and after it, and checks that
+ * a surge quote on the nights of the pricing tables allocates nothing. Exits with status 1 if a check fails.
+ * Run it as a plain Java application: java com.AbotLangit.SurgePricingTest
+ */
+public class SurgePricingTest {
+    private static final int BUSY = 20000; // Check-in of the busy nights
+    private static final int QUIET = 20010; // Nothing booked here
+    private static int failures;
+
+    public static void main(String[] args) {
+        List<Room> inventory = new ArrayList<>();
+        for (int i = 1; i <= 4; i++) {
+            inventory.add(new Room("Single", 1000, i));
+        }
+        RoomManager roomManager = new RoomManager(inventory);
+        DynamicPricingEngine pricing = new DynamicPricingEngine();
+        pricing.setSurge(0.5, 2.0); // Up to double once more than half the rooms are booked
+        roomManager.setPricingEngine(pricing);
+        Room free = roomManager.getRoom(4);
+
+        // Booked before anything was quoted, counted when the first quote asks
+        book(roomManager, 1, BUSY);
+        book(roomManager, 2, BUSY);
+        check(roomManager.quote(free, BUSY, 2, 1) == 2000, "half booked is not a surge yet: " + roomManager.quote(free, BUSY, 2, 1));
+
+        QuoteCache quoteCache = QuoteCache.create(roomManager, 100, 1, TimeUnit.MINUTES);
+        check(quoteCache.search("Single", BUSY, 2, 1).get(0).getTotalPrice() == 2000, "the cache quotes the busy nights without a surge");
+        check(quoteCache.search("Single", QUIET, 2, 1).get(0).getTotalPrice() == 2000, "the cache quotes the quiet nights");
+
+        // Booked after the counting started
+        Booking third = book(roomManager, 3, BUSY);
+        check(roomManager.quote(free, BUSY, 2, 1) == 3000, "three of four booked surges by half: " + roomManager.quote(free, BUSY, 2, 1));
+        check(roomManager.quote(free, QUIET, 2, 1) == 2000, "other nights don't surge: " + roomManager.quote(free, QUIET, 2, 1));
+        // Averaged over the nights: one night three quarters booked and one empty is under the threshold
+        check(roomManager.quote(free, BUSY + 1, 2, 1) == 2000, "a stay with one busy night of two doesn't surge: " + roomManager.quote(free, BUSY + 1, 2, 1));
+        check(quoteCache.search("Single", BUSY, 2, 1).get(0).getTotalPrice() == 3000, "the cache drops the busy quote on a booking");
+        check(quoteCache.search("Single", QUIET, 2, 1).get(0).getTotalPrice() == 2000, "the quiet quote is unchanged");
+
+        // Released nights stop counting, an early check-out keeps its first night
+        check(roomManager.checkOutEarly(third, BUSY + 1) != null, "room 3 checks out after one night");
+        check(roomManager.quote(free, BUSY + 1, 1, 1) == 1000, "the freed night is not a surge: " + roomManager.quote(free, BUSY + 1, 1, 1));
+        check(roomManager.quote(free, BUSY, 1, 1) == 1500, "the night stayed still is: " + roomManager.quote(free, BUSY, 1, 1));
+        quoteCache.close();
+
+        // The counts follow the window as it moves a week on, and far on
+        int firstDay = DynamicPricingEngine.tableStart(DynamicPricingEngine.today());
+        NightOccupancy occupancy = new NightOccupancy(firstDay);
+        int[] checkIns = {firstDay - 10, firstDay + 3, firstDay + DynamicPricingEngine.HORIZON - 1, firstDay + DynamicPricingEngine.HORIZON + 20};
+        for (int checkIn : checkIns) {
+            occupancy.add("Single", new Booking(1, "Juan Dela Cruz", "09171234567", checkIn, checkIn + 2, 1, 0));
+        }
+        for (int shift : new int[]{7, 700, 5000}) {
+            occupancy.moveTo(firstDay + shift);
+            int wrong = 0;
+            for (int checkIn : checkIns) {
+                if (occupancy.getBooked("Single", checkIn) != 1 || occupancy.getBooked("Single", checkIn + 1) != 1 || occupancy.getBooked("Single", checkIn + 2) != 0) {
+                    wrong++;
+                }
+            }
+            check(wrong == 0, wrong + " bookings are counted wrong after moving the window " + shift + " days");
+        }
+        occupancy.remove("Single", new Booking(1, "Juan Dela Cruz", "09171234567", checkIns[1], checkIns[1] + 2, 1, 0));
+        check(occupancy.getBooked("Single", checkIns[1]) == 0, "a booking now outside the window is taken off");
+
+        // A surge quote within the tables reads arrays only
+        Room room = roomManager.getRoom(1);
+        int checkIn = DynamicPricingEngine.today() + 30;
+        book(roomManager, 2, checkIn);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        double sum = 0;
+        for (int i = 0; i < 20_000; i++) {
+            sum += roomManager.quote(room, checkIn, 3, 1); // Warm up
+        }
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < 20_000; i++) {
+            sum += roomManager.quote(room, checkIn, 3, 1);
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+        check(sum > 0 && allocated < 1024, "20000 surge quotes allocate nothing: " + allocated + " bytes");
+
+        System.out.println(failures == 0 ? "SurgePricingTest passed" : failures + " check(s) failed");
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static Booking book(RoomManager roomManager, int roomNumber, int checkInDay) {
+        ReservationResult result = roomManager.tryReserve(roomManager.getRoom(roomNumber), "Juan Dela Cruz", "09171234567", checkInDay, checkInDay + 2, 1);
+        check(result.isReserved(), "room " + roomNumber + " is booked");
+        return result.getBooking();
+    }
+
+    private static void check(boolean passed, String what) {
+        if (!passed) {
+            failures++;
+            System.out.println("FAILED: " + what);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.AbotLangit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AvailabilitySearchBenchmark class measures how the cheapest-rooms search over every room type scales
+ * with the parallelism of its ForkJoinPool, from one worker up to the core count.
+ * A third of the rooms already have a booking somewhere in the searched month, so both the free and the taken path run.
+ * java -jar target/benchmarks.jar AvailabilitySearchBenchmark -p rooms=1000000
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class AvailabilitySearchBenchmark {
+    private static final String[] TYPES = {"Single", "Double", "VIP"};
+    private static final int BASE_DAY = 20000; // Somewhere in 2024
+
+    @Param({"100000", "1000000"})
+    public int rooms;
+
+    @Param({"1", "2", "4", "8", "16"})
+    public int parallelism;
+
+    @Param({"4096"})
+    public int threshold;
+
+    private ForkJoinPool pool;
+    private AvailabilitySearch search;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Room> inventory = new ArrayList<>(rooms);
+        for (int i = 1; i <= rooms; i++) {
+            String type = TYPES[i % TYPES.length];
+            inventory.add(new Room(type, 1525 + 1000 * (i % TYPES.length) + i % 97, i));
+        }
+        RoomManager roomManager = new RoomManager(inventory);
+        random = new SplittableRandom(42);
+        for (Room room : roomManager.getRooms()) {
+            if (random.nextInt(3) == 0) {
+                int checkIn = BASE_DAY + random.nextInt(30);
+                roomManager.tryReserve(room, "Benchmark Guest", "09171234567", checkIn, checkIn + 1 + random.nextInt(7), 2);
+            }
+        }
+        pool = new ForkJoinPool(parallelism);
+        search = new AvailabilitySearch(roomManager, pool, threshold);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public List<RoomQuote> cheapestOfAnyType() {
+        return search.cheapest(null, BASE_DAY + random.nextInt(27), 3, 2, 20);
+    }
+
+    /**
+     * Runs the benchmark for a million rooms, extra arguments are passed on as a benchmark name filter.
+     */
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : AvailabilitySearchBenchmark.class.getSimpleName();
+        Options options = new OptionsBuilder()
+                .include(include)
+                .param("rooms", "1000000")
+                .build();
+        new Runner(options).run();
+    }
+}
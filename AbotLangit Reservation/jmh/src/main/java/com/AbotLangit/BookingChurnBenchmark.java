@@ -0,0 +1,134 @@
+package com.AbotLangit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BookingChurnBenchmark class measures a desk that books, cancels and rebooks all the time:
+ * half of the operations book a room for a few nights in the next two months, the other half
+ * cancel or cut short one of the bookings the thread made, and the freed nights get booked again.
+ * Every derived view is kept up to date while it runs: the room index, the snapshot, the customer index
+ * and a QuoteCache, so a release costs what it costs in the real server.
+ * java -jar target/benchmarks.jar BookingChurnBenchmark -p rooms=1000
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx4g"})
+@Threads(4)
+@State(Scope.Benchmark)
+public class BookingChurnBenchmark {
+    private static final String[] TYPES = {"Single", "Double", "VIP"};
+    private static final int BASE_DAY = 20000; // Somewhere in 2024
+    private static final int DAYS = 60; // A busy two months, so freed nights are soon wanted again
+    private static final int KEPT = 256; // Bookings a thread keeps before it only releases
+
+    @Param({"1000", "100000"})
+    public int rooms;
+
+    private RoomManager roomManager;
+    private List<Room> roomList;
+    private QuoteCache quoteCache;
+
+    /**
+     * The bookings one benchmark thread made and can still release.
+     */
+    @State(Scope.Thread)
+    public static class Desk {
+        SplittableRandom random;
+        List<Booking> booked = new ArrayList<>();
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            random = new SplittableRandom(Thread.currentThread().threadId());
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Room> inventory = new ArrayList<>(rooms);
+        for (int i = 1; i <= rooms; i++) {
+            inventory.add(new Room(TYPES[i % TYPES.length], 1525 + 1000 * (i % TYPES.length), i));
+        }
+        roomManager = new RoomManager(inventory);
+        roomList = roomManager.getRooms();
+        quoteCache = QuoteCache.create(roomManager, 10_000, 1, TimeUnit.MINUTES);
+        roomManager.snapshot(); // From now on every change is noted for the next snapshot version
+        roomManager.findBookingsByContact("09171234567"); // And goes into the customer index
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        quoteCache.close();
+    }
+
+    @Benchmark
+    public Object churn(Desk desk) {
+        SplittableRandom random = desk.random;
+        List<Booking> booked = desk.booked;
+        if (booked.isEmpty() || (booked.size() < KEPT && random.nextBoolean())) {
+            Room room = roomList.get(random.nextInt(roomList.size()));
+            int checkIn = BASE_DAY + random.nextInt(DAYS);
+            ReservationResult result = roomManager.tryReserve(room, "Churn Guest", "09171234567", checkIn, checkIn + 1 + random.nextInt(5), 2);
+            if (result.isReserved()) {
+                booked.add(result.getBooking());
+            }
+            return result;
+        }
+        // Take out a random booking of this desk by swapping the last one into its place
+        int position = random.nextInt(booked.size());
+        Booking booking = booked.get(position);
+        booked.set(position, booked.get(booked.size() - 1));
+        booked.remove(booked.size() - 1);
+        if (booking.getNights() > 1 && random.nextInt(4) == 0) {
+            Booking shortened = roomManager.checkOutEarly(booking, booking.getCheckInDay() + 1);
+            if (shortened != null) {
+                booked.add(shortened); // Cancelled later like any other
+            }
+            return shortened;
+        }
+        return roomManager.cancel(booking);
+    }
+
+    @Benchmark
+    public boolean bookAndCancel(Desk desk) {
+        // The bare cost of freeing what was just booked, on a room no other thread is likely to touch
+        Room room = roomList.get(desk.random.nextInt(roomList.size()));
+        int checkIn = BASE_DAY + DAYS + desk.random.nextInt(3650);
+        ReservationResult result = roomManager.tryReserve(room, "Churn Guest", "09171234567", checkIn, checkIn + 2, 2);
+        return result.isReserved() && roomManager.cancel(result.getBooking());
+    }
+
+    /**
+     * Runs the benchmark, extra arguments are passed on as a benchmark name filter.
+     */
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : BookingChurnBenchmark.class.getSimpleName();
+        Options options = new OptionsBuilder()
+                .include(include)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,121 @@
+package com.AbotLangit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CustomerIndexBenchmark class measures looking guests up by contact number and by name
+ * in a CustomerIndex holding millions of past and upcoming stays, against scanning every booking.
+ * java -jar target/benchmarks.jar CustomerIndexBenchmark -p stays=1000000
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx8g"})
+@State(Scope.Benchmark)
+public class CustomerIndexBenchmark {
+    private static final String[] FIRST_NAMES = {"Juan", "Maria", "Jose", "Ana", "Pedro", "Rosa", "Miguel", "Carmen",
+            "Antonio", "Luz", "Ramon", "Elena", "Carlos", "Teresa", "Manuel", "Gloria", "Francisco", "Cristina"};
+    private static final String[] LAST_NAMES = {"Dela Cruz", "Santos", "Reyes", "Garcia", "Mendoza", "Bautista", "Ocampo",
+            "Villanueva", "Ramos", "Aquino", "Castillo", "Navarro", "Soriano", "Pascual", "Domingo", "Mercado"};
+    private static final int ROOMS = 5000;
+
+    @Param({"1000000", "5000000"})
+    public int stays;
+
+    private CustomerIndex index;
+    private Booking[] bookings;
+    private String[] contacts;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        random = new SplittableRandom(42);
+        index = new CustomerIndex();
+        bookings = new Booking[stays];
+        contacts = new String[stays / 3]; // Returning guests, about three stays per contact number
+        for (int i = 0; i < contacts.length; i++) {
+            contacts[i] = String.format("09%09d", random.nextInt(1_000_000_000));
+        }
+        for (int i = 0; i < stays; i++) {
+            // Consecutive stays of a room take turns, so no two bookings of a room share a check-in day
+            int room = 1 + i % ROOMS;
+            int checkIn = 10000 + (i / ROOMS) * 3;
+            String contact = contacts[random.nextInt(contacts.length)];
+            String name = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " + LAST_NAMES[random.nextInt(LAST_NAMES.length)]
+                    + " " + Integer.toString(random.nextInt(1 << 20), 36); // A third word so names are not all alike
+            bookings[i] = new Booking(room, name, contact, checkIn, checkIn + 2, 2, 3050);
+            index.add(bookings[i]);
+        }
+    }
+
+    @Benchmark
+    public List<Booking> byContact() {
+        return index.findByContact(contacts[random.nextInt(contacts.length)]);
+    }
+
+    @Benchmark
+    public List<Booking> byNamePrefix() {
+        // A rare third word typed half way, the way a guest spells out their name
+        Booking booking = bookings[random.nextInt(stays)];
+        List<String> words = CustomerIndex.words(booking.getCustomerName());
+        String last = words.get(words.size() - 1);
+        return index.findByName(last.substring(0, Math.max(1, last.length() - 1)), 50);
+    }
+
+    @Benchmark
+    public List<Booking> byFirstAndLastName() {
+        return index.findByName(FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " + LAST_NAMES[random.nextInt(LAST_NAMES.length)], 50);
+    }
+
+    @Benchmark
+    public int scanByContact() {
+        // What finding a guest took before the index, reading every booking
+        String contact = contacts[random.nextInt(contacts.length)];
+        int found = 0;
+        for (Booking booking : bookings) {
+            if (booking.getContactNumber().equals(contact)) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    public Booking addAndRemove() {
+        Booking booking = bookings[random.nextInt(stays)];
+        index.remove(booking);
+        index.add(booking);
+        return booking;
+    }
+
+    /**
+     * Runs the benchmark, extra arguments are passed on as a benchmark name filter.
+     */
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : CustomerIndexBenchmark.class.getSimpleName();
+        Options options = new OptionsBuilder()
+                .include(include)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,115 @@
+package com.AbotLangit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GroupReservationBenchmark class measures group reservations committing while single-room bookings
+ * hit the same rooms: one thread books groups of 20 to 200 rooms and three threads book single rooms,
+ * so the numbers show both what a group costs and how much it holds up the single bookings next to it.
+ * A smaller inventory means more contention and more groups failing on a room that is already taken.
+ * java -jar target/benchmarks.jar GroupReservationBenchmark -p rooms=1000 -p groupSize=200
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx4g"})
+public class GroupReservationBenchmark {
+    private static final String[] TYPES = {"Single", "Double", "VIP"};
+    private static final int BASE_DAY = 20000; // Somewhere in 2024
+    private static final int DAYS = 3650; // Bookings fall within ten years
+
+    /**
+     * The shared inventory.
+     */
+    @State(Scope.Group)
+    public static class Hotel {
+        @Param({"1000", "100000"})
+        public int rooms;
+
+        @Param({"20", "200"})
+        public int groupSize;
+
+        RoomManager roomManager;
+        List<Room> roomList;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            List<Room> inventory = new ArrayList<>(rooms);
+            for (int i = 1; i <= rooms; i++) {
+                inventory.add(new Room(TYPES[i % TYPES.length], 1525 + 1000 * (i % TYPES.length), i));
+            }
+            roomManager = new RoomManager(inventory);
+            roomList = roomManager.getRooms();
+        }
+    }
+
+    /**
+     * Random numbers of one benchmark thread.
+     */
+    @State(Scope.Thread)
+    public static class Caller {
+        SplittableRandom random;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            random = new SplittableRandom(Thread.currentThread().threadId());
+        }
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(1)
+    public GroupReservationResult groupBooking(Hotel hotel, Caller caller) {
+        // A wedding: consecutive rooms for the same weekend, like a block on one floor
+        int first = caller.random.nextInt(hotel.roomList.size() - hotel.groupSize + 1);
+        int checkIn = BASE_DAY + caller.random.nextInt(DAYS);
+        GroupReservation group = new GroupReservation("Benchmark Group", "09171234567");
+        for (int i = 0; i < hotel.groupSize; i++) {
+            group.add(hotel.roomList.get(first + i), checkIn, checkIn + 2, 2);
+        }
+        return hotel.roomManager.tryReserveGroup(group);
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(3)
+    public ReservationResult singleBooking(Hotel hotel, Caller caller) {
+        Room room = hotel.roomList.get(caller.random.nextInt(hotel.roomList.size()));
+        int checkIn = BASE_DAY + caller.random.nextInt(DAYS);
+        return hotel.roomManager.tryReserve(room, "Benchmark Guest", "09171234567", checkIn, checkIn + 1 + caller.random.nextInt(7), 2);
+    }
+
+    /**
+     * Runs the benchmark, extra arguments are passed on as a benchmark name filter.
+     */
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : GroupReservationBenchmark.class.getSimpleName();
+        Options options = new OptionsBuilder()
+                .include(include)
+                .build();
+        new Runner(options).run();
+    }
+}
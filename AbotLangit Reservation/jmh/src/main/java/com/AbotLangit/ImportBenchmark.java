@@ -0,0 +1,131 @@
+package com.AbotLangit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ImportBenchmark class measures how long ReservationImporter takes for a whole CSV file into a hotel with a journal,
+ * the rows made up while they are read so the file takes no memory. Every 50th row has a bad contact number.
+ * The target is one million rows well within a minute.
+ * java -jar target/benchmarks.jar ImportBenchmark -p rows=1000000
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class ImportBenchmark {
+    private static final String[] TYPES = {"Single", "Double", "VIP"};
+
+    @Param({"1000000"})
+    public int rows;
+
+    @Param({"20000"})
+    public int rooms;
+
+    private RoomManager roomManager;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException {
+        List<Room> inventory = new ArrayList<>(rooms);
+        for (int i = 1; i <= rooms; i++) {
+            inventory.add(new Room(TYPES[i % TYPES.length], 1525 + 1000 * (i % TYPES.length), i));
+        }
+        Path dataDirectory = Files.createTempDirectory("import-benchmark");
+        roomManager = RoomManager.open(dataDirectory, inventory);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        roomManager.close();
+    }
+
+    @Benchmark
+    public ImportSummary importCsv() throws IOException {
+        return new ReservationImporter(roomManager).importCsv(new GeneratedCsv(rows), new StringWriter());
+    }
+
+    /**
+     * CSV rows made up while they are read.
+     */
+    private static class GeneratedCsv extends Reader {
+        private final int rows;
+        private final SplittableRandom random = new SplittableRandom(42);
+        private final LocalDate firstDay = LocalDate.now().plusDays(1);
+        private String current = "";
+        private int position;
+        private int lineNumber;
+
+        GeneratedCsv(int rows) {
+            this.rows = rows;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) {
+            int count = 0;
+            while (count < length) {
+                if (position == current.length()) {
+                    if (lineNumber == rows) {
+                        break;
+                    }
+                    lineNumber++;
+                    current = nextLine();
+                    position = 0;
+                }
+                int n = Math.min(length - count, current.length() - position);
+                current.getChars(position, position + n, buffer, offset + count);
+                position += n;
+                count += n;
+            }
+            return count == 0 ? -1 : count;
+        }
+
+        private String nextLine() {
+            String contactNumber = lineNumber % 50 == 0 ? "12345" : "09171234567";
+            return "Guest " + lineNumber + "," + contactNumber + "," + TYPES[random.nextInt(TYPES.length)] + ","
+                    + firstDay.plusDays(random.nextInt(365)) + "," + (1 + random.nextInt(3)) + ",2\n";
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    /**
+     * Runs the benchmark, extra arguments are passed on as a benchmark name filter.
+     */
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : ImportBenchmark.class.getSimpleName();
+        Options options = new OptionsBuilder()
+                .include(include)
+                .build();
+        new Runner(options).run();
+    }
+}
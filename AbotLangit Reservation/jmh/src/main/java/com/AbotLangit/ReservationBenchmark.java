@@ -0,0 +1,160 @@
+package com.AbotLangit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ReservationBenchmark class measures the booking hot path with JMH:
+ * reserving, listing available rooms and types, searching a date range,
+ * the flat and dynamic price of a stay and parsing check-in dates with Dates, as the reservation form does.
+ * The inventory size is a parameter from the nine rooms of the default hotel up to a million rooms.
+ * Contention comes from the JMH thread count, run the main method for 1, 4, 16 and 64 threads or pass -t to the jar:
+ * java -jar target/benchmarks.jar ReservationBenchmark -t 16 -p rooms=100000
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx4g"})
+public class ReservationBenchmark {
+    private static final String[] TYPES = {"Single", "Double", "VIP"};
+    private static final int BASE_DAY = 20000; // Somewhere in 2024
+    private static final int DAYS = 3650; // Bookings fall within ten years
+
+    /**
+     * The shared inventory.
+     */
+    @State(Scope.Benchmark)
+    public static class Hotel {
+        @Param({"9", "1000", "100000", "1000000"})
+        public int rooms;
+
+        RoomManager roomManager;
+        List<Room> roomList;
+        LocalDate[] days;
+        DynamicPricingEngine pricing;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            List<Room> inventory = new ArrayList<>(rooms);
+            for (int i = 1; i <= rooms; i++) {
+                String type = TYPES[i % TYPES.length];
+                inventory.add(new Room(type, 1525 + 1000 * (i % TYPES.length), i));
+            }
+            roomManager = new RoomManager(inventory);
+            roomList = roomManager.getRooms();
+            days = new LocalDate[DAYS + 8];
+            for (int i = 0; i < days.length; i++) {
+                days[i] = LocalDate.ofEpochDay(BASE_DAY + i);
+            }
+            pricing = new DynamicPricingEngine();
+            pricing.setWeekendRate(1.25);
+            LocalDate today = LocalDate.now();
+            pricing.addSeason(null, today.plusDays(30), today.plusDays(90), 1.4);
+            pricing.addSeason("VIP", today.plusDays(200), today.plusDays(220), 2);
+            pricing.addStayDiscount(3, 0.05);
+            pricing.addStayDiscount(7, 0.12);
+            pricing.setSurge(0.7, 1.5);
+        }
+    }
+
+    /**
+     * Random numbers of one benchmark thread.
+     */
+    @State(Scope.Thread)
+    public static class Caller {
+        SplittableRandom random;
+        String[] dateTexts;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            random = new SplittableRandom(Thread.currentThread().threadId());
+            dateTexts = new String[64];
+            for (int i = 0; i < dateTexts.length; i++) {
+                dateTexts[i] = String.format("2025-%02d-%02d", 1 + random.nextInt(12), 1 + random.nextInt(28));
+            }
+        }
+    }
+
+    @Benchmark
+    public ReservationResult reserveRoom(Hotel hotel, Caller caller) {
+        Room room = hotel.roomList.get(caller.random.nextInt(hotel.roomList.size()));
+        int checkIn = caller.random.nextInt(DAYS);
+        int checkOut = checkIn + 1 + caller.random.nextInt(7);
+        return hotel.roomManager.tryReserve(room, "Benchmark Guest", "09171234567", hotel.days[checkIn], hotel.days[checkOut], 2);
+    }
+
+    @Benchmark
+    public List<Room> getAvailableRooms(Hotel hotel) {
+        return hotel.roomManager.getAvailableRooms();
+    }
+
+    @Benchmark
+    public List<String> getAvailableRoomTypes(Hotel hotel) {
+        return hotel.roomManager.getAvailableRoomTypes();
+    }
+
+    @Benchmark
+    public List<Room> findAvailable(Hotel hotel, Caller caller) {
+        int checkIn = caller.random.nextInt(DAYS);
+        return hotel.roomManager.findAvailable(TYPES[caller.random.nextInt(TYPES.length)], hotel.days[checkIn], hotel.days[checkIn + 3]);
+    }
+
+    @Benchmark
+    public double calculateTotalPrice(Hotel hotel, Caller caller) {
+        Room room = hotel.roomList.get(caller.random.nextInt(hotel.roomList.size()));
+        return room.calculateTotalPrice(1 + caller.random.nextInt(9), 1 + caller.random.nextInt(9));
+    }
+
+    @Benchmark
+    public double quoteDynamicPrice(Hotel hotel, Caller caller) {
+        Room room = hotel.roomList.get(caller.random.nextInt(hotel.roomList.size()));
+        int checkInDay = (int) LocalDate.now().toEpochDay() + caller.random.nextInt(365);
+        return hotel.pricing.quote(room, checkInDay, 1 + caller.random.nextInt(9), 1 + caller.random.nextInt(4), 0.8);
+    }
+
+    @Benchmark
+    public LocalDate parseDate(Caller caller) {
+        return Dates.parse(caller.dateTexts[caller.random.nextInt(caller.dateTexts.length)]);
+    }
+
+    @Benchmark
+    public int parseEpochDay(Caller caller) {
+        return Dates.parseEpochDay(caller.dateTexts[caller.random.nextInt(caller.dateTexts.length)]);
+    }
+
+    /**
+     * Runs every benchmark at 1, 4, 16 and 64 threads for a before/after baseline.
+     * Extra arguments are passed on as a benchmark name filter.
+     */
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : ReservationBenchmark.class.getSimpleName();
+        for (int threads : new int[] {1, 4, 16, 64}) {
+            Options options = new OptionsBuilder()
+                    .include(include)
+                    .threads(threads)
+                    .build();
+            new Runner(options).run();
+        }
+    }
+}
@@ -1,25 +1,21 @@
 package com.AbotLangit;
 
-import javax.imageio.ImageIO;
 import javax.swing.*;
 import javax.swing.table.DefaultTableCellRenderer;
-import javax.swing.table.DefaultTableModel;
 import javax.swing.table.JTableHeader;
 import java.awt.*;
-import java.awt.image.BufferedImage;
-import java.io.IOException;
-import java.net.URL;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
 
 /**
  * AvailabilityFrame class displays room availability in a JFrame with a background image.
  */
 public class AvailabilityFrame extends JFrame {
     private static final long serialVersionUID = 1L;
+    private static final int MAX_GUEST_RESULTS = 50; // Bookings listed for a name lookup
     private RoomManager roomManager;
+    private RoomTableModel tableModel; // Shows the rooms straight from the RoomManager
 
     /**
      * Constructs the AvailabilityFrame.
@@ -33,9 +29,8 @@ public class AvailabilityFrame extends JFrame {
         setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
         setLocationRelativeTo(null);
 
-        // Load background image
-        BufferedImage backgroundImage = loadImage("image/couple.jpg");
-        JPanel mainPanel = new BackgroundPanel(backgroundImage);
+        // Background image, shared through the ImageCache with every other frame that opens it
+        JPanel mainPanel = new BackgroundPanel("/image/couple.jpg");
         mainPanel.setLayout(new BorderLayout());
         add(mainPanel);
 
@@ -45,16 +40,15 @@ public class AvailabilityFrame extends JFrame {
         headerLabel.setForeground(Color.WHITE);
         mainPanel.add(headerLabel, BorderLayout.NORTH);
 
-        // Table setup
-        String[] columnNames = {"Room Type", "Room Number", "Availability", "Price per day", "Customer Name", "Contact #", "Check-in Date", "Check-out Date", "Duration (days)", "Guest Count", "Total Price"};
-        DefaultTableModel tableModel = new DefaultTableModel(columnNames, 0) {
-            private static final long serialVersionUID = 1L;
-
+        // Table setup, the model reads the rooms directly and repaints a row when its room changes
+        tableModel = new RoomTableModel(roomManager);
+        tableModel.attach();
+        addWindowListener(new WindowAdapter() {
             @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
+            public void windowClosed(WindowEvent e) {
+                tableModel.detach();
             }
-        };
+        });
 
         JTable availabilityTable = new JTable(tableModel);
         availabilityTable.setFillsViewportHeight(true);
@@ -72,75 +66,50 @@ public class AvailabilityFrame extends JFrame {
         tableHeader.setBackground(new Color(36, 63, 96));
         tableHeader.setForeground(Color.WHITE);
 
-        // Populate table model with initial data
-        updateTableModel(tableModel);
-
         // Scroll pane for the table
         JScrollPane scrollPane = new JScrollPane(availabilityTable);
         mainPanel.add(scrollPane, BorderLayout.CENTER);
 
+        // Guest lookup, for a guest who calls with a name or a contact number
+        JPanel findPanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
+        findPanel.setOpaque(false);
+        JTextField findField = new JTextField(20);
+        JButton findButton = new JButton("Find Guest");
+        findButton.addActionListener(e -> findGuest(findField.getText()));
+        findField.addActionListener(e -> findGuest(findField.getText()));
+        findPanel.add(findField);
+        findPanel.add(findButton);
+        mainPanel.add(findPanel, BorderLayout.SOUTH);
+
         setVisible(true);
     }
 
     /**
-     * Updates the table model with current room availability data.
-     * @param tableModel The DefaultTableModel to update.
+     * Shows the bookings of a guest, looked up by contact number if only digits were typed and by name otherwise.
+     * @param text The name or contact number.
      */
-    private void updateTableModel(DefaultTableModel tableModel) {
-        List<Room> rooms = roomManager.getRooms();
-        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy/MM/dd");
-
-        for (Room room : rooms) {
-            String availabilityStatus = room.isAvailable() ? "Available" : "Not Available";
-            String priceStatus = String.format("Php %.2f", room.getPrice());
-
-            if (!room.isAvailable()) {
-                int duration = calculateDuration(room.getCheckInDate(), room.getCheckOutDate());
-                double totalPrice = room.calculateTotalPrice(duration, room.getGuestCount());
-
-                // Prepare row data for booked rooms
-                Object[] rowData = {room.getType(), room.getNumber(), availabilityStatus, priceStatus, room.getCustomerName(), room.getContactNumber(), dateFormat.format(room.getCheckInDate()), dateFormat.format(room.getCheckOutDate()), duration, room.getGuestCount(), String.format("Php %.2f", totalPrice)};
-                tableModel.addRow(rowData);
-            } else {
-                // Prepare row data for available rooms
-                Object[] rowData = {room.getType(), room.getNumber(), availabilityStatus, priceStatus, "", "", "", "", "", "", ""};
-                tableModel.addRow(rowData);
-            }
+    private void findGuest(String text) {
+        String query = text.trim();
+        if (query.isEmpty()) {
+            return;
         }
-    }
-
-    /**
-     * Calculates the duration in days between two dates.
-     * @param checkInDate The check-in date.
-     * @param checkOutDate The check-out date.
-     * @return The duration in days as an integer.
-     */
-    private int calculateDuration(Date checkInDate, Date checkOutDate) {
-        if (checkInDate != null && checkOutDate != null) {
-            long differenceInMillis = checkOutDate.getTime() - checkInDate.getTime();
-            return (int) TimeUnit.MILLISECONDS.toDays(differenceInMillis);
-        } else {
-            return 0; // Handle the cases where dates are not set properly
+        List<Booking> bookings = query.matches("[0-9 -]+")
+                ? roomManager.findBookingsByContact(query)
+                : roomManager.findBookingsByName(query, MAX_GUEST_RESULTS);
+        if (bookings.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "No bookings found for " + query, "Find Guest", JOptionPane.INFORMATION_MESSAGE);
+            return;
         }
-    }
-
-    /**
-     * Loads an image from the resources.
-     * @param imagePath The path to the image file.
-     * @return The BufferedImage loaded from the specified path.
-     */
-    private BufferedImage loadImage(String imagePath) {
-        try {
-            URL imageUrl = getClass().getClassLoader().getResource(imagePath);
-            if (imageUrl != null) {
-                return ImageIO.read(imageUrl);
-            } else {
-                System.err.println("Resource not found: " + imagePath);
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
+        StringBuilder message = new StringBuilder();
+        for (Booking booking : bookings) {
+            message.append("Room ").append(booking.getRoomNumber())
+                    .append(" - ").append(booking.getCustomerName())
+                    .append(" (").append(booking.getContactNumber()).append(") ")
+                    .append(Dates.format(Dates.ISO, booking.getCheckInDay()))
+                    .append(" to ").append(Dates.format(Dates.ISO, booking.getCheckOutDay()))
+                    .append('\n');
         }
-        return null;
+        JOptionPane.showMessageDialog(this, message.toString(), "Find Guest", JOptionPane.INFORMATION_MESSAGE);
     }
 
     /**
@@ -151,28 +120,4 @@ public class AvailabilityFrame extends JFrame {
         RoomManager roomManager = new RoomManager(); // Example RoomManager instance
         SwingUtilities.invokeLater(() -> new AvailabilityFrame(roomManager));
     }
-
-    /**
-     * JPanel with background image painting capability.
-     */
-    class BackgroundPanel extends JPanel {
-        private static final long serialVersionUID = 8390420577469614622L;
-        private BufferedImage backgroundImage;
-
-        /**
-         * Constructs a BackgroundPanel with a background image.
-         * @param image The background image to display.
-         */
-        public BackgroundPanel(BufferedImage image) {
-            this.backgroundImage = image;
-        }
-
-        @Override
-        protected void paintComponent(Graphics g) {
-            super.paintComponent(g);
-            if (backgroundImage != null) {
-                g.drawImage(backgroundImage, 0, 0, getWidth(), getHeight(), this);
-            }
-        }
-    }
 }
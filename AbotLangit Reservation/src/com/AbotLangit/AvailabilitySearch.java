@@ -0,0 +1,183 @@
+package com.AbotLangit;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * This is the AvailabilitySearch class
+ * Finds the cheapest rooms that are free for a stay by splitting the inventory into chunks
+ * that are checked, priced and narrowed down to the cheapest few on a ForkJoinPool.
+ * Each chunk only keeps its own top rooms, so joining two chunks never touches more than twice the limit.
+ * Inventories below the threshold are searched on the calling thread, forking would cost more than it saves.
+ */
+public class AvailabilitySearch {
+    public static final int DEFAULT_THRESHOLD = 4096; // Rooms per chunk, also the size below which the search stays sequential
+
+    // Cheapest first, the room number breaks ties so the order doesn't depend on how the inventory was split
+    private static final Comparator<RoomQuote> BY_PRICE = Comparator.comparingDouble(RoomQuote::getTotalPrice)
+            .thenComparingInt(quote -> quote.getRoom().getNumber());
+
+    private final RoomManager roomManager;
+    private final ForkJoinPool pool;
+    private final int threshold;
+
+    /**
+     * Constructor to search the rooms of a RoomManager on the common pool.
+     * @param roomManager The RoomManager to search.
+     */
+    public AvailabilitySearch(RoomManager roomManager) {
+        this(roomManager, ForkJoinPool.commonPool(), DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Constructor to search the rooms of a RoomManager on a pool of its own.
+     * @param roomManager The RoomManager to search.
+     * @param pool The pool the chunks run on.
+     * @param threshold The number of rooms per chunk and below which the search is sequential.
+     */
+    public AvailabilitySearch(RoomManager roomManager, ForkJoinPool pool, int threshold) {
+        if (threshold < 1) {
+            throw new IllegalArgumentException("Threshold must be at least 1: " + threshold);
+        }
+        this.roomManager = roomManager;
+        this.pool = pool;
+        this.threshold = threshold;
+    }
+
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * Same as cheapest with epoch days, for callers that have a date.
+     * @param type The room type, or null for every type.
+     * @param checkInDate The check-in date.
+     * @param nights The number of nights.
+     * @param guests The number of guests.
+     * @param limit The most rooms to return.
+     * @return The cheapest free rooms, cheapest first.
+     */
+    public List<RoomQuote> cheapest(String type, LocalDate checkInDate, int nights, int guests, int limit) {
+        return cheapest(type, Dates.toEpochDay(checkInDate), nights, guests, limit);
+    }
+
+    /**
+     * Finds the cheapest rooms that are free for every night of a stay.
+     * @param type The room type, or null for every type.
+     * @param checkInDay The check-in date as epoch day.
+     * @param nights The number of nights.
+     * @param guests The number of guests.
+     * @param limit The most rooms to return.
+     * @return The cheapest free rooms, cheapest first, at most limit of them.
+     */
+    public List<RoomQuote> cheapest(String type, int checkInDay, int nights, int guests, int limit) {
+        if (nights <= 0 || limit <= 0) {
+            return new ArrayList<>();
+        }
+        List<Room> candidates = type == null ? roomManager.getRooms() : roomManager.getIndex().getRoomsOfType(type);
+        Chunk all = new Chunk(candidates, 0, candidates.size(), checkInDay, nights, guests, limit);
+        TopRooms top = candidates.size() <= threshold ? all.compute() : pool.invoke(all);
+        return top.sorted();
+    }
+
+    /**
+     * The rooms between two positions of the candidate list, split in halves until a half is below the threshold.
+     */
+    private class Chunk extends RecursiveTask<TopRooms> {
+        private static final long serialVersionUID = 1L; // Never serialized, a task only lives within one search
+        private final transient List<Room> candidates;
+        private final int from;
+        private final int to;
+        private final int checkInDay;
+        private final int nights;
+        private final int guests;
+        private final int limit;
+
+        Chunk(List<Room> candidates, int from, int to, int checkInDay, int nights, int guests, int limit) {
+            this.candidates = candidates;
+            this.from = from;
+            this.to = to;
+            this.checkInDay = checkInDay;
+            this.nights = nights;
+            this.guests = guests;
+            this.limit = limit;
+        }
+
+        @Override
+        protected TopRooms compute() {
+            if (to - from <= threshold) {
+                return scan();
+            }
+            int middle = (from + to) >>> 1;
+            Chunk left = new Chunk(candidates, from, middle, checkInDay, nights, guests, limit);
+            Chunk right = new Chunk(candidates, middle, to, checkInDay, nights, guests, limit);
+            left.fork();
+            TopRooms top = right.compute();
+            return top.merge(left.join());
+        }
+
+        private TopRooms scan() {
+            TopRooms top = new TopRooms(limit);
+            int checkOutDay = checkInDay + nights;
+            for (int i = from; i < to; i++) {
+                Room room = candidates.get(i);
+                // The calendar checks under its own lock, a search doesn't need the stripe since it doesn't reserve
+                if (room.getCalendar().isFree(checkInDay, checkOutDay)) {
+                    top.offer(room, roomManager.quote(room, checkInDay, nights, guests));
+                }
+            }
+            return top;
+        }
+    }
+
+    /**
+     * The cheapest rooms seen so far, kept in a heap with the most expensive on top so it is the one to drop.
+     */
+    private static class TopRooms {
+        private final int limit;
+        private final PriorityQueue<RoomQuote> heap;
+
+        TopRooms(int limit) {
+            this.limit = limit;
+            this.heap = new PriorityQueue<>(Math.min(limit, 64), BY_PRICE.reversed());
+        }
+
+        void offer(Room room, double totalPrice) {
+            if (heap.size() < limit) {
+                heap.add(new RoomQuote(room, totalPrice));
+                return;
+            }
+            RoomQuote worst = heap.peek();
+            // Compare before allocating, most rooms of a big inventory don't make it
+            if (totalPrice < worst.getTotalPrice()
+                    || totalPrice == worst.getTotalPrice() && room.getNumber() < worst.getRoom().getNumber()) {
+                heap.poll();
+                heap.add(new RoomQuote(room, totalPrice));
+            }
+        }
+
+        TopRooms merge(TopRooms other) {
+            TopRooms smaller = heap.size() < other.heap.size() ? this : other;
+            TopRooms larger = smaller == this ? other : this;
+            for (RoomQuote quote : smaller.heap) {
+                larger.offer(quote.getRoom(), quote.getTotalPrice());
+            }
+            return larger;
+        }
+
+        List<RoomQuote> sorted() {
+            List<RoomQuote> quotes = new ArrayList<>(heap);
+            quotes.sort(BY_PRICE);
+            return quotes;
+        }
+    }
+}
@@ -3,42 +3,57 @@ package com.AbotLangit;
 import java.awt.Dimension;
 import java.awt.Graphics;
 import java.awt.image.BufferedImage;
-import java.io.IOException;
-import java.io.InputStream;
-import javax.imageio.ImageIO;
 import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
 
 /*
  * The class that is responsible for loading and showing the jpg from the resource folder
  * Allowing the Welcome, Reservation and Availabilty classes to achieved its custom background based on the given source path of the jpg
  * You need to somethings though the properties and java build path in order for the resource folder to work
+ * The jpg comes from the ImageCache and is scaled to the panel once per size, every repaint after that just copies the scaled image
+ * If the jpg isn't decoded yet the panel shows up plain and paints it as soon as a startup worker is done with it
+ * The jpg is asked for when the panel is added to a window, not while it is still being built
  */
 public class BackgroundPanel extends JPanel {
     private static final long serialVersionUID = 1L;
-    private BufferedImage backgroundImage;
+    private transient BufferedImage backgroundImage;
+    private transient BufferedImage scaledImage; // The background at the current panel size, replaced when the panel is resized
+    private final String imagePath;
+    private boolean loadStarted; // Only touched on the Swing thread
 
     public BackgroundPanel(String imagePath) {
-        try {
-            // Load the image
-            InputStream inputStream = getClass().getResourceAsStream(imagePath);
-            if (inputStream != null) {
-                backgroundImage = ImageIO.read(inputStream);
+        this.imagePath = imagePath;
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        if (loadStarted) {
+            return;
+        }
+        loadStarted = true;
+        // Null if the jpg couldn't be loaded, the panel is just left plain then
+        ImageCache.getImageAsync(imagePath, StartupLoader.getWorkers()).thenAccept(image -> {
+            if (SwingUtilities.isEventDispatchThread()) {
+                backgroundImage = image; // Was already cached, so it is there before the window is laid out
             } else {
-                throw new IllegalArgumentException("Image file not found: " + imagePath);
+                SwingUtilities.invokeLater(() -> {
+                    backgroundImage = image;
+                    repaint();
+                });
             }
-        } catch (IOException | IllegalArgumentException e) {
-            // Handle th exceptions
-            e.printStackTrace();
-            // Optionally, set a default background or handle the error in another way if theres some issue at the jpg's 
-        }
+        });
     }
 
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
         // Draw the background image
-        if (backgroundImage != null) {
-            g.drawImage(backgroundImage, 0, 0, getWidth(), getHeight(), this);
+        if (backgroundImage != null && getWidth() > 0 && getHeight() > 0) {
+            if (scaledImage == null || scaledImage.getWidth() != getWidth() || scaledImage.getHeight() != getHeight()) {
+                scaledImage = ImageCache.scale(backgroundImage, getWidth(), getHeight());
+            }
+            g.drawImage(scaledImage, 0, 0, this);
         }
     }
 
@@ -0,0 +1,99 @@
+package com.AbotLangit;
+
+/**
+ * This is the Booking class
+ * A single reservation of one room over a range of nights.
+ * The dates are kept as epoch days (days since 1970-01-01), check-in inclusive and check-out exclusive,
+ * so two bookings where one checks out on the day the other checks in do not overlap.
+ */
+public class Booking {
+    private final int roomNumber; // Number of the booked room
+    private final String customerName; // Name of the customer who booked
+    private final String contactNumber; // Contact number of the customer
+    private final int checkInDay; // First night of the stay as epoch day
+    private final int checkOutDay; // Day the customer leaves as epoch day
+    private final int guestCount; // Number of guests staying in the room
+    private final double totalPrice; // Total price of the booking
+
+    /**
+     * Constructor to initialize a Booking with all its details.
+     * @param roomNumber The number of the booked room.
+     * @param customerName The name of the customer.
+     * @param contactNumber The contact number of the customer.
+     * @param checkInDay The check-in date as epoch day.
+     * @param checkOutDay The check-out date as epoch day, must be after the check-in day.
+     * @param guestCount The number of guests.
+     * @param totalPrice The total price of the stay.
+     */
+    public Booking(int roomNumber, String customerName, String contactNumber, int checkInDay, int checkOutDay, int guestCount, double totalPrice) {
+        if (checkOutDay <= checkInDay) {
+            throw new IllegalArgumentException("Check-out must be after check-in");
+        }
+        this.roomNumber = roomNumber;
+        this.customerName = customerName;
+        this.contactNumber = contactNumber;
+        this.checkInDay = checkInDay;
+        this.checkOutDay = checkOutDay;
+        this.guestCount = guestCount;
+        this.totalPrice = totalPrice;
+    }
+
+    public int getRoomNumber() {
+        return roomNumber;
+    }
+
+    public String getCustomerName() {
+        return customerName;
+    }
+
+    public String getContactNumber() {
+        return contactNumber;
+    }
+
+    public int getCheckInDay() {
+        return checkInDay;
+    }
+
+    public int getCheckOutDay() {
+        return checkOutDay;
+    }
+
+    public int getGuestCount() {
+        return guestCount;
+    }
+
+    public double getTotalPrice() {
+        return totalPrice;
+    }
+
+    /**
+     * Number of nights covered by this booking.
+     * @return The duration in days.
+     */
+    public int getNights() {
+        return checkOutDay - checkInDay;
+    }
+
+    /**
+     * Checks whether this booking shares at least one night with the given range.
+     * @param startDay The first night of the range as epoch day.
+     * @param endDay The day after the last night of the range as epoch day.
+     * @return true if the ranges overlap.
+     */
+    public boolean overlaps(int startDay, int endDay) {
+        return checkInDay < endDay && startDay < checkOutDay;
+    }
+
+    @Override
+    public String toString() {
+        return "Booking{" +
+                "roomNumber=" + roomNumber +
+                ", customerName='" + customerName + '\'' +
+                ", contactNumber='" + contactNumber + '\'' +
+                ", checkInDay=" + checkInDay +
+                ", checkOutDay=" + checkOutDay +
+                ", guestCount=" + guestCount +
+                ", totalPrice=" + totalPrice +
+                '}';
+    }
+}
@@ -0,0 +1,218 @@
+package com.AbotLangit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * This is the BookingCalendar class
+ * Keeps every booking of one room sorted by check-in day so the room can answer "free between X and Y"
+ * instead of only having one check-in/check-out pair.
+ * Bookings stored here never overlap, so the only booking that can clash with a range is the one
+ * with the latest check-in before the end of that range, which makes every lookup O(log n).
+ *
+ * A calendar of a room loaded from a MappedRoomInventory answers from the mapped file
+ * and only copies its bookings into memory the first time one is added.
+ */
+public class BookingCalendar {
+    private TreeMap<Integer, Booking> bookings; // Bookings keyed by their check-in day, created with the first booking
+    private TreeMap<Integer, RoomHold> holds; // Active holds keyed by their check-in day, created with the first hold
+    private MappedRoomInventory source; // Snapshot still holding the bookings of this room, null once loaded
+    private int slot; // Position of the room in the snapshot
+
+    /**
+     * Constructor for an empty calendar.
+     */
+    public BookingCalendar() {
+    }
+
+    /**
+     * Constructor for a calendar whose bookings stay in a mapped snapshot until they are needed.
+     * @param source The mapped snapshot.
+     * @param slot The position of the room in the snapshot.
+     */
+    BookingCalendar(MappedRoomInventory source, int slot) {
+        this.source = source;
+        this.slot = slot;
+    }
+
+    /**
+     * Checks if no booking or hold covers any night between the two days.
+     * @param startDay The check-in day as epoch day.
+     * @param endDay The check-out day as epoch day (exclusive).
+     * @return true if the room is free for the whole range.
+     */
+    public synchronized boolean isFree(int startDay, int endDay) {
+        if (findHold(startDay, endDay) != null) {
+            return false;
+        }
+        if (source != null) {
+            return source.isFree(slot, startDay, endDay);
+        }
+        return findOverlap(startDay, endDay) == null;
+    }
+
+    /**
+     * Finds the booking that overlaps with the given range if there is one.
+     * @param startDay The check-in day as epoch day.
+     * @param endDay The check-out day as epoch day (exclusive).
+     * @return The overlapping booking or null if the range is free.
+     */
+    public synchronized Booking findOverlap(int startDay, int endDay) {
+        if (source != null) {
+            int position = source.findOverlap(slot, startDay, endDay);
+            return position < 0 ? null : source.getBooking(slot, position);
+        }
+        if (bookings == null) {
+            return null;
+        }
+        Map.Entry<Integer, Booking> before = bookings.lowerEntry(endDay);
+        if (before != null && before.getValue().overlaps(startDay, endDay)) {
+            return before.getValue();
+        }
+        return null;
+    }
+
+    /**
+     * Adds a booking to the calendar.
+     * @param booking The booking to add.
+     * @throws IllegalStateException if the booking overlaps with an existing one.
+     */
+    public synchronized void add(Booking booking) {
+        load();
+        if (bookings == null) {
+            bookings = new TreeMap<>();
+        }
+        Booking overlap = findOverlap(booking.getCheckInDay(), booking.getCheckOutDay());
+        if (overlap != null) {
+            throw new IllegalStateException("Room " + booking.getRoomNumber() + " is already booked: " + overlap);
+        }
+        bookings.put(booking.getCheckInDay(), booking);
+    }
+
+    /**
+     * Takes the booking that checks in on a day off the calendar, freeing all of its nights.
+     * @param checkInDay The check-in day as epoch day.
+     * @return The removed booking, or null if no booking checks in that day.
+     */
+    public synchronized Booking remove(int checkInDay) {
+        load();
+        return bookings == null ? null : bookings.remove(checkInDay);
+    }
+
+    /**
+     * Finds the booking that checks in on a day.
+     * @param checkInDay The check-in day as epoch day.
+     * @return The booking or null if no booking checks in that day.
+     */
+    public synchronized Booking startingOn(int checkInDay) {
+        Booking booking = findOverlap(checkInDay, checkInDay + 1);
+        return booking != null && booking.getCheckInDay() == checkInDay ? booking : null;
+    }
+
+    /**
+     * Finds the active hold that overlaps with the given range if there is one.
+     * Holds never overlap each other, so like bookings only the latest one starting before the end can clash.
+     * @param startDay The check-in day as epoch day.
+     * @param endDay The check-out day as epoch day (exclusive).
+     * @return The overlapping hold or null if no hold is in the way.
+     */
+    public synchronized RoomHold findHold(int startDay, int endDay) {
+        if (holds == null) {
+            return null;
+        }
+        Map.Entry<Integer, RoomHold> before = holds.lowerEntry(endDay);
+        if (before != null && before.getValue().overlaps(startDay, endDay)) {
+            return before.getValue();
+        }
+        return null;
+    }
+
+    /**
+     * Adds a hold to the calendar. Holds are not bookings, they are never written to a snapshot.
+     * @param hold The hold to add.
+     * @throws IllegalStateException if a booking or another hold covers any of its nights.
+     */
+    public synchronized void addHold(RoomHold hold) {
+        if (!isFree(hold.getCheckInDay(), hold.getCheckOutDay())) {
+            throw new IllegalStateException("Room " + hold.getRoom().getNumber() + " is not free for " + hold);
+        }
+        if (holds == null) {
+            holds = new TreeMap<>();
+        }
+        holds.put(hold.getCheckInDay(), hold);
+    }
+
+    /**
+     * Takes a hold off the calendar.
+     * @param hold The hold to remove.
+     * @return true if it was there.
+     */
+    public synchronized boolean removeHold(RoomHold hold) {
+        return holds != null && holds.remove(hold.getCheckInDay(), hold);
+    }
+
+    /**
+     * Retrieves the active holds in check-in order.
+     * @return A copy of the list of holds.
+     */
+    public synchronized List<RoomHold> getHolds() {
+        return holds == null ? new ArrayList<>() : new ArrayList<>(holds.values());
+    }
+
+    /**
+     * Finds the booking that covers the given night.
+     * @param day The night as epoch day.
+     * @return The booking covering that night or null if the room is free.
+     */
+    public Booking bookingOn(int day) {
+        return findOverlap(day, day + 1);
+    }
+
+    /**
+     * Retrieves all bookings in check-in order.
+     * @return A copy of the list of bookings.
+     */
+    public synchronized List<Booking> getBookings() {
+        if (source != null) {
+            return source.getBookings(slot);
+        }
+        return bookings == null ? new ArrayList<>() : new ArrayList<>(bookings.values());
+    }
+
+    /**
+     * Finds the booking with the latest check-in.
+     * @return The latest booking or null if there are none.
+     */
+    public synchronized Booking getLatest() {
+        if (source != null) {
+            return source.getLatest(slot);
+        }
+        if (bookings == null) {
+            return null;
+        }
+        Map.Entry<Integer, Booking> last = bookings.lastEntry();
+        return last == null ? null : last.getValue();
+    }
+
+    public synchronized int size() {
+        if (source != null) {
+            return source.getBookingCount(slot);
+        }
+        return bookings == null ? 0 : bookings.size();
+    }
+
+    /**
+     * Copies the bookings out of the mapped snapshot the first time the calendar is changed.
+     */
+    private void load() {
+        if (source != null) {
+            bookings = new TreeMap<>();
+            for (Booking booking : source.getBookings(slot)) {
+                bookings.put(booking.getCheckInDay(), booking);
+            }
+            source = null;
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.AbotLangit;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.regex.Pattern;
+
+/**
+ * This is the CustomerIndex class
+ * Finds the bookings of a guest who calls the desk with a contact number or (part of) a name.
+ * Contact numbers go into a hash map, one entry per number, so a lookup is a single get.
+ * Every word of a name goes into a hash map with the stays whose name has it, and each distinct word
+ * also into a sorted set, so all the words starting with a prefix sit next to each other and a lookup only walks the matches.
+ * Names repeat a lot, so the sorted set stays far smaller than the number of stays: finding the first word
+ * is O(log words) however many stays there are, and adding a stay with known words doesn't touch the sorted set at all.
+ * A booking is keyed by its room and check-in day, which no other booking shares, so adding one twice is harmless.
+ * Both maps are concurrent; the RoomManager adds and removes bookings while holding the lock of the room.
+ */
+public class CustomerIndex {
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+"); // Accents left over after splitting letters, so Ñ finds N
+    private static final Comparator<Booking> BY_CHECK_IN = Comparator.comparingInt(Booking::getCheckInDay)
+            .thenComparingInt(Booking::getRoomNumber);
+
+    private final ConcurrentHashMap<String, Map<Long, Booking>> byContact = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Map<Long, Named>> byWord = new ConcurrentHashMap<>(); // Words are never taken out, only their stays
+    private final ConcurrentSkipListSet<String> sortedWords = new ConcurrentSkipListSet<>(); // Every word in byWord
+
+    /**
+     * A booking with the words of its customer name, split once when added instead of on every lookup.
+     */
+    private static final class Named {
+        private final Booking booking;
+        private final List<String> words;
+
+        Named(Booking booking, List<String> words) {
+            this.booking = booking;
+            this.words = words;
+        }
+    }
+
+    /**
+     * Adds a booking under its contact number and every word of its customer name.
+     * @param booking The booking.
+     */
+    public void add(Booking booking) {
+        long stay = stayOf(booking);
+        String contact = normalizeContact(booking.getContactNumber());
+        if (!contact.isEmpty()) {
+            // Inside compute so a remove emptying the same number can't drop the map this goes into
+            byContact.compute(contact, (key, stays) -> {
+                Map<Long, Booking> next = stays != null ? stays : new ConcurrentHashMap<>();
+                next.put(stay, booking);
+                return next;
+            });
+        }
+        List<String> words = words(booking.getCustomerName());
+        Named named = new Named(booking, words);
+        for (String word : words) {
+            Map<Long, Named> stays = byWord.get(word);
+            if (stays == null) {
+                stays = byWord.computeIfAbsent(word, key -> {
+                    sortedWords.add(key);
+                    return new ConcurrentHashMap<>();
+                });
+            }
+            stays.put(stay, named);
+        }
+    }
+
+    /**
+     * Takes a booking out of the index.
+     * @param booking The booking as it was added.
+     */
+    public void remove(Booking booking) {
+        long stay = stayOf(booking);
+        String contact = normalizeContact(booking.getContactNumber());
+        if (!contact.isEmpty()) {
+            byContact.computeIfPresent(contact, (key, stays) -> {
+                stays.remove(stay);
+                return stays.isEmpty() ? null : stays;
+            });
+        }
+        for (String word : words(booking.getCustomerName())) {
+            Map<Long, Named> stays = byWord.get(word);
+            if (stays != null) {
+                stays.remove(stay);
+            }
+        }
+    }
+
+    /**
+     * Finds every booking made with a contact number.
+     * @param contactNumber The contact number, spaces and dashes are ignored.
+     * @return The bookings in check-in order, empty if there are none.
+     */
+    public List<Booking> findByContact(String contactNumber) {
+        Map<Long, Booking> stays = byContact.get(normalizeContact(contactNumber));
+        if (stays == null) {
+            return Collections.emptyList();
+        }
+        List<Booking> found = new ArrayList<>(stays.values());
+        found.sort(BY_CHECK_IN);
+        return found;
+    }
+
+    /**
+     * Finds the bookings whose customer name has a word starting with every word of the query,
+     * so "jua cruz" finds "Juan Dela Cruz". Case and accents don't matter.
+     * @param query One or more words or beginnings of words.
+     * @param limit The most bookings to return.
+     * @return The matching bookings, sorted by the name word the longest query word matched.
+     */
+    public List<Booking> findByName(String query, int limit) {
+        List<String> prefixes = words(query);
+        if (prefixes.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        // Walk the rarest looking prefix, the longest one, and check the others on each match
+        String first = prefixes.get(0);
+        for (String prefix : prefixes) {
+            if (prefix.length() > first.length()) {
+                first = prefix;
+            }
+        }
+        Set<Booking> found = new LinkedHashSet<>();
+        for (String word : sortedWords.tailSet(first)) {
+            if (!word.startsWith(first)) {
+                break; // Past the last word with this prefix
+            }
+            Map<Long, Named> stays = byWord.get(word);
+            if (stays == null) {
+                continue; // Sorted just before its stays went in
+            }
+            for (Named named : stays.values()) {
+                if (prefixes.size() == 1 || matchesAll(named.words, prefixes)) {
+                    found.add(named.booking); // A name like "Ana Anabel" matches twice but is listed once
+                    if (found.size() == limit) {
+                        return new ArrayList<>(found);
+                    }
+                }
+            }
+        }
+        return new ArrayList<>(found);
+    }
+
+    /**
+     * Counts the contact numbers in the index.
+     * @return The number of distinct contact numbers.
+     */
+    public int getContactCount() {
+        return byContact.size();
+    }
+
+    private static boolean matchesAll(List<String> words, List<String> prefixes) {
+        for (String prefix : prefixes) {
+            boolean matched = false;
+            for (String word : words) {
+                if (word.startsWith(prefix)) {
+                    matched = true;
+                    break;
+                }
+            }
+            if (!matched) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Splits a name into lower case words without accents.
+     * @param name The name.
+     * @return The words, empty for a null or blank name.
+     */
+    static List<String> words(String name) {
+        if (name == null || name.isBlank()) {
+            return Collections.emptyList();
+        }
+        String plain = isAscii(name) ? name : MARKS.matcher(Normalizer.normalize(name, Normalizer.Form.NFD)).replaceAll("");
+        plain = plain.toLowerCase(Locale.ROOT);
+        List<String> words = new ArrayList<>(4);
+        int start = -1;
+        for (int i = 0; i <= plain.length(); i++) {
+            boolean letter = i < plain.length() && Character.isLetterOrDigit(plain.charAt(i));
+            if (letter && start < 0) {
+                start = i;
+            } else if (!letter && start >= 0) {
+                String word = plain.substring(start, i);
+                if (!words.contains(word)) {
+                    words.add(word);
+                }
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    private static boolean isAscii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String normalizeContact(String contactNumber) {
+        if (contactNumber == null) {
+            return "";
+        }
+        StringBuilder digits = new StringBuilder(contactNumber.length());
+        for (int i = 0; i < contactNumber.length(); i++) {
+            char c = contactNumber.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            }
+        }
+        return digits.toString();
+    }
+
+    /**
+     * Packs the room number and check-in day into one key, unique because bookings of a room never overlap.
+     */
+    private static long stayOf(Booking booking) {
+        return (long) booking.getRoomNumber() << 32 | (booking.getCheckInDay() & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,166 @@
+package com.AbotLangit;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * This is the Dates class
+ * Every reservation date is a LocalDate, or an int epoch day (days since 1970-01-01) where many are kept or compared.
+ * Neither has a time of day or a time zone, so a stay of n nights is always n days long, daylight saving or not.
+ * The formatters are immutable and shared by every thread, and yyyy-MM-dd is parsed without allocating anything.
+ */
+public final class Dates {
+    /**
+     * The date format of the reservation form, the HTTP server and the import files.
+     */
+    public static final DateTimeFormatter ISO = DateTimeFormatter.ISO_LOCAL_DATE;
+    /**
+     * The date format of the availability table.
+     */
+    public static final DateTimeFormatter DISPLAY = DateTimeFormatter.ofPattern("yyyy/MM/dd");
+    /**
+     * An epoch day that is not set, or text that is not a date.
+     */
+    public static final int NO_DAY = Integer.MIN_VALUE;
+
+    private static final int DAYS_0000_TO_1970 = 719528; // From the proleptic 0000-01-01 to the epoch
+
+    private Dates() {
+    }
+
+    /**
+     * Parses a date typed as yyyy-MM-dd into an epoch day. The month and day may have one digit (2025-1-5),
+     * anything else (other separators, spaces, month 13, February 30) is rejected.
+     * @param text The date text.
+     * @return The epoch day, or NO_DAY if the text is not a valid date.
+     */
+    public static int parseEpochDay(CharSequence text) {
+        int length = text.length();
+        if (length < 8 || length > 10) {
+            return NO_DAY;
+        }
+        int year = 0;
+        for (int i = 0; i < 4; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return NO_DAY;
+            }
+            year = year * 10 + digit;
+        }
+        if (text.charAt(4) != '-') {
+            return NO_DAY;
+        }
+        int position = 5;
+        int month = 0;
+        int digits = 0;
+        while (position < length && text.charAt(position) != '-') {
+            int digit = text.charAt(position++) - '0';
+            if (digit < 0 || digit > 9 || ++digits > 2) {
+                return NO_DAY;
+            }
+            month = month * 10 + digit;
+        }
+        if (digits == 0 || position == length) {
+            return NO_DAY;
+        }
+        position++; // Skip the second '-'
+        int day = 0;
+        digits = 0;
+        while (position < length) {
+            int digit = text.charAt(position++) - '0';
+            if (digit < 0 || digit > 9 || ++digits > 2) {
+                return NO_DAY;
+            }
+            day = day * 10 + digit;
+        }
+        if (digits == 0 || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) {
+            return NO_DAY;
+        }
+        return toEpochDay(year, month, day);
+    }
+
+    /**
+     * Parses a date typed as yyyy-MM-dd.
+     * @param text The date text.
+     * @return The date.
+     * @throws DateTimeParseException if the text is not a valid date.
+     */
+    public static LocalDate parse(CharSequence text) {
+        int day = parseEpochDay(text);
+        if (day == NO_DAY) {
+            throw new DateTimeParseException("Invalid date, use yyyy-MM-dd", text, 0);
+        }
+        return LocalDate.ofEpochDay(day);
+    }
+
+    /**
+     * Converts a date to an epoch day.
+     * @param date The date.
+     * @return The number of days since 1970-01-01.
+     */
+    public static int toEpochDay(LocalDate date) {
+        return Math.toIntExact(date.toEpochDay());
+    }
+
+    /**
+     * Converts an epoch day to a date.
+     * @param day The number of days since 1970-01-01, or NO_DAY.
+     * @return The date, or null for NO_DAY.
+     */
+    public static LocalDate toLocalDate(int day) {
+        return day == NO_DAY ? null : LocalDate.ofEpochDay(day);
+    }
+
+    /**
+     * Counts the nights between two dates.
+     * @param checkInDate The check-in date.
+     * @param checkOutDate The check-out date.
+     * @return The number of nights, 0 if either date is missing.
+     */
+    public static int nights(LocalDate checkInDate, LocalDate checkOutDate) {
+        if (checkInDate == null || checkOutDate == null) {
+            return 0;
+        }
+        return Math.toIntExact(checkOutDate.toEpochDay() - checkInDate.toEpochDay());
+    }
+
+    /**
+     * Formats an epoch day with a formatter.
+     * @param formatter The formatter, ISO or DISPLAY.
+     * @param day The epoch day, or NO_DAY.
+     * @return The text, empty for NO_DAY.
+     */
+    public static String format(DateTimeFormatter formatter, int day) {
+        return day == NO_DAY ? "" : formatter.format(LocalDate.ofEpochDay(day));
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2: return isLeapYear(year) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11: return 30;
+            default: return 31;
+        }
+    }
+
+    private static boolean isLeapYear(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    // Same arithmetic as LocalDate.toEpochDay, for years 0 to 9999
+    private static int toEpochDay(int year, int month, int day) {
+        int total = 365 * year + (year + 3) / 4 - (year + 99) / 100 + (year + 399) / 400;
+        total += (367 * month - 362) / 12;
+        total += day - 1;
+        if (month > 2) {
+            total--;
+            if (!isLeapYear(year)) {
+                total--;
+            }
+        }
+        return total - DAYS_0000_TO_1970;
+    }
+}
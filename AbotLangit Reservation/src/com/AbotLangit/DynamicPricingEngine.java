@@ -0,0 +1,325 @@
+package com.AbotLangit;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * This is the DynamicPricingEngine class
+ * Prices a stay night by night from the base price of the room, with:
+ * - a weekend rate for Friday and Saturday nights,
+ * - seasons with their own rate, for every type or for one type,
+ * - rates set for single dates, which replace the weekend and season rate of that night,
+ * - a surge once the type is booked beyond a threshold on the nights of the stay,
+ * - a discount for long stays.
+ *
+ * Every change to the rules rebuilds a table of the rate of each night for the next few years, one double array per type,
+ * so a quote is one pass over the nights of the stay without any allocation.
+ * The table moves forward a week at a time as the days go by, the NightOccupancy counts follow the same nights.
+ * Nights outside the table fall back to working the rate out from the rules.
+ */
+public class DynamicPricingEngine implements PricingEngine {
+    static final int DAYS_BEFORE = 31; // Table starts a month back so late bookings still hit it
+    static final int HORIZON = 3 * 366; // Nights in the table
+    private static final int STEP = 7; // Days the table moves forward at a time
+
+    private double weekendRate = 1;
+    private final List<Season> seasons = new ArrayList<>();
+    private final Map<String, TreeMap<Integer, Double>> dateRates = new HashMap<>(); // Rates for single nights, the null type is every type
+    private final TreeMap<Integer, Double> stayDiscounts = new TreeMap<>(); // Minimum nights to discount
+    private double surgeThreshold = 1;
+    private double surgeRate = 1;
+
+    private volatile Tables tables; // Rebuilt on every change, read without locking by quote
+    private volatile long version; // Counts the rebuilds
+
+    /**
+     * A period of nights with its own rate.
+     */
+    private static class Season {
+        final String type; // Null for every type
+        final int fromDay;
+        final int toDay; // Exclusive
+        final double rate;
+
+        Season(String type, int fromDay, int toDay, double rate) {
+            this.type = type;
+            this.fromDay = fromDay;
+            this.toDay = toDay;
+            this.rate = rate;
+        }
+    }
+
+    /**
+     * The compiled rules, never changed once built.
+     */
+    private static class Tables {
+        final int firstDay;
+        final long endMillis; // When the table has to move forward
+        final double[] rates; // Rate of each night from firstDay for types without rules of their own
+        final Map<String, double[]> typeRates;
+        final double[] stayDiscounts; // Discount by number of nights, the last one applies to longer stays
+        final double surgeThreshold;
+        final double surgeRate;
+        final DynamicPricingEngine rules; // Snapshot of the rules for nights outside the table
+
+        Tables(int firstDay, double[] rates, Map<String, double[]> typeRates, double[] stayDiscounts,
+               double surgeThreshold, double surgeRate, DynamicPricingEngine rules) {
+            this.firstDay = firstDay;
+            this.endMillis = tableEndMillis(firstDay);
+            this.rates = rates;
+            this.typeRates = typeRates;
+            this.stayDiscounts = stayDiscounts;
+            this.surgeThreshold = surgeThreshold;
+            this.surgeRate = surgeRate;
+            this.rules = rules;
+        }
+    }
+
+    /**
+     * Constructor for an engine that prices like the flat rate until rules are added.
+     */
+    public DynamicPricingEngine() {
+        rebuild();
+    }
+
+    /**
+     * Sets the rate of Friday and Saturday nights.
+     * @param rate The multiplier of the base price, 1.25 for 25% more.
+     */
+    public synchronized void setWeekendRate(double rate) {
+        weekendRate = checkRate(rate);
+        rebuild();
+    }
+
+    /**
+     * Adds a season. Overlapping seasons multiply.
+     * @param type The room type or null for every type.
+     * @param from The first night of the season.
+     * @param to The last night of the season.
+     * @param rate The multiplier of the base price.
+     */
+    public synchronized void addSeason(String type, LocalDate from, LocalDate to, double rate) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("Season ends before it starts: " + from + " to " + to);
+        }
+        seasons.add(new Season(type, (int) from.toEpochDay(), (int) to.toEpochDay() + 1, checkRate(rate)));
+        rebuild();
+    }
+
+    /**
+     * Sets the rate of a single night, replacing its weekend and season rate.
+     * @param type The room type or null for every type. A rate for the type wins over one for every type.
+     * @param date The night.
+     * @param rate The multiplier of the base price.
+     */
+    public synchronized void setDateRate(String type, LocalDate date, double rate) {
+        dateRates.computeIfAbsent(type, t -> new TreeMap<>()).put((int) date.toEpochDay(), checkRate(rate));
+        rebuild();
+    }
+
+    /**
+     * Adds a discount for stays of at least a number of nights. The largest matching discount applies.
+     * @param minimumNights The nights the stay needs.
+     * @param discount The share taken off, 0.1 for 10% off.
+     */
+    public synchronized void addStayDiscount(int minimumNights, double discount) {
+        if (minimumNights < 1 || discount < 0 || discount >= 1) {
+            throw new IllegalArgumentException("Invalid stay discount: " + discount + " from " + minimumNights + " nights");
+        }
+        stayDiscounts.put(minimumNights, discount);
+        rebuild();
+    }
+
+    /**
+     * Raises prices once a share of the rooms of a type is booked on the nights of the stay (on average over the nights).
+     * The surge grows in a straight line from nothing at the threshold to the full rate when every room is booked.
+     * @param threshold The share of booked rooms where the surge starts, from 0 to 1.
+     * @param rate The multiplier when every room is booked.
+     */
+    public synchronized void setSurge(double threshold, double rate) {
+        if (threshold < 0 || threshold >= 1) {
+            throw new IllegalArgumentException("Surge threshold must be from 0 to below 1: " + threshold);
+        }
+        surgeThreshold = threshold;
+        surgeRate = checkRate(rate);
+        rebuild();
+    }
+
+    @Override
+    public double quote(Room room, int checkInDay, int nights, int guests, double occupancy) {
+        Tables current = tables;
+        if (System.currentTimeMillis() >= current.endMillis) {
+            current = moveForward();
+        }
+        double[] rates = current.typeRates.get(room.getType());
+        if (rates == null) {
+            rates = current.rates;
+        }
+        double sum = 0;
+        int offset = checkInDay - current.firstDay;
+        for (int night = 0; night < nights; night++) {
+            int slot = offset + night;
+            sum += slot >= 0 && slot < rates.length ? rates[slot] : current.rules.rate(room.getType(), checkInDay + night);
+        }
+        double[] discounts = current.stayDiscounts;
+        double discount = discounts[Math.min(nights, discounts.length - 1)];
+        double surge = 1;
+        if (occupancy > current.surgeThreshold) {
+            surge += (current.surgeRate - 1) * (occupancy - current.surgeThreshold) / (1 - current.surgeThreshold);
+        }
+        return room.getPrice() * sum * guests * (1 - discount) * surge;
+    }
+
+    @Override
+    public boolean usesOccupancy() {
+        return tables.surgeRate != 1;
+    }
+
+    @Override
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Works out the rate of a night from the rules, used to fill the tables.
+     * @param type The room type.
+     * @param day The night as epoch day.
+     * @return The multiplier of the base price.
+     */
+    private double rate(String type, int day) {
+        Double dateRate = dateRate(type, day);
+        if (dateRate == null) {
+            dateRate = dateRate(null, day);
+        }
+        if (dateRate != null) {
+            return dateRate;
+        }
+        int dayOfWeek = Math.floorMod(day + 3, 7); // Epoch day 0 was a Thursday, 0 is Monday
+        double rate = dayOfWeek == 4 || dayOfWeek == 5 ? weekendRate : 1;
+        for (Season season : seasons) {
+            if ((season.type == null || season.type.equals(type)) && day >= season.fromDay && day < season.toDay) {
+                rate *= season.rate;
+            }
+        }
+        return rate;
+    }
+
+    private Double dateRate(String type, int day) {
+        TreeMap<Integer, Double> rates = dateRates.get(type);
+        return rates == null ? null : rates.get(day);
+    }
+
+    /**
+     * Moves the tables to the nights around today once the days have gone past them. The rates stay the same,
+     * so the version doesn't change.
+     * @return The current tables.
+     */
+    private synchronized Tables moveForward() {
+        if (System.currentTimeMillis() >= tables.endMillis) {
+            tables = compile();
+        }
+        return tables;
+    }
+
+    /**
+     * Compiles the rules into the tables read by quote, after a rule changed.
+     */
+    private void rebuild() {
+        tables = compile();
+        version++; // Only changed under the lock of the rule setters
+    }
+
+    /**
+     * Compiles the rules into tables starting a little before today. Types get their own table only if a rule names them.
+     */
+    private Tables compile() {
+        int firstDay = tableStart(today());
+        DynamicPricingEngine rules = new DynamicPricingEngine(this); // The tables keep their own copy so later rule changes can't show up half way through a quote
+        double[] rates = new double[HORIZON];
+        for (int i = 0; i < HORIZON; i++) {
+            rates[i] = rules.rate(null, firstDay + i);
+        }
+        Map<String, double[]> typeRates = new HashMap<>();
+        for (Season season : seasons) {
+            if (season.type != null) {
+                typeRates.put(season.type, null);
+            }
+        }
+        for (String type : dateRates.keySet()) {
+            if (type != null) {
+                typeRates.put(type, null);
+            }
+        }
+        for (String type : new ArrayList<>(typeRates.keySet())) {
+            double[] ratesOfType = new double[HORIZON];
+            for (int i = 0; i < HORIZON; i++) {
+                ratesOfType[i] = rules.rate(type, firstDay + i);
+            }
+            typeRates.put(type, ratesOfType);
+        }
+        double[] discounts = new double[stayDiscounts.isEmpty() ? 1 : stayDiscounts.lastKey() + 1];
+        for (int nights = 1; nights < discounts.length; nights++) {
+            for (Map.Entry<Integer, Double> entry : stayDiscounts.headMap(nights, true).entrySet()) {
+                discounts[nights] = Math.max(discounts[nights], entry.getValue());
+            }
+        }
+        return new Tables(firstDay, rates, typeRates, discounts, surgeThreshold, surgeRate, rules);
+    }
+
+    /**
+     * Finds the first night of the tables for a day, stepping a week at a time so anything using the same
+     * nights agrees on them.
+     * @param today The day as epoch day.
+     * @return The first night of the tables as epoch day.
+     */
+    static int tableStart(int today) {
+        return today - Math.floorMod(today, STEP) - DAYS_BEFORE;
+    }
+
+    /**
+     * Works out when the tables starting on a night have to move forward: the start of the day tableStart moves on.
+     * @param firstDay The first night of the tables as epoch day.
+     * @return The time in milliseconds since the epoch.
+     */
+    static long tableEndMillis(int firstDay) {
+        return LocalDate.ofEpochDay(firstDay + DAYS_BEFORE + STEP).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    static int today() {
+        return (int) LocalDate.now().toEpochDay();
+    }
+
+    // Copies only the rules that rate reads
+    private DynamicPricingEngine(DynamicPricingEngine rules) {
+        weekendRate = rules.weekendRate;
+        seasons.addAll(rules.seasons);
+        for (Map.Entry<String, TreeMap<Integer, Double>> entry : rules.dateRates.entrySet()) {
+            dateRates.put(entry.getKey(), new TreeMap<>(entry.getValue()));
+        }
+    }
+
+    private static double checkRate(double rate) {
+        if (!(rate > 0) || Double.isInfinite(rate)) {
+            throw new IllegalArgumentException("Rate must be above 0: " + rate);
+        }
+        return rate;
+    }
+
+    @Override
+    public String toString() {
+        Tables current = tables;
+        return "DynamicPricingEngine{" +
+                "weekendRate=" + weekendRate +
+                ", seasons=" + seasons.size() +
+                ", stayDiscounts=" + Arrays.toString(current.stayDiscounts) +
+                ", surgeThreshold=" + surgeThreshold +
+                ", surgeRate=" + surgeRate +
+                '}';
+    }
+}
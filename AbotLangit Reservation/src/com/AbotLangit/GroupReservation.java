@@ -0,0 +1,105 @@
+package com.AbotLangit;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This is the GroupReservation class
+ * The rooms a tour group or a wedding books together under one name, each with its own dates and guests.
+ * RoomManager.tryReserveGroup books all of them or none.
+ */
+public class GroupReservation {
+    private final String customerName;
+    private final String contactNumber;
+    private final List<Item> items = new ArrayList<>();
+
+    /**
+     * One room of the group and the stay in it.
+     */
+    public static class Item {
+        private final Room room;
+        private final int checkInDay;
+        private final int checkOutDay;
+        private final int guestCount;
+
+        Item(Room room, int checkInDay, int checkOutDay, int guestCount) {
+            this.room = room;
+            this.checkInDay = checkInDay;
+            this.checkOutDay = checkOutDay;
+            this.guestCount = guestCount;
+        }
+
+        public Room getRoom() {
+            return room;
+        }
+
+        public int getCheckInDay() {
+            return checkInDay;
+        }
+
+        public int getCheckOutDay() {
+            return checkOutDay;
+        }
+
+        public int getGuestCount() {
+            return guestCount;
+        }
+    }
+
+    /**
+     * Constructor for an empty group booked under one name.
+     * @param customerName The name the rooms are booked under, e.g. the tour operator.
+     * @param contactNumber The contact number for the group.
+     */
+    public GroupReservation(String customerName, String contactNumber) {
+        this.customerName = customerName;
+        this.contactNumber = contactNumber;
+    }
+
+    /**
+     * Adds a room to the group.
+     * @param room The room.
+     * @param checkInDate The check-in date.
+     * @param checkOutDate The check-out date.
+     * @param guestCount The number of guests in the room.
+     * @return This group, to add the next room.
+     */
+    public GroupReservation add(Room room, LocalDate checkInDate, LocalDate checkOutDate, int guestCount) {
+        return add(room, Dates.toEpochDay(checkInDate), Dates.toEpochDay(checkOutDate), guestCount);
+    }
+
+    /**
+     * Same as add with dates, for callers that already have epoch days.
+     * @param room The room.
+     * @param checkInDay The check-in date as epoch day.
+     * @param checkOutDay The check-out date as epoch day.
+     * @param guestCount The number of guests in the room.
+     * @return This group, to add the next room.
+     * @throws IllegalArgumentException if the stay has no nights.
+     */
+    public GroupReservation add(Room room, int checkInDay, int checkOutDay, int guestCount) {
+        if (checkOutDay <= checkInDay) {
+            throw new IllegalArgumentException("Room " + room.getNumber() + " needs at least one night");
+        }
+        items.add(new Item(room, checkInDay, checkOutDay, guestCount));
+        return this;
+    }
+
+    public String getCustomerName() {
+        return customerName;
+    }
+
+    public String getContactNumber() {
+        return contactNumber;
+    }
+
+    public List<Item> getItems() {
+        return Collections.unmodifiableList(items);
+    }
+
+    public int size() {
+        return items.size();
+    }
+}
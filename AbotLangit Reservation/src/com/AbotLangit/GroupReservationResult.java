@@ -0,0 +1,68 @@
+package com.AbotLangit;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This is the GroupReservationResult class
+ * The outcome of RoomManager.tryReserveGroup: every booking of the group, or the first room that was in the way.
+ */
+public class GroupReservationResult {
+    private final List<Booking> bookings; // Empty unless the group was reserved
+    private final ReservationResult failure; // Why the room in the way could not be reserved, null if reserved
+
+    private GroupReservationResult(List<Booking> bookings, ReservationResult failure) {
+        this.bookings = bookings;
+        this.failure = failure;
+    }
+
+    /**
+     * Creates a successful result.
+     * @param bookings The committed bookings in the order of the group.
+     * @return The result.
+     */
+    public static GroupReservationResult reserved(List<Booking> bookings) {
+        return new GroupReservationResult(Collections.unmodifiableList(bookings), null);
+    }
+
+    /**
+     * Creates a result for a group where one of the rooms was taken, none of the rooms were booked.
+     * @param failure The outcome for the room that was in the way.
+     * @return The result.
+     */
+    public static GroupReservationResult failed(ReservationResult failure) {
+        return new GroupReservationResult(Collections.emptyList(), failure);
+    }
+
+    public boolean isReserved() {
+        return failure == null;
+    }
+
+    /**
+     * Tells how the group ended, RESERVED or the status of the room that was in the way.
+     * @return The status.
+     */
+    public ReservationResult.Status getStatus() {
+        return failure == null ? ReservationResult.Status.RESERVED : failure.getStatus();
+    }
+
+    public List<Booking> getBookings() {
+        return bookings;
+    }
+
+    public ReservationResult getFailure() {
+        return failure;
+    }
+
+    /**
+     * Adds up the total price of every booking.
+     * @return The total price of the group, 0 if it was not reserved.
+     */
+    public double getTotalPrice() {
+        double total = 0;
+        for (Booking booking : bookings) {
+            total += booking.getTotalPrice();
+        }
+        return total;
+    }
+}
@@ -1,7 +1,14 @@
 package com.AbotLangit;
 // The beginning of the whole reservation system
 public class HotelReservationSystem {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws java.io.IOException {
+        // Run without any window as the HTTP booking server with: --server [port]
+        if (args.length > 0 && args[0].equals("--server")) {
+            ReservationHttpServer.main(java.util.Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        // Start loading the rooms and the jpgs right away so they are ready by the time the welcome screen is up
+        StartupLoader.begin();
         // Create and display the welcome message
         javax.swing.SwingUtilities.invokeLater(new Runnable() {
             public void run() {
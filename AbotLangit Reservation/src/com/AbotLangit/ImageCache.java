@@ -0,0 +1,106 @@
+package com.AbotLangit;
+
+import javax.imageio.ImageIO;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * This is the ImageCache class
+ * Decodes every image from the resource folder once and shares it between the frames that show it,
+ * so opening a frame again doesn't read and decode the jpg again.
+ */
+public class ImageCache {
+    private static final Map<String, BufferedImage> IMAGES = new ConcurrentHashMap<>();
+
+    private ImageCache() {
+    }
+
+    /**
+     * Retrieves an image from the resource folder, decoding it on the first call.
+     * @param imagePath The resource path, for example "/image/background.jpg".
+     * @return The image or null if it couldn't be loaded.
+     */
+    public static BufferedImage getImage(String imagePath) {
+        return IMAGES.computeIfAbsent(imagePath, ImageCache::load); // A failed load isn't kept, so the next call tries again
+    }
+
+    /**
+     * Retrieves an image from the resource folder without waiting for it to be decoded.
+     * @param imagePath The resource path.
+     * @param executor Decodes the image if it isn't cached yet.
+     * @return The image, already completed if it was cached (null if it couldn't be loaded).
+     */
+    public static CompletableFuture<BufferedImage> getImageAsync(String imagePath, Executor executor) {
+        BufferedImage image = IMAGES.get(imagePath);
+        if (image != null) {
+            return CompletableFuture.completedFuture(image);
+        }
+        return CompletableFuture.supplyAsync(() -> getImage(imagePath), executor); // Two loads of one path still decode it once
+    }
+
+    private static BufferedImage load(String imagePath) {
+        try (InputStream inputStream = ImageCache.class.getResourceAsStream(imagePath)) {
+            if (inputStream == null) {
+                throw new IllegalArgumentException("Image file not found: " + imagePath);
+            }
+            BufferedImage image = ImageIO.read(inputStream);
+            return image == null ? null : toCompatible(image);
+        } catch (IOException | IllegalArgumentException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Scales an image to a size in one go, in the pixel layout of the screen so drawing it later is a plain copy.
+     * @param image The image to scale.
+     * @param width The width to scale to.
+     * @param height The height to scale to.
+     * @return The scaled image.
+     */
+    public static BufferedImage scale(BufferedImage image, int width, int height) {
+        BufferedImage scaled = createImage(width, height, image.getTransparency());
+        Graphics2D g = scaled.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return scaled;
+    }
+
+    // JPEGs decode to a 3-byte BGR layout that most screens have to convert on every draw
+    private static BufferedImage toCompatible(BufferedImage image) {
+        BufferedImage compatible = createImage(image.getWidth(), image.getHeight(), image.getTransparency());
+        if (compatible.getColorModel().equals(image.getColorModel())) {
+            return image;
+        }
+        Graphics2D g = compatible.createGraphics();
+        try {
+            g.drawImage(image, 0, 0, null);
+        } finally {
+            g.dispose();
+        }
+        return compatible;
+    }
+
+    private static BufferedImage createImage(int width, int height, int transparency) {
+        if (GraphicsEnvironment.isHeadless()) {
+            return new BufferedImage(width, height, transparency == Transparency.OPAQUE ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+        }
+        GraphicsConfiguration configuration = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                .getDefaultScreenDevice().getDefaultConfiguration();
+        return configuration.createCompatibleImage(width, height, transparency);
+    }
+}
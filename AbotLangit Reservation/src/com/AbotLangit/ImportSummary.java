@@ -0,0 +1,40 @@
+package com.AbotLangit;
+
+/**
+ * This is the ImportSummary class
+ * The counts of a ReservationImporter run.
+ */
+public class ImportSummary {
+    private final long rows; // Data rows read, without the header
+    private final long imported; // Rows that became a reservation
+    private final long rejected; // Rows that failed validation or found no free room
+    private final long elapsedMillis;
+
+    public ImportSummary(long rows, long imported, long rejected, long elapsedMillis) {
+        this.rows = rows;
+        this.imported = imported;
+        this.rejected = rejected;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d rows, %d imported, %d rejected in %.1f s", rows, imported, rejected, elapsedMillis / 1000.0);
+    }
+}
@@ -0,0 +1,144 @@
+package com.AbotLangit;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * This is the Json class
+ * Just enough JSON for the booking endpoint: quoting strings for the responses
+ * and reading a flat object of strings and numbers from a request body.
+ */
+public final class Json {
+    private Json() {
+    }
+
+    /**
+     * Quotes and escapes a string, null becomes the JSON null.
+     * @param value The string.
+     * @return The JSON text.
+     */
+    public static String quote(String value) {
+        if (value == null) {
+            return "null";
+        }
+        StringBuilder builder = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': builder.append("\\\""); break;
+                case '\\': builder.append("\\\\"); break;
+                case '\n': builder.append("\\n"); break;
+                case '\r': builder.append("\\r"); break;
+                case '\t': builder.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        builder.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        builder.append(c);
+                    }
+            }
+        }
+        return builder.append('"').toString();
+    }
+
+    /**
+     * Reads a flat JSON object whose values are strings, numbers, booleans or null.
+     * Numbers and booleans are returned as their text.
+     * @param text The JSON text.
+     * @return Map of the fields in order.
+     * @throws IllegalArgumentException if the text is not such an object.
+     */
+    public static Map<String, String> parseObject(String text) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        int[] position = {skipSpaces(text, 0)};
+        expect(text, position, '{');
+        if (peek(text, position) == '}') {
+            position[0]++;
+            return fields;
+        }
+        while (true) {
+            String key = readString(text, position);
+            expect(text, position, ':');
+            String value = peek(text, position) == '"' ? readString(text, position) : readLiteral(text, position);
+            fields.put(key, value);
+            char next = peek(text, position);
+            position[0]++;
+            if (next == '}') {
+                return fields;
+            }
+            if (next != ',') {
+                throw new IllegalArgumentException("Expected , or } at " + (position[0] - 1));
+            }
+        }
+    }
+
+    private static String readString(String text, int[] position) {
+        expect(text, position, '"');
+        StringBuilder builder = new StringBuilder();
+        int i = position[0];
+        while (i < text.length()) {
+            char c = text.charAt(i++);
+            if (c == '"') {
+                position[0] = i;
+                return builder.toString();
+            }
+            if (c == '\\' && i < text.length()) {
+                char escaped = text.charAt(i++);
+                switch (escaped) {
+                    case 'n': builder.append('\n'); break;
+                    case 'r': builder.append('\r'); break;
+                    case 't': builder.append('\t'); break;
+                    case 'b': builder.append('\b'); break;
+                    case 'f': builder.append('\f'); break;
+                    case 'u':
+                        if (i + 4 > text.length()) {
+                            throw new IllegalArgumentException("Bad unicode escape at " + i);
+                        }
+                        builder.append((char) Integer.parseInt(text.substring(i, i + 4), 16));
+                        i += 4;
+                        break;
+                    default: builder.append(escaped);
+                }
+            } else {
+                builder.append(c);
+            }
+        }
+        throw new IllegalArgumentException("Unterminated string");
+    }
+
+    private static String readLiteral(String text, int[] position) {
+        int start = position[0];
+        int i = start;
+        while (i < text.length() && ",}] \t\r\n".indexOf(text.charAt(i)) < 0) {
+            i++;
+        }
+        if (i == start) {
+            throw new IllegalArgumentException("Expected a value at " + start);
+        }
+        position[0] = i;
+        String literal = text.substring(start, i);
+        return literal.equals("null") ? null : literal;
+    }
+
+    private static void expect(String text, int[] position, char expected) {
+        if (peek(text, position) != expected) {
+            throw new IllegalArgumentException("Expected " + expected + " at " + position[0]);
+        }
+        position[0]++;
+    }
+
+    private static char peek(String text, int[] position) {
+        position[0] = skipSpaces(text, position[0]);
+        if (position[0] >= text.length()) {
+            throw new IllegalArgumentException("Unexpected end of JSON");
+        }
+        return text.charAt(position[0]);
+    }
+
+    private static int skipSpaces(String text, int position) {
+        while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+            position++;
+        }
+        return position;
+    }
+}
@@ -0,0 +1,146 @@
+package com.AbotLangit;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This is the LatencyHistogram class
+ * Counts latencies in nanoseconds into log-linear buckets the way an HDR histogram does:
+ * every power of two is split into 32 buckets, so any percentile is within about 3% of the real value
+ * from a microsecond up to hours, in a fixed 15 KB per stripe.
+ * Recording is one atomic add on the stripe of the calling thread, so busy threads don't fight over the same counters.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5; // 32 buckets per power of two
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS + SUB_BUCKETS; // Enough for Long.MAX_VALUE
+
+    private final AtomicLongArray[] stripes;
+    private final int stripeMask;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Constructor to create an empty histogram with a stripe per core, up to 16.
+     */
+    public LatencyHistogram() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        int size = Integer.highestOneBit(Math.min(Math.max(cores, 1), 16) * 2 - 1); // Power of two at or above the cores
+        stripes = new AtomicLongArray[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new AtomicLongArray(BUCKETS);
+        }
+        stripeMask = size - 1;
+    }
+
+    /**
+     * Records one latency.
+     * @param nanos The latency in nanoseconds, negative values count as zero.
+     */
+    public void record(long nanos) {
+        long value = Math.max(nanos, 0);
+        stripes[stripe()].incrementAndGet(bucketOf(value));
+        count.increment();
+        totalNanos.add(value);
+        maxNanos.accumulate(value);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    /**
+     * Works out the mean latency.
+     * @return The mean in nanoseconds, 0 when nothing was recorded.
+     */
+    public double getMeanNanos() {
+        long n = count.sum();
+        return n == 0 ? 0 : (double) totalNanos.sum() / n;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    /**
+     * Works out a percentile from the buckets.
+     * Like HDR histograms it answers the highest value of the bucket the percentile falls in, capped at the maximum seen.
+     * @param percentile The percentile from 0 to 100.
+     * @return The latency in nanoseconds, 0 when nothing was recorded.
+     */
+    public long getPercentileNanos(double percentile) {
+        long[] counts = snapshot();
+        long total = 0;
+        for (long c : counts) {
+            total += c;
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(Math.min(Math.max(percentile, 0), 100) / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return Math.min(highestValueOf(i), maxNanos.get());
+            }
+        }
+        return maxNanos.get();
+    }
+
+    /**
+     * Forgets everything recorded so far.
+     * Latencies recorded at the same moment may survive or be half counted, good enough for starting a new measurement.
+     */
+    public void reset() {
+        for (AtomicLongArray stripe : stripes) {
+            for (int i = 0; i < BUCKETS; i++) {
+                stripe.set(i, 0);
+            }
+        }
+        count.reset();
+        totalNanos.reset();
+        maxNanos.reset();
+    }
+
+    private long[] snapshot() {
+        long[] counts = new long[BUCKETS];
+        for (AtomicLongArray stripe : stripes) {
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] += stripe.get(i);
+            }
+        }
+        return counts;
+    }
+
+    private int stripe() {
+        // Spread the thread ids, virtual threads get consecutive ones
+        return (int) ((Thread.currentThread().threadId() * 0x9E3779B97F4A7C15L) >>> 40) & stripeMask;
+    }
+
+    static int bucketOf(long value) {
+        if (value < 2 * SUB_BUCKETS) {
+            return (int) value; // Small values get a bucket each
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int mantissa = (int) (value >>> shift); // From SUB_BUCKETS up to 2 * SUB_BUCKETS - 1
+        return shift * SUB_BUCKETS + mantissa;
+    }
+
+    static long highestValueOf(int bucket) {
+        if (bucket < 2 * SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long mantissa = bucket % SUB_BUCKETS + SUB_BUCKETS;
+        long highest = ((mantissa + 1) << shift) - 1;
+        return highest < 0 ? Long.MAX_VALUE : highest;
+    }
+}
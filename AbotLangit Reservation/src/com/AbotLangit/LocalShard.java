@@ -0,0 +1,76 @@
+package com.AbotLangit;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This is the LocalShard class
+ * A RoomShard backed by a RoomManager in this JVM. Searches go through a QuoteCache like the HTTP server's.
+ */
+public class LocalShard implements RoomShard {
+    private final String property;
+    private final RoomManager roomManager;
+    private final QuoteCache quoteCache;
+
+    /**
+     * Constructor to serve the rooms of a RoomManager as a property.
+     * @param property The property name.
+     * @param roomManager The RoomManager holding the rooms.
+     */
+    public LocalShard(String property, RoomManager roomManager) {
+        this.property = property;
+        this.roomManager = roomManager;
+        this.quoteCache = QuoteCache.create(roomManager, 10_000, 60, TimeUnit.SECONDS);
+    }
+
+    public RoomManager getRoomManager() {
+        return roomManager;
+    }
+
+    @Override
+    public String getProperty() {
+        return property;
+    }
+
+    @Override
+    public List<String> getTypes() {
+        return roomManager.getIndex().getTypes();
+    }
+
+    @Override
+    public List<PropertyQuote> search(String type, int checkInDay, int nights, int guests) {
+        List<RoomQuote> quotes = quoteCache.search(type, checkInDay, nights, guests);
+        List<PropertyQuote> result = new ArrayList<>(quotes.size());
+        for (RoomQuote quote : quotes) {
+            Room room = quote.getRoom();
+            result.add(new PropertyQuote(property, room.getType(), room.getNumber(), room.getPrice(), quote.getTotalPrice()));
+        }
+        return result;
+    }
+
+    @Override
+    public PropertyReservation reserve(String type, Integer roomNumber, String customerName, String contactNumber,
+                                       int checkInDay, int nights, int guests) {
+        ReservationResult result;
+        if (roomNumber == null) {
+            LocalDate checkInDate = LocalDate.ofEpochDay(checkInDay);
+            result = roomManager.tryReserveAny(type, customerName, contactNumber, checkInDate, checkInDate.plusDays(nights), guests);
+        } else {
+            Room room = roomManager.getRoom(roomNumber);
+            if (room == null || !room.getType().equals(type)) {
+                return new PropertyReservation(ReservationResult.Status.NO_ROOM, property, 0, 0);
+            }
+            result = roomManager.tryReserve(room, customerName, contactNumber, checkInDay, checkInDay + nights, guests);
+        }
+        int number = result.getRoom() == null ? 0 : result.getRoom().getNumber();
+        double total = result.isReserved() ? result.getBooking().getTotalPrice() : 0;
+        return new PropertyReservation(result.getStatus(), property, number, total);
+    }
+
+    @Override
+    public void close() {
+        quoteCache.close();
+    }
+}
@@ -0,0 +1,212 @@
+package com.AbotLangit;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This is the MappedRoomInventory class
+ * Reads a snapshot written by ReservationSnapshot straight from a memory-mapped file.
+ * Nothing is deserialized up front: availability checks binary search the booking columns in place,
+ * and a Booking object is only created when one is actually asked for.
+ * The mapping is read only and the file is never changed after it is written, so it is safe to read from any thread.
+ */
+public class MappedRoomInventory {
+    static final int ROOM_WIDTH = 4 + 4 + 8 + 1; // number, type id, price, available
+    static final int BOOKING_WIDTH = 4 + 4 + 4 + 8 + 4; // check-in, check-out, guests, total price, details offset
+
+    private final MappedByteBuffer buffer;
+    private final int roomCount;
+    private final int bookingCount;
+    private final String[] types;
+    private final int numbers; // Offsets of the columns
+    private final int typeIds;
+    private final int prices;
+    private final int available;
+    private final int bookingIndex;
+    private final int checkIns;
+    private final int checkOuts;
+    private final int guests;
+    private final int totals;
+    private final int detailOffsets;
+    private final int details;
+
+    /**
+     * Constructor to map a snapshot file.
+     * @param file The snapshot file.
+     * @throws IOException if the file can't be mapped or is not a valid snapshot.
+     */
+    public MappedRoomInventory(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.capacity() < ReservationSnapshot.HEADER_SIZE
+                || buffer.getInt(0) != ReservationSnapshot.MAGIC || buffer.getInt(4) != ReservationSnapshot.VERSION) {
+            throw new IOException("Not a room inventory snapshot: " + file);
+        }
+        roomCount = buffer.getInt(8);
+        int typeCount = buffer.getInt(12);
+        bookingCount = buffer.getInt(16);
+        numbers = buffer.getInt(20);
+        bookingIndex = buffer.getInt(24);
+        checkIns = buffer.getInt(28);
+        details = buffer.getInt(32);
+        if (buffer.getInt(36) != buffer.capacity()) {
+            throw new IOException("Snapshot " + file + " is incomplete");
+        }
+        typeIds = numbers + roomCount * 4;
+        prices = typeIds + roomCount * 4;
+        available = prices + roomCount * 8;
+        checkOuts = checkIns + bookingCount * 4;
+        guests = checkOuts + bookingCount * 4;
+        totals = guests + bookingCount * 4;
+        detailOffsets = totals + bookingCount * 8;
+
+        types = new String[typeCount];
+        int position = ReservationSnapshot.HEADER_SIZE;
+        for (int i = 0; i < typeCount; i++) {
+            types[i] = readString(position);
+            position += 4 + buffer.getInt(position);
+        }
+    }
+
+    public int getRoomCount() {
+        return roomCount;
+    }
+
+    public int getBookingCount() {
+        return bookingCount;
+    }
+
+    public int getNumber(int slot) {
+        return buffer.getInt(numbers + slot * 4);
+    }
+
+    public String getType(int slot) {
+        return types[buffer.getInt(typeIds + slot * 4)];
+    }
+
+    public double getPrice(int slot) {
+        return buffer.getDouble(prices + slot * 8);
+    }
+
+    public boolean isAvailable(int slot) {
+        return buffer.get(available + slot) != 0;
+    }
+
+    /**
+     * Counts the bookings of a room.
+     * @param slot The position of the room in the file.
+     * @return The number of bookings.
+     */
+    public int getBookingCount(int slot) {
+        return firstBooking(slot + 1) - firstBooking(slot);
+    }
+
+    /**
+     * Finds the booking of a room that overlaps with a range, reading the check-in column in place.
+     * @param slot The position of the room in the file.
+     * @param startDay The check-in day as epoch day.
+     * @param endDay The check-out day as epoch day (exclusive).
+     * @return The position of the overlapping booking or -1 if the range is free.
+     */
+    public int findOverlap(int slot, int startDay, int endDay) {
+        int low = firstBooking(slot);
+        int high = firstBooking(slot + 1) - 1;
+        int candidate = -1; // Last booking with a check-in before endDay
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (buffer.getInt(checkIns + middle * 4) < endDay) {
+                candidate = middle;
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        if (candidate >= 0 && buffer.getInt(checkOuts + candidate * 4) > startDay) {
+            return candidate;
+        }
+        return -1;
+    }
+
+    /**
+     * Checks if a room is free between two days without creating any objects.
+     * @param slot The position of the room in the file.
+     * @param startDay The check-in day as epoch day.
+     * @param endDay The check-out day as epoch day (exclusive).
+     * @return true if the room is free for the whole range.
+     */
+    public boolean isFree(int slot, int startDay, int endDay) {
+        return findOverlap(slot, startDay, endDay) < 0;
+    }
+
+    /**
+     * Reads one booking of a room.
+     * @param slot The position of the room in the file.
+     * @param position The position of the booking in the file.
+     * @return The booking.
+     */
+    public Booking getBooking(int slot, int position) {
+        int detail = details + buffer.getInt(detailOffsets + position * 4);
+        String customerName = readString(detail);
+        String contactNumber = readString(detail + 4 + buffer.getInt(detail));
+        return new Booking(getNumber(slot), customerName, contactNumber,
+                buffer.getInt(checkIns + position * 4), buffer.getInt(checkOuts + position * 4),
+                buffer.getInt(guests + position * 4), buffer.getDouble(totals + position * 8));
+    }
+
+    /**
+     * Reads every booking of a room in check-in order.
+     * @param slot The position of the room in the file.
+     * @return List of bookings.
+     */
+    public List<Booking> getBookings(int slot) {
+        int end = firstBooking(slot + 1);
+        List<Booking> bookings = new ArrayList<>(end - firstBooking(slot));
+        for (int position = firstBooking(slot); position < end; position++) {
+            bookings.add(getBooking(slot, position));
+        }
+        return bookings;
+    }
+
+    /**
+     * Reads the booking of a room with the latest check-in.
+     * @param slot The position of the room in the file.
+     * @return The latest booking or null if the room has none.
+     */
+    public Booking getLatest(int slot) {
+        int end = firstBooking(slot + 1);
+        return end > firstBooking(slot) ? getBooking(slot, end - 1) : null;
+    }
+
+    /**
+     * Creates the Room objects of the inventory. Only number, type, price and booking count are read,
+     * each room calendar and customer details stay in the file until the room is touched.
+     * @return List of rooms in file order.
+     */
+    public List<Room> createRooms() {
+        List<Room> rooms = new ArrayList<>(roomCount);
+        OccupancyStore store = new OccupancyStore(roomCount); // One store sized to the snapshot
+        for (int slot = 0; slot < roomCount; slot++) {
+            // Available when it has no bookings, whatever the flag says: older snapshots saved the flag of a held room
+            rooms.add(new Room(store, getType(slot), getPrice(slot), getNumber(slot), new BookingCalendar(this, slot), getBookingCount(slot) == 0));
+        }
+        return rooms;
+    }
+
+    private int firstBooking(int slot) {
+        return buffer.getInt(bookingIndex + slot * 4);
+    }
+
+    private String readString(int position) {
+        int length = buffer.getInt(position);
+        byte[] bytes = new byte[length];
+        buffer.get(position + 4, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,201 @@
+package com.AbotLangit;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * This is the NightOccupancy class
+ * Counts the booked rooms of each type for every night, so a surge can look at how full the nights of a stay are
+ * instead of how many rooms have a guest today.
+ *
+ * The nights of the DynamicPricingEngine tables (the same first day and horizon) are counted in one int array per type,
+ * so a quote there reads one array slot per night without any allocation. The few nights outside of it,
+ * long past or years ahead, are counted in a map. The window moves forward with the tables.
+ * The RoomManager adds and removes bookings while holding the lock of their room, and moves the window
+ * while holding every lock; reading needs no lock.
+ */
+public class NightOccupancy {
+    private volatile Window window;
+    private final Map<String, ConcurrentHashMap<Integer, AtomicInteger>> outside = new ConcurrentHashMap<>(); // Type, then night outside the window, to booked rooms
+
+    /**
+     * The counted nights from a first day, never moved once built.
+     */
+    private static final class Window {
+        final int firstDay;
+        final long endMillis; // When the pricing tables move on and this window has to follow
+        final ConcurrentHashMap<String, AtomicIntegerArray> booked = new ConcurrentHashMap<>(); // Booked rooms per night from firstDay
+
+        Window(int firstDay) {
+            this.firstDay = firstDay;
+            this.endMillis = DynamicPricingEngine.tableEndMillis(firstDay);
+        }
+
+        AtomicIntegerArray of(String type) {
+            return booked.computeIfAbsent(type, t -> new AtomicIntegerArray(DynamicPricingEngine.HORIZON));
+        }
+    }
+
+    /**
+     * Constructor for counts without any booking, over the nights of today's pricing tables.
+     */
+    public NightOccupancy() {
+        this(DynamicPricingEngine.tableStart(DynamicPricingEngine.today()));
+    }
+
+    /**
+     * Constructor for counts without any booking, with the window starting on a night.
+     * @param firstDay The first night counted in the arrays as epoch day.
+     */
+    NightOccupancy(int firstDay) {
+        window = new Window(firstDay);
+    }
+
+    /**
+     * Counts the nights of a booking.
+     * @param type The room type.
+     * @param booking The booking.
+     */
+    public void add(String type, Booking booking) {
+        count(type, booking, 1);
+    }
+
+    /**
+     * Takes the nights of a booking off again.
+     * @param type The room type.
+     * @param booking The booking as it was added.
+     */
+    public void remove(String type, Booking booking) {
+        count(type, booking, -1);
+    }
+
+    private void count(String type, Booking booking, int delta) {
+        Window current = window;
+        AtomicIntegerArray nights = current.of(type);
+        for (int day = booking.getCheckInDay(); day < booking.getCheckOutDay(); day++) {
+            int slot = day - current.firstDay;
+            if (slot >= 0 && slot < DynamicPricingEngine.HORIZON) {
+                nights.addAndGet(slot, delta);
+            } else if (delta > 0) {
+                outside.computeIfAbsent(type, t -> new ConcurrentHashMap<>()).computeIfAbsent(day, d -> new AtomicInteger()).incrementAndGet();
+            } else {
+                AtomicInteger booked = outsideCount(type, day);
+                if (booked != null) {
+                    booked.decrementAndGet(); // Left at 0 rather than removed, the night is likely booked again
+                }
+            }
+        }
+    }
+
+    private AtomicInteger outsideCount(String type, int day) {
+        Map<Integer, AtomicInteger> nights = outside.get(type);
+        return nights == null ? null : nights.get(day);
+    }
+
+    /**
+     * Counts the rooms of a type booked for one night.
+     * @param type The room type.
+     * @param day The night as epoch day.
+     * @return The number of booked rooms.
+     */
+    public int getBooked(String type, int day) {
+        Window current = window;
+        int slot = day - current.firstDay;
+        if (slot >= 0 && slot < DynamicPricingEngine.HORIZON) {
+            AtomicIntegerArray nights = current.booked.get(type);
+            return nights == null ? 0 : nights.get(slot);
+        }
+        AtomicInteger booked = outsideCount(type, day);
+        return booked == null ? 0 : booked.get();
+    }
+
+    /**
+     * Works out how full a type is over the nights of a stay, the average share of booked rooms per night.
+     * @param type The room type.
+     * @param checkInDay The check-in date as epoch day.
+     * @param nights The number of nights.
+     * @param rooms The number of rooms of the type.
+     * @return The occupancy from 0 to 1, 0 for a type without rooms.
+     */
+    public double getOccupancy(String type, int checkInDay, int nights, int rooms) {
+        if (rooms == 0 || nights <= 0) {
+            return 0;
+        }
+        Window current = window;
+        AtomicIntegerArray booked = current.booked.get(type);
+        long sum = 0;
+        for (int day = checkInDay; day < checkInDay + nights; day++) {
+            int slot = day - current.firstDay;
+            if (slot >= 0 && slot < DynamicPricingEngine.HORIZON) {
+                sum += booked == null ? 0 : booked.get(slot);
+            } else {
+                AtomicInteger count = outsideCount(type, day);
+                sum += count == null ? 0 : count.get();
+            }
+        }
+        return Math.min(1, (double) sum / ((long) nights * rooms));
+    }
+
+    /**
+     * Tells whether the pricing tables have moved on since the window was placed.
+     * @return True if moveForward should be called.
+     */
+    public boolean isOutdated() {
+        return System.currentTimeMillis() >= window.endMillis;
+    }
+
+    /**
+     * Moves the window to the nights of today's pricing tables. Nights leaving it go to the map and nights entering it
+     * come out of the map. Must be called while no booking can be added or removed.
+     */
+    public void moveForward() {
+        moveTo(DynamicPricingEngine.tableStart(DynamicPricingEngine.today()));
+    }
+
+    /**
+     * Moves the window to start on a night. Must be called while no booking can be added or removed.
+     * @param firstDay The first night counted in the arrays as epoch day.
+     */
+    void moveTo(int firstDay) {
+        Window old = window;
+        if (firstDay == old.firstDay) {
+            return;
+        }
+        Window moved = new Window(firstDay);
+        Set<String> types = new HashSet<>(old.booked.keySet());
+        types.addAll(outside.keySet());
+        for (String type : types) {
+            AtomicIntegerArray nights = moved.of(type);
+            AtomicIntegerArray oldNights = old.booked.get(type);
+            if (oldNights != null) {
+                for (int slot = 0; slot < DynamicPricingEngine.HORIZON; slot++) {
+                    int booked = oldNights.get(slot);
+                    int day = old.firstDay + slot;
+                    int newSlot = day - firstDay;
+                    if (newSlot >= 0 && newSlot < DynamicPricingEngine.HORIZON) {
+                        nights.set(newSlot, booked);
+                    } else if (booked != 0) {
+                        outside.computeIfAbsent(type, t -> new ConcurrentHashMap<>()).put(day, new AtomicInteger(booked));
+                    }
+                }
+            }
+            Map<Integer, AtomicInteger> outsideNights = outside.get(type);
+            if (outsideNights != null) {
+                for (Iterator<Map.Entry<Integer, AtomicInteger>> it = outsideNights.entrySet().iterator(); it.hasNext(); ) {
+                    Map.Entry<Integer, AtomicInteger> entry = it.next();
+                    int newSlot = entry.getKey() - firstDay;
+                    if (newSlot >= 0 && newSlot < DynamicPricingEngine.HORIZON) {
+                        nights.addAndGet(newSlot, entry.getValue().get());
+                        it.remove();
+                    }
+                }
+            }
+        }
+        window = moved;
+    }
+}
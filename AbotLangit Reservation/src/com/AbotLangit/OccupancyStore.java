@@ -0,0 +1,235 @@
+package com.AbotLangit;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * This is the OccupancyStore class
+ * Holds the state of many rooms in parallel primitive arrays, one slot per room: number, type ordinal,
+ * price in cents, availability and the current stay as epoch days, guests and total in cents.
+ * A Room is only a view on its slot, so a large inventory costs a few arrays instead of a handful of objects per room.
+ *
+ * Every RoomManager keeps its rooms in a store of its own, sized to its inventory; rooms loaded from a snapshot
+ * come in one store sized to the snapshot. A room built on its own has a store of one slot until a RoomManager takes it in.
+ * The type names are numbered per store, so nothing is shared between RoomManagers.
+ * Like the fields it replaces, a slot is written under the lock of its room in the RoomManager and read without locking.
+ */
+public class OccupancyStore {
+    private static final byte AVAILABLE = 1;
+    private static final byte DETAILS_PENDING = 2; // The stay is still only in the mapped snapshot
+    private static final VarHandle FLAGS = MethodHandles.arrayElementVarHandle(byte[].class);
+
+    private final List<String> types = new CopyOnWriteArrayList<>(); // Type name of each ordinal
+    private final Map<String, Integer> ordinalsByType = new ConcurrentHashMap<>();
+    private final int[] numbers;
+    private final int[] typeOrdinals;
+    private final long[] priceCents;
+    private final byte[] flags;
+    private final int[] checkInDays;
+    private final int[] checkOutDays;
+    private final int[] guestCounts;
+    private final long[] totalCents;
+    private final String[] customerNames;
+    private final String[] contactNumbers;
+    private int size; // Slots in use
+
+    /**
+     * Constructor for a store with room for a fixed number of rooms.
+     * @param capacity The number of slots.
+     */
+    OccupancyStore(int capacity) {
+        numbers = new int[capacity];
+        typeOrdinals = new int[capacity];
+        priceCents = new long[capacity];
+        flags = new byte[capacity];
+        checkInDays = new int[capacity];
+        checkOutDays = new int[capacity];
+        guestCounts = new int[capacity];
+        totalCents = new long[capacity];
+        customerNames = new String[capacity];
+        contactNumbers = new String[capacity];
+    }
+
+    /**
+     * Takes the next free slot for a room.
+     * @param number The room number.
+     * @param type The room type.
+     * @param price The price per night.
+     * @param available The availability of the room.
+     * @param detailsPending true if the current stay still has to be read from the room calendar.
+     * @return The slot of the room.
+     */
+    synchronized int add(int number, String type, double price, boolean available, boolean detailsPending) {
+        int slot = nextSlot();
+        numbers[slot] = number;
+        typeOrdinals[slot] = ordinalOf(type);
+        priceCents[slot] = toCents(price);
+        checkInDays[slot] = Dates.NO_DAY;
+        checkOutDays[slot] = Dates.NO_DAY;
+        FLAGS.setVolatile(flags, slot, (byte) ((available ? AVAILABLE : 0) | (detailsPending ? DETAILS_PENDING : 0)));
+        return slot;
+    }
+
+    /**
+     * Takes the next free slot for a room and copies everything of its slot in another store over, when a RoomManager
+     * takes in a room built on its own.
+     * @param from The store the room is in now.
+     * @param fromSlot The slot of the room there.
+     * @return The slot of the room in this store.
+     */
+    synchronized int copy(OccupancyStore from, int fromSlot) {
+        int slot = nextSlot();
+        numbers[slot] = from.numbers[fromSlot];
+        typeOrdinals[slot] = ordinalOf(from.getType(fromSlot));
+        priceCents[slot] = from.priceCents[fromSlot];
+        checkInDays[slot] = from.checkInDays[fromSlot];
+        checkOutDays[slot] = from.checkOutDays[fromSlot];
+        guestCounts[slot] = from.guestCounts[fromSlot];
+        totalCents[slot] = from.totalCents[fromSlot];
+        customerNames[slot] = from.customerNames[fromSlot];
+        contactNumbers[slot] = from.contactNumbers[fromSlot];
+        FLAGS.setVolatile(flags, slot, (byte) FLAGS.getVolatile(from.flags, fromSlot));
+        return slot;
+    }
+
+    private int nextSlot() {
+        if (size == numbers.length) {
+            throw new IllegalStateException("Occupancy store is full: " + size + " rooms");
+        }
+        return size++;
+    }
+
+    /**
+     * Finds the ordinal of a room type, giving a new type the next one.
+     * @param type The type name.
+     * @return The ordinal.
+     */
+    private int ordinalOf(String type) {
+        Integer ordinal = ordinalsByType.get(type);
+        if (ordinal != null) {
+            return ordinal;
+        }
+        synchronized (types) {
+            return ordinalsByType.computeIfAbsent(type, t -> {
+                types.add(t);
+                return types.size() - 1;
+            });
+        }
+    }
+
+    /**
+     * Converts a price to whole cents, rounding half up.
+     * @param price The price.
+     * @return The price in cents.
+     */
+    static long toCents(double price) {
+        return Math.round(price * 100);
+    }
+
+    public int getNumber(int slot) {
+        return numbers[slot];
+    }
+
+    public String getType(int slot) {
+        return types.get(typeOrdinals[slot]);
+    }
+
+    void setType(int slot, String type) {
+        typeOrdinals[slot] = ordinalOf(type);
+    }
+
+    public long getPriceCents(int slot) {
+        return priceCents[slot];
+    }
+
+    void setPriceCents(int slot, long cents) {
+        priceCents[slot] = cents;
+    }
+
+    public boolean isAvailable(int slot) {
+        return (flags[slot] & AVAILABLE) != 0;
+    }
+
+    void setAvailable(int slot, boolean available) {
+        byte current;
+        do {
+            current = (byte) FLAGS.getVolatile(flags, slot);
+        } while (!FLAGS.compareAndSet(flags, slot, current, (byte) (available ? current | AVAILABLE : current & ~AVAILABLE)));
+    }
+
+    /**
+     * Tells whether the current stay of a room still has to be read from its calendar.
+     * @param slot The slot of the room.
+     * @return true until clearDetailsPending is called.
+     */
+    boolean isDetailsPending(int slot) {
+        return ((byte) FLAGS.getVolatile(flags, slot) & DETAILS_PENDING) != 0;
+    }
+
+    void clearDetailsPending(int slot) {
+        byte current;
+        do {
+            current = (byte) FLAGS.getVolatile(flags, slot);
+        } while (!FLAGS.compareAndSet(flags, slot, current, (byte) (current & ~DETAILS_PENDING)));
+    }
+
+    public int getCheckInDay(int slot) {
+        return checkInDays[slot];
+    }
+
+    void setCheckInDay(int slot, int day) {
+        checkInDays[slot] = day;
+    }
+
+    public int getCheckOutDay(int slot) {
+        return checkOutDays[slot];
+    }
+
+    void setCheckOutDay(int slot, int day) {
+        checkOutDays[slot] = day;
+    }
+
+    public int getGuestCount(int slot) {
+        return guestCounts[slot];
+    }
+
+    void setGuestCount(int slot, int guestCount) {
+        guestCounts[slot] = guestCount;
+    }
+
+    public long getTotalCents(int slot) {
+        return totalCents[slot];
+    }
+
+    void setTotalCents(int slot, long cents) {
+        totalCents[slot] = cents;
+    }
+
+    public String getCustomerName(int slot) {
+        return customerNames[slot];
+    }
+
+    void setCustomerName(int slot, String customerName) {
+        customerNames[slot] = customerName;
+    }
+
+    public String getContactNumber(int slot) {
+        return contactNumbers[slot];
+    }
+
+    void setContactNumber(int slot, String contactNumber) {
+        contactNumbers[slot] = contactNumber;
+    }
+
+    /**
+     * Counts the rooms in this store.
+     * @return The number of slots in use.
+     */
+    public synchronized int size() {
+        return size;
+    }
+}
@@ -0,0 +1,41 @@
+package com.AbotLangit;
+
+/**
+ * This is the PricingEngine interface
+ * Quotes the total price of a whole stay in a room. The RoomManager asks it for the price of every reservation,
+ * so the pricing rules can be swapped without touching the booking code.
+ */
+public interface PricingEngine {
+    /**
+     * The fixed price of the original system: price per day times the nights times the guests.
+     */
+    PricingEngine FLAT = (room, checkInDay, nights, guests, occupancy) -> room.getPrice() * nights * guests;
+
+    /**
+     * Quotes a stay. Called for every search result and reservation, so it shouldn't allocate.
+     * @param room The room, its price is the base price per day.
+     * @param checkInDay The check-in date as epoch day.
+     * @param nights The number of nights.
+     * @param guests The number of guests.
+     * @param occupancy The share of rooms of the type booked on the nights of the stay, on average, from 0 to 1.
+     * Always 0 for an engine that doesn't use it.
+     * @return The total price of the stay.
+     */
+    double quote(Room room, int checkInDay, int nights, int guests, double occupancy);
+
+    /**
+     * Tells whether quotes depend on the occupancy, so every booking changes the price of the other rooms of the type on its nights.
+     * @return True if the occupancy is used.
+     */
+    default boolean usesOccupancy() {
+        return false;
+    }
+
+    /**
+     * Counts the changes to the pricing rules, so cached quotes of older rules can be told apart.
+     * @return A number that changes whenever the rules change.
+     */
+    default long getVersion() {
+        return 0;
+    }
+}
@@ -0,0 +1,53 @@
+package com.AbotLangit;
+
+/**
+ * This is the PropertyQuote class
+ * A room of one property that is free for a stay and what the stay costs in it.
+ * Only plain values, so it can come back from a shard in another JVM.
+ */
+public class PropertyQuote {
+    private final String property;
+    private final String type;
+    private final int roomNumber;
+    private final double price; // Price per day
+    private final double totalPrice;
+
+    public PropertyQuote(String property, String type, int roomNumber, double price, double totalPrice) {
+        this.property = property;
+        this.type = type;
+        this.roomNumber = roomNumber;
+        this.price = price;
+        this.totalPrice = totalPrice;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public int getRoomNumber() {
+        return roomNumber;
+    }
+
+    public double getPrice() {
+        return price;
+    }
+
+    public double getTotalPrice() {
+        return totalPrice;
+    }
+
+    @Override
+    public String toString() {
+        return "PropertyQuote{" +
+                "property='" + property + '\'' +
+                ", type='" + type + '\'' +
+                ", roomNumber=" + roomNumber +
+                ", price=" + price +
+                ", totalPrice=" + totalPrice +
+                '}';
+    }
+}
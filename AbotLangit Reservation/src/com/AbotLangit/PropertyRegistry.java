@@ -0,0 +1,180 @@
+package com.AbotLangit;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This is the PropertyRegistry class
+ * Holds the RoomShards of every property and routes each request to the shard that owns its property and room type.
+ * A property can be one shard or be split by room type over several, and every shard can be local or in another JVM.
+ * A search over several shards asks all of them at once, one virtual thread each, and merges the answers by price.
+ */
+public class PropertyRegistry {
+    private final Map<String, Map<String, RoomShard>> routes = new ConcurrentHashMap<>(); // Property, then room type, to its shard
+    private final List<RoomShard> shards = new CopyOnWriteArrayList<>();
+    private final ExecutorService fanOut = Executors.newVirtualThreadPerTaskExecutor();
+    private final LongAdder skippedShards = new LongAdder(); // Shards left out of a search answer because they failed
+    private volatile Exception lastShardError; // Why a shard was last left out, null if none ever was
+
+    /**
+     * Adds a shard, which takes over its room types of its property.
+     * @param shard The shard.
+     * @throws IllegalArgumentException if another shard already holds one of the room types of the property.
+     */
+    public synchronized void register(RoomShard shard) {
+        Map<String, RoomShard> types = routes.computeIfAbsent(shard.getProperty(), property -> new ConcurrentHashMap<>());
+        for (String type : shard.getTypes()) {
+            if (types.containsKey(type)) {
+                throw new IllegalArgumentException("Room type " + type + " of " + shard.getProperty() + " is already in a shard");
+            }
+        }
+        for (String type : shard.getTypes()) {
+            types.put(type, shard);
+        }
+        shards.add(shard);
+    }
+
+    /**
+     * Finds the shard that owns a room type of a property.
+     * @param property The property name.
+     * @param type The room type.
+     * @return The shard, or null if no shard holds that type.
+     */
+    public RoomShard route(String property, String type) {
+        Map<String, RoomShard> types = routes.get(property);
+        return types == null ? null : types.get(type);
+    }
+
+    /**
+     * Retrieves the names of every property with at least one shard.
+     * @return List of property names.
+     */
+    public List<String> getProperties() {
+        return new ArrayList<>(routes.keySet());
+    }
+
+    /**
+     * Finds the rooms free for a stay over the matching shards in parallel, cheapest first.
+     * A shard that can't be reached is left out of the answer and counted in getSkippedShards.
+     * @param property The property name, or null for every property.
+     * @param type The room type, or null for every type.
+     * @param checkInDate The check-in date.
+     * @param nights The number of nights.
+     * @param guests The number of guests.
+     * @return List of quotes sorted by total price.
+     */
+    public List<PropertyQuote> search(String property, String type, LocalDate checkInDate, int nights, int guests) {
+        int checkInDay = Dates.toEpochDay(checkInDate);
+        Map<RoomShard, String> targets = targets(property, type);
+        List<PropertyQuote> merged = new ArrayList<>();
+        if (targets.size() == 1) {
+            Map.Entry<RoomShard, String> only = targets.entrySet().iterator().next();
+            merged.addAll(searchShard(only.getKey(), only.getValue(), checkInDay, nights, guests));
+        } else {
+            List<CompletableFuture<List<PropertyQuote>>> answers = new ArrayList<>(targets.size());
+            for (Map.Entry<RoomShard, String> target : targets.entrySet()) {
+                answers.add(CompletableFuture.supplyAsync(() -> searchShard(target.getKey(), target.getValue(), checkInDay, nights, guests), fanOut));
+            }
+            for (CompletableFuture<List<PropertyQuote>> answer : answers) {
+                merged.addAll(answer.join());
+            }
+        }
+        merged.sort(Comparator.comparingDouble(PropertyQuote::getTotalPrice));
+        return merged;
+    }
+
+    /**
+     * Picks the shards a search has to ask, each with the type to ask it for.
+     * A shard asked for every type is asked once with null, not once per type.
+     */
+    private Map<RoomShard, String> targets(String property, String type) {
+        Map<RoomShard, String> targets = new LinkedHashMap<>();
+        Set<Map<String, RoomShard>> properties = new LinkedHashSet<>();
+        if (property == null) {
+            properties.addAll(routes.values());
+        } else if (routes.containsKey(property)) {
+            properties.add(routes.get(property));
+        }
+        for (Map<String, RoomShard> types : properties) {
+            if (type == null) {
+                for (RoomShard shard : types.values()) {
+                    targets.put(shard, null);
+                }
+            } else if (types.containsKey(type)) {
+                targets.put(types.get(type), type);
+            }
+        }
+        return targets;
+    }
+
+    private List<PropertyQuote> searchShard(RoomShard shard, String type, int checkInDay, int nights, int guests) {
+        try {
+            return shard.search(type, checkInDay, nights, guests);
+        } catch (IOException | RuntimeException e) {
+            skippedShards.increment();
+            lastShardError = new IOException("Search skipped shard " + shard.getProperty(), e);
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Counts the times a shard was left out of a search answer because it could not be reached or failed.
+     * @return The number of skipped shard searches since the registry was created.
+     */
+    public long getSkippedShards() {
+        return skippedShards.sum();
+    }
+
+    /**
+     * Retrieves why a shard was last left out of a search answer.
+     * @return The error with the property of the shard as message and the failure as cause, or null if no shard was ever skipped.
+     */
+    public Exception getLastShardError() {
+        return lastShardError;
+    }
+
+    /**
+     * Reserves a room through the shard that owns the room type of the property.
+     * @param property The property name.
+     * @param type The room type.
+     * @param roomNumber The room to reserve, or null for any free room of the type.
+     * @param customerName The name of the customer.
+     * @param contactNumber The contact number of the customer.
+     * @param checkInDate The check-in date.
+     * @param nights The number of nights.
+     * @param guests The number of guests.
+     * @return The outcome, NO_ROOM if no shard holds the type.
+     * @throws IOException if the shard can't be reached.
+     */
+    public PropertyReservation reserve(String property, String type, Integer roomNumber, String customerName, String contactNumber,
+                                       LocalDate checkInDate, int nights, int guests) throws IOException {
+        RoomShard shard = route(property, type);
+        if (shard == null) {
+            return new PropertyReservation(ReservationResult.Status.NO_ROOM, property, 0, 0);
+        }
+        return shard.reserve(type, roomNumber, customerName, contactNumber, Dates.toEpochDay(checkInDate), nights, guests);
+    }
+
+    /**
+     * Closes every shard and stops the search threads.
+     */
+    public void close() {
+        for (RoomShard shard : shards) {
+            shard.close();
+        }
+        fanOut.shutdown();
+    }
+}
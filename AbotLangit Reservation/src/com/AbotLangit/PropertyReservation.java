@@ -0,0 +1,50 @@
+package com.AbotLangit;
+
+/**
+ * This is the PropertyReservation class
+ * The outcome of a reservation made through the PropertyRegistry, with plain values only
+ * so it can come back from a shard in another JVM.
+ */
+public class PropertyReservation {
+    private final ReservationResult.Status status;
+    private final String property;
+    private final int roomNumber; // The reserved or conflicting room, 0 if there is none
+    private final double totalPrice; // Of the reserved stay, 0 otherwise
+
+    public PropertyReservation(ReservationResult.Status status, String property, int roomNumber, double totalPrice) {
+        this.status = status;
+        this.property = property;
+        this.roomNumber = roomNumber;
+        this.totalPrice = totalPrice;
+    }
+
+    public boolean isReserved() {
+        return status == ReservationResult.Status.RESERVED;
+    }
+
+    public ReservationResult.Status getStatus() {
+        return status;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public int getRoomNumber() {
+        return roomNumber;
+    }
+
+    public double getTotalPrice() {
+        return totalPrice;
+    }
+
+    @Override
+    public String toString() {
+        return "PropertyReservation{" +
+                "status=" + status +
+                ", property='" + property + '\'' +
+                ", roomNumber=" + roomNumber +
+                ", totalPrice=" + totalPrice +
+                '}';
+    }
+}
@@ -0,0 +1,280 @@
+package com.AbotLangit;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This is the QuoteCache class
+ * Remembers the answer of an availability search with prices, keyed by room type, check-in, nights and guests,
+ * since most searches ask the same few stays over and over.
+ *
+ * An answer is dropped when it gets too old, when the cache is full (oldest first), and as soon as it may be wrong:
+ * a reservation or release drops the answers of its room type whose nights overlap the booking (a surge on occupancy
+ * only looks at those nights too), and a price change drops every answer of the room type.
+ * Answers of an engine whose rules have changed since are never returned.
+ */
+public class QuoteCache implements RoomEventListener {
+    private final RoomManager roomManager;
+    private final int maxEntries;
+    private final long timeToLiveNanos;
+
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>(); // One bucket per room type
+    private final Bucket allTypes = new Bucket(); // Searches over every type
+    private final ConcurrentLinkedQueue<Entry> insertionOrder = new ConcurrentLinkedQueue<>(); // For evicting the oldest once full
+    private final AtomicInteger queued = new AtomicInteger();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    /**
+     * The answers of one room type, with a counter bumped on every invalidation so a search that was
+     * running while its type changed doesn't put an outdated answer in.
+     */
+    private static class Bucket {
+        final ConcurrentHashMap<Key, Entry> entries = new ConcurrentHashMap<>();
+        final AtomicLong generation = new AtomicLong();
+    }
+
+    private static final class Key {
+        final String type;
+        final int checkInDay;
+        final int nights;
+        final int guests;
+
+        Key(String type, int checkInDay, int nights, int guests) {
+            this.type = type;
+            this.checkInDay = checkInDay;
+            this.nights = nights;
+            this.guests = guests;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return checkInDay == key.checkInDay && nights == key.nights && guests == key.guests
+                    && (type == null ? key.type == null : type.equals(key.type));
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = type == null ? 0 : type.hashCode();
+            hash = 31 * hash + checkInDay;
+            hash = 31 * hash + nights;
+            return 31 * hash + guests;
+        }
+    }
+
+    private static final class Entry {
+        final Key key;
+        final Bucket bucket;
+        final List<RoomQuote> quotes;
+        final long createdNanos;
+        final PricingEngine engine;
+        final long engineVersion;
+
+        Entry(Key key, Bucket bucket, List<RoomQuote> quotes, PricingEngine engine, long engineVersion) {
+            this.key = key;
+            this.bucket = bucket;
+            this.quotes = quotes;
+            this.createdNanos = System.nanoTime();
+            this.engine = engine;
+            this.engineVersion = engineVersion;
+        }
+    }
+
+    private QuoteCache(RoomManager roomManager, int maxEntries, long timeToLive, TimeUnit unit) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("Cache must hold at least one entry: " + maxEntries);
+        }
+        this.roomManager = roomManager;
+        this.maxEntries = maxEntries;
+        this.timeToLiveNanos = unit.toNanos(timeToLive);
+    }
+
+    /**
+     * Creates a cache in front of a RoomManager. It follows the changes of the rooms from then on, until close.
+     * @param roomManager The RoomManager to search.
+     * @param maxEntries The most answers kept.
+     * @param timeToLive How long an answer is kept at most.
+     * @param unit The unit of timeToLive.
+     * @return The new cache.
+     */
+    public static QuoteCache create(RoomManager roomManager, int maxEntries, long timeToLive, TimeUnit unit) {
+        QuoteCache quoteCache = new QuoteCache(roomManager, maxEntries, timeToLive, unit);
+        // Only once it is fully built. Right on the booking thread, not batched on the Swing thread, and every event:
+        // two bookings of a room delivered together each drop their own nights
+        roomManager.getEventBus().subscribe(quoteCache, Runnable::run, false);
+        return quoteCache;
+    }
+
+    /**
+     * Finds the rooms free for a stay and quotes each of them, answering from the cache when it can.
+     * @param type The room type, or null for every type.
+     * @param checkInDay The check-in date as epoch day.
+     * @param nights The number of nights.
+     * @param guests The number of guests.
+     * @return Unmodifiable list of quotes in the order of RoomManager.findAvailable.
+     */
+    public List<RoomQuote> search(String type, int checkInDay, int nights, int guests) {
+        Key key = new Key(type, checkInDay, nights, guests);
+        Bucket bucket = bucketOf(type);
+        PricingEngine engine = roomManager.getPricingEngine();
+        long engineVersion = engine.getVersion();
+        Entry entry = bucket.entries.get(key);
+        if (entry != null) {
+            if (System.nanoTime() - entry.createdNanos > timeToLiveNanos) {
+                if (bucket.entries.remove(key, entry)) {
+                    evictions.increment();
+                }
+            } else if (entry.engine == engine && entry.engineVersion == engineVersion) {
+                hits.increment();
+                return entry.quotes;
+            }
+        }
+        misses.increment();
+
+        long generation = bucket.generation.get();
+        List<RoomQuote> quotes = quote(roomManager, type, checkInDay, nights, guests);
+        Entry created = new Entry(key, bucket, quotes, engine, engineVersion);
+        bucket.entries.put(key, created);
+        if (bucket.generation.get() != generation) {
+            bucket.entries.remove(key, created); // The type changed while searching, the answer may already be outdated
+            return quotes;
+        }
+        insertionOrder.add(created);
+        if (queued.incrementAndGet() > maxEntries) {
+            evictOldest();
+        }
+        return quotes;
+    }
+
+    /**
+     * Finds the rooms free for a stay and quotes each of them, without any cache.
+     * @return Unmodifiable list of quotes in the order of RoomManager.findAvailable.
+     */
+    static List<RoomQuote> quote(RoomManager roomManager, String type, int checkInDay, int nights, int guests) {
+        List<Room> rooms = roomManager.findAvailable(type, checkInDay, checkInDay + nights);
+        List<RoomQuote> quotes = new ArrayList<>(rooms.size());
+        for (Room room : rooms) {
+            quotes.add(new RoomQuote(room, roomManager.quote(room, checkInDay, nights, guests)));
+        }
+        return Collections.unmodifiableList(quotes);
+    }
+
+    private void evictOldest() {
+        while (queued.get() > maxEntries) {
+            Entry oldest = insertionOrder.poll();
+            if (oldest == null) {
+                return;
+            }
+            queued.decrementAndGet();
+            if (oldest.bucket.entries.remove(oldest.key, oldest)) {
+                evictions.increment();
+            } // Otherwise it was already invalidated or replaced
+        }
+    }
+
+    private Bucket bucketOf(String type) {
+        return type == null ? allTypes : buckets.computeIfAbsent(type, t -> new Bucket());
+    }
+
+    /**
+     * Drops the answers a room change may have made wrong, called on the thread that changed the room.
+     * @param events The changes.
+     */
+    @Override
+    public void roomsChanged(List<RoomEvent> events) {
+        for (RoomEvent event : events) {
+            String type = event.getRoom().getType();
+            Booking booking = event.getBooking();
+            RoomHold hold = event.getHold();
+            boolean wholeType = booking == null && hold == null; // A new price
+            int from = wholeType ? Integer.MIN_VALUE : booking != null ? booking.getCheckInDay() : hold.getCheckInDay();
+            int to = wholeType ? Integer.MAX_VALUE : booking != null ? booking.getCheckOutDay() : hold.getCheckOutDay();
+            Bucket bucket = buckets.get(type);
+            if (bucket != null) {
+                invalidate(bucket, from, to);
+            }
+            invalidate(allTypes, from, to);
+        }
+    }
+
+    private void invalidate(Bucket bucket, int from, int to) {
+        bucket.generation.incrementAndGet();
+        for (Entry entry : bucket.entries.values()) {
+            Key key = entry.key;
+            if (key.checkInDay < to && key.checkInDay + key.nights > from && bucket.entries.remove(key, entry)) {
+                invalidations.increment();
+            }
+        }
+    }
+
+    /**
+     * Drops every answer.
+     */
+    public void clear() {
+        for (Bucket bucket : buckets.values()) {
+            invalidate(bucket, Integer.MIN_VALUE, Integer.MAX_VALUE);
+        }
+        invalidate(allTypes, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Stops following the changes of the rooms. Call it when the cache is no longer used.
+     */
+    public void close() {
+        roomManager.getEventBus().unsubscribe(this);
+        clear();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public long getInvalidations() {
+        return invalidations.sum();
+    }
+
+    /**
+     * Counts the answers currently kept.
+     * @return The number of entries.
+     */
+    public int size() {
+        int size = allTypes.entries.size();
+        for (Bucket bucket : buckets.values()) {
+            size += bucket.entries.size();
+        }
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        return "QuoteCache{" +
+                "size=" + size() +
+                ", hits=" + getHits() +
+                ", misses=" + getMisses() +
+                ", evictions=" + getEvictions() +
+                ", invalidations=" + getInvalidations() +
+                '}';
+    }
+}
@@ -0,0 +1,38 @@
+package com.AbotLangit;
+
+/**
+ * This is the RecoveryReport class
+ * What opening a data directory found: the bookings read from the journal, the records left out because
+ * their room is not in the inventory any more, and the bytes of a torn record cut off the end of the journal.
+ */
+public class RecoveryReport {
+    public static final RecoveryReport EMPTY = new RecoveryReport(0, 0, 0);
+
+    private final long bookings; // Bookings read from the journal
+    private final long skippedRecords; // Bookings, cancellations and early check-outs for rooms that are not in the inventory
+    private final long cutOffBytes; // Bytes after the last good journal record, 0 if the journal ended cleanly
+
+    public RecoveryReport(long bookings, long skippedRecords, long cutOffBytes) {
+        this.bookings = bookings;
+        this.skippedRecords = skippedRecords;
+        this.cutOffBytes = cutOffBytes;
+    }
+
+    public long getBookings() {
+        return bookings;
+    }
+
+    public long getSkippedRecords() {
+        return skippedRecords;
+    }
+
+    public long getCutOffBytes() {
+        return cutOffBytes;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d bookings recovered, %d records for unknown rooms skipped, %d torn bytes cut off",
+                bookings, skippedRecords, cutOffBytes);
+    }
+}
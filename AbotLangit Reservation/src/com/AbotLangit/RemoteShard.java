@@ -0,0 +1,200 @@
+package com.AbotLangit;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * This is the RemoteShard class
+ * A RoomShard served by a ShardServer in another JVM on this machine.
+ * Connections are kept open and reused, one request at a time on each, so parallel callers each borrow their own.
+ * A connection that times out or gets an answer it can't read is closed instead of going back for reuse.
+ */
+public class RemoteShard implements RoomShard {
+    public static final int DEFAULT_TIMEOUT_MILLIS = 10_000; // Longest wait to connect or for an answer before the shard counts as down
+
+    private final InetAddress address;
+    private final int port;
+    private final int timeoutMillis;
+    private final ConcurrentLinkedQueue<Connection> idle = new ConcurrentLinkedQueue<>();
+    private final String property;
+    private final List<String> types;
+    private volatile boolean closed;
+
+    /**
+     * An open connection to the server.
+     */
+    private static class Connection {
+        final Socket socket;
+        final BufferedReader in;
+        final BufferedWriter out;
+
+        Connection(InetAddress address, int port, int timeoutMillis) throws IOException {
+            socket = new Socket();
+            try {
+                socket.connect(new InetSocketAddress(address, port), timeoutMillis);
+                socket.setSoTimeout(timeoutMillis); // A hung shard fails the request instead of holding the caller forever
+                socket.setTcpNoDelay(true);
+            } catch (IOException e) {
+                socket.close();
+                throw e;
+            }
+            in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+        }
+
+        String request(String line) throws IOException {
+            out.write(line);
+            out.newLine();
+            out.flush();
+            return readLine();
+        }
+
+        String readLine() throws IOException {
+            String line = in.readLine();
+            if (line == null) {
+                throw new IOException("Shard closed the connection");
+            }
+            return line;
+        }
+
+        void close() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Already gone
+            }
+        }
+    }
+
+    /**
+     * Constructor to connect to a ShardServer on the loopback address and learn its property and room types.
+     * @param port The port the ShardServer listens on.
+     * @throws IOException if the server can't be reached.
+     */
+    public RemoteShard(int port) throws IOException {
+        this(InetAddress.getLoopbackAddress(), port);
+    }
+
+    /**
+     * Constructor to connect to a ShardServer and learn its property and room types.
+     * @param address The address of the server.
+     * @param port The port the ShardServer listens on.
+     * @throws IOException if the server can't be reached.
+     */
+    public RemoteShard(InetAddress address, int port) throws IOException {
+        this(address, port, DEFAULT_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * Constructor with a custom timeout, for connecting and for each answer.
+     * @param address The address of the server.
+     * @param port The port the ShardServer listens on.
+     * @param timeoutMillis The longest wait in milliseconds.
+     * @throws IOException if the server can't be reached or doesn't answer in time.
+     */
+    public RemoteShard(InetAddress address, int port, int timeoutMillis) throws IOException {
+        this.address = address;
+        this.port = port;
+        this.timeoutMillis = timeoutMillis;
+        Connection connection = new Connection(address, port, timeoutMillis);
+        List<String> hello;
+        try {
+            hello = check(ShardProtocol.fields(connection.request(ShardProtocol.HELLO)));
+        } catch (IOException e) {
+            connection.close();
+            throw e;
+        }
+        idle.add(connection);
+        this.property = hello.get(1);
+        this.types = Collections.unmodifiableList(new ArrayList<>(hello.subList(2, hello.size())));
+    }
+
+    @Override
+    public String getProperty() {
+        return property;
+    }
+
+    @Override
+    public List<String> getTypes() {
+        return types;
+    }
+
+    @Override
+    public List<PropertyQuote> search(String type, int checkInDay, int nights, int guests) throws IOException {
+        Connection connection = borrow();
+        try {
+            List<PropertyQuote> quotes = new ArrayList<>();
+            String line = connection.request(ShardProtocol.line(ShardProtocol.SEARCH, type == null ? ShardProtocol.NONE : type, checkInDay, nights, guests));
+            while (!line.equals(ShardProtocol.END)) {
+                List<String> fields = check(ShardProtocol.fields(line));
+                quotes.add(new PropertyQuote(property, fields.get(1), Integer.parseInt(fields.get(2)),
+                        Double.parseDouble(fields.get(3)), Double.parseDouble(fields.get(4))));
+                line = connection.readLine();
+            }
+            giveBack(connection);
+            return quotes;
+        } catch (IOException | RuntimeException e) {
+            connection.close(); // Don't reuse a connection that may be half way through an answer
+            throw e;
+        }
+    }
+
+    @Override
+    public PropertyReservation reserve(String type, Integer roomNumber, String customerName, String contactNumber,
+                                       int checkInDay, int nights, int guests) throws IOException {
+        Connection connection = borrow();
+        try {
+            List<String> fields = check(ShardProtocol.fields(connection.request(ShardProtocol.line(ShardProtocol.RESERVE, type,
+                    roomNumber == null ? ShardProtocol.NONE : roomNumber, customerName, contactNumber, checkInDay, nights, guests))));
+            PropertyReservation reservation = new PropertyReservation(ReservationResult.Status.valueOf(fields.get(0)), property,
+                    Integer.parseInt(fields.get(1)), Double.parseDouble(fields.get(2)));
+            giveBack(connection); // Only once the answer made sense
+            return reservation;
+        } catch (IOException | RuntimeException e) {
+            connection.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        Connection connection;
+        while ((connection = idle.poll()) != null) {
+            connection.close();
+        }
+    }
+
+    private Connection borrow() throws IOException {
+        if (closed) {
+            throw new IOException("Shard " + property + " is closed");
+        }
+        Connection connection = idle.poll();
+        return connection != null ? connection : new Connection(address, port, timeoutMillis);
+    }
+
+    private void giveBack(Connection connection) {
+        idle.add(connection);
+        if (closed) {
+            close(); // Closed while the request was running
+        }
+    }
+
+    private static List<String> check(List<String> fields) throws IOException {
+        if (fields.get(0).equals(ShardProtocol.ERROR)) {
+            throw new IOException("Shard error: " + (fields.size() > 1 ? fields.get(1) : ""));
+        }
+        return fields;
+    }
+}
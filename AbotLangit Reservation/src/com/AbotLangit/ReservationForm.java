@@ -4,22 +4,25 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.awt.event.FocusAdapter;
+import java.awt.event.FocusEvent;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
 
 /**
  * ReservationForm class for creating the reservation form GUI.
  * This is where the transaction goes
  * This class handles the user inputs for making room reservations.
  */
-public class ReservationForm extends JFrame {
+public class ReservationForm extends JFrame implements RoomEventListener {
     private static final long serialVersionUID = 1L;
+    private static final Duration HOLD_TIME = Duration.ofMinutes(5); // How long the chosen room is kept while the form is filled in
     private JTextField nameField; // New  field for name
     private JTextField contactField; // New field for contact number
     private JComboBox<String> roomTypeComboBox;
+    private List<Room> roomOptions = new ArrayList<>(); // The room behind each combo box item after the first "Select" item
+    private boolean updatingItems; // The combo box items are changed by code, not a new choice of the desk
     private JTextField checkInField;
     private JTextField durationField; // Field for duration in days
     private JTextField guestsField;
@@ -27,6 +30,9 @@ public class ReservationForm extends JFrame {
     private JButton reserveButton;
     private JButton checkAvailabilityButton;
     private RoomManager roomManager;
+    private AvailabilityFrame availabilityFrame; // Reused on every "Check Availability" click while it is open
+    private ReservationService reservationService; // Does the validation and booking behind the form
+    private RoomHold hold; // Keeps the chosen room for these dates so another desk can't take it, null if none
 
     /**
      * Constructor to initialize the ReservationForm with a RoomManager instance.
@@ -34,6 +40,7 @@ public class ReservationForm extends JFrame {
      */
     public ReservationForm(RoomManager roomManager) {
         this.roomManager = roomManager;
+        this.reservationService = new ReservationService(roomManager);
 
         setTitle("Reservation Form");
         setSize(800, 450);
@@ -80,7 +87,11 @@ public class ReservationForm extends JFrame {
         roomTypeComboBox.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
+                if (updatingItems) {
+                    return; // Adding or removing items moves the selection by itself, that's not a new choice
+                }
                 updatePrice();
+                updateHold();
             }
         });
         fieldsPanel.add(customizeComboBox(roomTypeComboBox), gbc);
@@ -109,6 +120,16 @@ public class ReservationForm extends JFrame {
         durationField = new JTextField();
         fieldsPanel.add(customizeTextField(durationField), gbc);
 
+        // Hold the chosen room as soon as the dates are filled in
+        FocusAdapter holdOnLeave = new FocusAdapter() {
+            @Override
+            public void focusLost(FocusEvent e) {
+                updateHold();
+            }
+        };
+        checkInField.addFocusListener(holdOnLeave);
+        durationField.addFocusListener(holdOnLeave);
+
         // Add Number of Guests field
         gbc.gridx = 0;
         gbc.gridy = 6;
@@ -156,6 +177,7 @@ public class ReservationForm extends JFrame {
         getContentPane().add(panel);
         setVisible(true);
         refreshRoomTypes();
+        roomManager.getEventBus().subscribe(this); // From now on only the rooms that change are touched
     }
 
     /**
@@ -201,139 +223,188 @@ public class ReservationForm extends JFrame {
     /**
      * Refresh the list of room types in the combo box based on available rooms.
      * This code function is the responsible for automatically removing the unavailable room in the combo box
+     * The rooms are read from one RoomSnapshot so a booking going on at the same time can't show up half done.
      */
     private void refreshRoomTypes() {
-        roomTypeComboBox.removeAllItems();
-        roomTypeComboBox.addItem("Select a room type"); // Add an empty choice first
-        List<Room> availableRooms = roomManager.getAvailableRooms();
-        for (Room room : availableRooms) {
-            roomTypeComboBox.addItem(room.getType() + " - Room " + room.getNumber());
+        updatingItems = true;
+        try {
+            roomOptions = new ArrayList<>();
+            roomTypeComboBox.removeAllItems();
+            roomTypeComboBox.addItem("Select a room type"); // Add an empty choice first
+            List<RoomStatus> availableRooms = roomManager.snapshot().getAvailable(roomManager.getIndex().getTypes());
+            for (RoomStatus status : availableRooms) {
+                roomOptions.add(roomManager.getRoom(status.getNumber()));
+                roomTypeComboBox.addItem(status.getType() + " - Room " + status.getNumber());
+            }
+            roomTypeComboBox.setSelectedIndex(0);
+        } finally {
+            updatingItems = false;
         }
-        if (availableRooms.isEmpty()) {
+        updatePrice();
+        releaseHold();
+        if (roomOptions.isEmpty()) {
             priceLabel.setText("No rooms available"); // Will only appear if all the rooms are not available
         }
     }
 
     /**
-     * Update the price labels based on the room type that was selected.
+     * Keeps the combo box in step with the rooms that changed, delivered on the Swing event thread.
+     * A room that stopped being available is taken out and one that became available again is put back in its place,
+     * so the rest of the items and the selection stay as they are.
+     * If the selected room itself is taken, the form goes back to "Select a room type" and says so
+     * rather than moving the desk to the next room in the list.
+     * @param events The latest event of every room that changed.
      */
-    private void updatePrice() {
-        String roomInfo = (String) roomTypeComboBox.getSelectedItem();
-        if (roomInfo == null || roomInfo.equals("Select a room type")) {
-            priceLabel.setText("");
-            return;
-        }
-        String[] selectedRoomInfo = roomInfo.split(" - ");
-        String roomType = selectedRoomInfo[0];
-        int roomNumber = Integer.parseInt(selectedRoomInfo[1].substring(selectedRoomInfo[1].indexOf(" ") + 1));
-        List<Room> rooms = roomManager.getRooms();
-        for (Room room : rooms) {
-            if (room.getType().equals(roomType) && room.getNumber() == roomNumber) {
-                String priceInfo = String.format("Php %.2f per days", room.getPrice());
-                priceLabel.setText(priceInfo);
-                return;
+    @Override
+    public void roomsChanged(List<RoomEvent> events) {
+        Room selectedRoom = getSelectedRoom();
+        boolean priceChanged = false;
+        RoomSnapshot snapshot = roomManager.snapshot();
+        updatingItems = true;
+        try {
+            for (RoomEvent event : events) {
+                Room room = event.getRoom();
+                if (hold != null && hold.isActive() && hold.getRoom() == room) {
+                    continue; // Not available to the other desks because this one holds it
+                }
+                boolean available = snapshot.find(room.getNumber()).isAvailable();
+                int position = roomOptions.indexOf(room);
+                if (available && position < 0) {
+                    position = insertionPoint(room);
+                    roomOptions.add(position, room);
+                    roomTypeComboBox.insertItemAt(room.getType() + " - Room " + room.getNumber(), position + 1);
+                } else if (!available && position >= 0) {
+                    roomOptions.remove(position);
+                    roomTypeComboBox.removeItemAt(position + 1);
+                } else if (room == selectedRoom && event.getType() == RoomEvent.Type.PRICE_CHANGED) {
+                    priceChanged = true;
+                }
             }
+            // Put the selection back on the same room, or on nothing if that room is gone
+            roomTypeComboBox.setSelectedIndex(selectedRoom == null ? 0 : roomOptions.indexOf(selectedRoom) + 1);
+        } finally {
+            updatingItems = false;
+        }
+        if (selectedRoom != null && !roomOptions.contains(selectedRoom)) {
+            releaseHold();
+            priceLabel.setText("Room " + selectedRoom.getNumber() + " was just taken, please choose another room");
+        } else if (priceChanged) {
+            updatePrice();
+        }
+        if (roomOptions.isEmpty()) {
+            priceLabel.setText("No rooms available");
         }
-        priceLabel.setText("");
     }
 
     /**
-     * As you click the Check Availability button
-     *To Check the availability of rooms it will open the AvailabilityFrame to showcase the status of each room.
+     * Finds where a room goes in the combo box, grouped by type in inventory order and then by number,
+     * the same order refreshRoomTypes uses.
+     * @param room The room to put back.
+     * @return The position in roomOptions.
      */
-    private void checkAvailability() {
-        new AvailabilityFrame(roomManager);
+    private int insertionPoint(Room room) {
+        List<String> types = roomManager.getIndex().getTypes();
+        int typeOrder = types.indexOf(room.getType());
+        for (int i = 0; i < roomOptions.size(); i++) {
+            Room other = roomOptions.get(i);
+            int otherOrder = types.indexOf(other.getType());
+            if (otherOrder > typeOrder || (otherOrder == typeOrder && other.getNumber() > room.getNumber())) {
+                return i;
+            }
+        }
+        return roomOptions.size();
     }
 
     /**
-     * The codes that create make the reservation button
-     * Handle reservation creation when the reserve button is clicked.
-     * The makeReservation also ensure if the user input still doesnt choose a room a error message will occur
+     * Finds the room behind the selected combo box item.
+     * @return The selected Room or null if no room is selected.
      */
-    private void makeReservation() {
-        String name = nameField.getText();
-        String contactNumber = contactField.getText().trim();
-        String roomInfo = (String) roomTypeComboBox.getSelectedItem();
-        if (roomInfo == null || roomInfo.equals("Select a room type")) {
-            showMessage("Please select a room type.");
-            return;
+    private Room getSelectedRoom() {
+        int selectedIndex = roomTypeComboBox.getSelectedIndex();
+        if (selectedIndex <= 0 || selectedIndex > roomOptions.size()) {
+            return null; // Nothing or the "Select a room type" item is selected
         }
-        String[] selectedRoomInfo = roomInfo.split(" - ");
-        if (selectedRoomInfo.length < 2) {
-            showMessage("Invalid room selection.");
+        return roomOptions.get(selectedIndex - 1);
+    }
+
+    /**
+     * Update the price labels based on the room type that was selected.
+     */
+    private void updatePrice() {
+        Room room = getSelectedRoom();
+        if (room == null) {
+            priceLabel.setText("");
             return;
         }
+        String priceInfo = String.format("Php %.2f per days", roomManager.snapshot().find(room.getNumber()).getPrice());
+        priceLabel.setText(priceInfo);
+    }
 
-        String roomType = selectedRoomInfo[0];
-        int roomNumber;
+    /**
+     * Holds the selected room for the check-in date and duration in the form, once all of them are filled in.
+     * A hold for another room or other dates is released first. Tells the desk if someone else got the room.
+     */
+    private void updateHold() {
+        Room room = getSelectedRoom();
+        int checkInDay = Dates.parseEpochDay(checkInField.getText());
+        int nights;
         try {
-            roomNumber = Integer.parseInt(selectedRoomInfo[1].substring(selectedRoomInfo[1].indexOf(" ") + 1));
+            nights = Integer.parseInt(durationField.getText().trim());
         } catch (NumberFormatException e) {
-            showMessage("Invalid room number.");
-            return;
+            nights = 0;
         }
-
-        String checkInDateStr = checkInField.getText();
-        String durationStr = durationField.getText();
-        String guestsStr = guestsField.getText();
-        
-        if (name.isEmpty() || contactNumber.isEmpty() || checkInDateStr.isEmpty() || durationStr.isEmpty() || guestsStr.isEmpty()) {
-            showMessage("Please fill in all fields."); // Message noticed when the user didnt put any inputs in the form
+        if (room == null || checkInDay == Dates.NO_DAY || nights <= 0) {
+            releaseHold();
             return;
         }
-        if (!contactNumber.matches("\\d{11}")) {
-            showMessage("Contact number must be exactly 11 digits."); // Warning the user if the input on the contact # is either lesser or exceded the given number of digit
-            return;
+        if (hold != null && hold.isActive() && hold.getRoom() == room
+                && hold.getCheckInDay() == checkInDay && hold.getCheckOutDay() == checkInDay + nights) {
+            return; // Already holding exactly this
         }
-        int guests, duration;
-        try {
-            guests = Integer.parseInt(guestsStr);
-            if (guests <= 0) {
-                throw new NumberFormatException();
-            }
-            duration = Integer.parseInt(durationStr);
-            if (duration <= 0) {
-                throw new NumberFormatException();
-            }
-        } catch (NumberFormatException e) {
-            showMessage("Invalid number of guests or duration."); //THe noticed only appeared when the user put string variable on the said panels
-            return;
+        releaseHold();
+        hold = roomManager.hold(room, checkInDay, checkInDay + nights, HOLD_TIME);
+        if (hold == null) {
+            priceLabel.setText("Room " + room.getNumber() + " is taken for those dates");
         }
+    }
 
-        // Parse check-in date
-        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
-        dateFormat.setLenient(false);  // Enforce strict parsing to avoid any errors like exceding numbers like 13 months or so
-        Date checkInDate;
-        try {
-            checkInDate = dateFormat.parse(checkInDateStr);       
-        } catch (ParseException e) {
-            showMessage("Invalid date format. Please use yyyy-MM-dd."); //Message noticed when the user failed to follow the given format of date
-            return;
+    private void releaseHold() {
+        if (hold != null) {
+            roomManager.release(hold);
+            hold = null;
         }
+    }
 
-        // Calculate the check-out date based on the Check-in date and duration of stay input
-        Date checkOutDate = new Date(checkInDate.getTime() + TimeUnit.DAYS.toMillis(duration));
-        java.util.Date CheckInDate = new java.util.Date(checkInDate.getTime());
-        java.util.Date CheckOutDate = new java.util.Date(checkOutDate.getTime());
-
-        // Check room availability and make reservation if possible
-        List<Room> rooms = roomManager.getRooms();
-        boolean isAvailable = false;
-        for (Room room : rooms) {
-            if (room.getType().equals(roomType) && room.getNumber() == roomNumber && room.isAvailable()) {
-                isAvailable = true;
-                double totalPrice = room.calculateTotalPrice(duration, guests);
-                roomManager.reserveRoom(room, name, contactNumber, CheckInDate, CheckOutDate, guests); // Pass every variable here
-                //Confirmation notice if the submittion of reservations are done succesfully
-                showMessage(String.format("Reservation made successfully for %s.\nRoom: %s - %d\nCheck-in: %s\nCheck-out: %s\nDuration of Stay: %d day(s)\nNumber of Guests: %d \nTotal Price: Php %.2f",
-                        name, room.getType(), room.getNumber(), dateFormat.format(checkInDate), dateFormat.format(checkOutDate), duration, guests, totalPrice));
-                clearFields();
-                refreshRoomTypes();
-                break;
-            }
+    /**
+     * As you click the Check Availability button
+     *To Check the availability of rooms it will open the AvailabilityFrame to showcase the status of each room.
+     */
+    private void checkAvailability() {
+        if (availabilityFrame == null || !availabilityFrame.isDisplayable()) {
+            availabilityFrame = new AvailabilityFrame(roomManager);
+        } else {
+            availabilityFrame.toFront(); // Already open and kept up to date, just bring it forward
         }
-        if (!isAvailable) {
-            showMessage("Sorry, no rooms available for the selected date range or type.");
+    }
+
+    /**
+     * The codes that create make the reservation button
+     * Handle reservation creation when the reserve button is clicked.
+     * The makeReservation also ensure if the user input still doesnt choose a room a error message will occur
+     */
+    private void makeReservation() {
+        updateHold(); // In case the dates were typed without leaving the field
+        Room selectedRoom = getSelectedRoom();
+        ReservationRequest request = new ReservationRequest(nameField.getText(), contactField.getText(),
+                selectedRoom == null ? null : selectedRoom.getNumber(),
+                checkInField.getText(), durationField.getText(), guestsField.getText());
+
+        // The service does every check and shows why a reservation didn't go through
+        ReservationResponse response = reservationService.reserve(request, hold);
+        showMessage(response.getMessage());
+        if (response.isReserved()) {
+            hold = null; // Turned into the booking
+            clearFields(); // The booked room leaves the combo box through roomsChanged
         }
     }
 
@@ -349,6 +420,7 @@ public class ReservationForm extends JFrame {
      * Clear all input fields.
      */
     private void clearFields() {
+        releaseHold();
         nameField.setText("");
         contactField.setText("");
         checkInField.setText("");
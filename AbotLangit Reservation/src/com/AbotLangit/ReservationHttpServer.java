@@ -0,0 +1,428 @@
+package com.AbotLangit;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This is the ReservationHttpServer class
+ * Takes bookings over HTTP/JSON against the same RoomManager the Swing forms use,
+ * so the front desk terminals and the web site can book at the same time.
+ * Built on the JDK's own com.sun.net.httpserver with one virtual thread per request,
+ * so thousands of open connections don't need thousands of platform threads.
+ *
+ * Endpoints:
+ * GET  /rooms                                               the room status listing of the availability table
+ * GET  /availability?type=Single&checkIn=yyyy-MM-dd&nights=3&guests=2 rooms free for the whole stay with the total price (type is optional, guests defaults to 1)
+ * POST /reservations {"name", "contactNumber", "roomNumber", "checkInDate", "duration", "guests"}
+ * POST /cancellations {"roomNumber", "checkInDate"}         cancels the booking of a room that checks in that day
+ * POST /checkouts {"roomNumber", "checkInDate", "checkOutDate"} ends that booking early, freeing the nights from checkOutDate on
+ * GET  /customers?contact=09171234567 or ?name=dela+cruz&limit=50 the bookings of a guest by contact number or name (limit defaults to 50)
+ * GET  /metrics                                             request, reservation and search counters with latency percentiles as plain text
+ */
+public class ReservationHttpServer {
+    private static final int DEFAULT_PORT = 8080;
+    private static final int BACKLOG = 4096; // Pending connections the socket queues before refusing
+    private static final int DEFAULT_CUSTOMER_LIMIT = 50; // Bookings returned by a name lookup unless asked for more
+    private static final int QUOTE_CACHE_SIZE = 10_000;
+    private static final long QUOTE_CACHE_SECONDS = 60;
+
+    static {
+        // Small JSON answers are written in two pieces, without this Nagle holds the second one back for ~40 ms.
+        // Has to be set before the JDK server reads its configuration
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final ReservationService reservationService;
+    private final QuoteCache quoteCache; // Answers the same availability searches without searching again
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * Constructor to bind the server to a port, call start to begin taking requests.
+     * @param reservationService The service to book through.
+     * @param port The TCP port, 0 for any free port.
+     * @throws IOException if the port can't be bound.
+     */
+    public ReservationHttpServer(ReservationService reservationService, int port) throws IOException {
+        this.reservationService = reservationService;
+        this.server = HttpServer.create(new InetSocketAddress(port), BACKLOG);
+        this.quoteCache = QuoteCache.create(reservationService.getRoomManager(), QUOTE_CACHE_SIZE, QUOTE_CACHE_SECONDS, TimeUnit.SECONDS);
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext("/rooms", this::handleRooms);
+        server.createContext("/availability", this::handleAvailability);
+        server.createContext("/reservations", this::handleReservations);
+        server.createContext("/cancellations", this::handleCancellations);
+        server.createContext("/checkouts", this::handleCheckouts);
+        server.createContext("/customers", this::handleCustomers);
+        server.createContext("/metrics", this::handleMetrics);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stops taking requests, waiting up to a second for the ones in progress, and drops the QuoteCache.
+     */
+    public void stop() {
+        server.stop(1);
+        executor.shutdown();
+        quoteCache.close();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * GET /rooms, the status of every room.
+     */
+    private void handleRooms(HttpExchange exchange) throws IOException {
+        if (!"GET".equals(exchange.getRequestMethod())) {
+            send(exchange, 405, error("Use GET"));
+            return;
+        }
+        List<RoomStatus> statuses = reservationService.getRoomStatuses();
+        StringBuilder json = new StringBuilder(statuses.size() * 160).append('[');
+        for (int i = 0; i < statuses.size(); i++) {
+            RoomStatus status = statuses.get(i);
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"type\":").append(Json.quote(status.getType()))
+                    .append(",\"number\":").append(status.getNumber())
+                    .append(",\"available\":").append(status.isAvailable())
+                    .append(",\"price\":").append(status.getPrice());
+            if (!status.isAvailable()) {
+                json.append(",\"customerName\":").append(Json.quote(status.getCustomerName()))
+                        .append(",\"contactNumber\":").append(Json.quote(status.getContactNumber()))
+                        .append(",\"checkInDate\":").append(Json.quote(Dates.format(Dates.ISO, status.getCheckInDay())))
+                        .append(",\"checkOutDate\":").append(Json.quote(Dates.format(Dates.ISO, status.getCheckOutDay())))
+                        .append(",\"duration\":").append(status.getDuration())
+                        .append(",\"guestCount\":").append(status.getGuestCount())
+                        .append(",\"totalPrice\":").append(status.getTotalPrice());
+            }
+            json.append('}');
+        }
+        send(exchange, 200, json.append(']').toString());
+    }
+
+    /**
+     * GET /availability, the rooms free for a stay and what it costs in each, answered from the quote cache when possible.
+     */
+    private void handleAvailability(HttpExchange exchange) throws IOException {
+        if (!"GET".equals(exchange.getRequestMethod())) {
+            send(exchange, 405, error("Use GET"));
+            return;
+        }
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        LocalDate checkInDate;
+        int nights;
+        int guests;
+        try {
+            checkInDate = Dates.parse(query.getOrDefault("checkIn", ""));
+            nights = Integer.parseInt(query.getOrDefault("nights", "1"));
+            guests = Integer.parseInt(query.getOrDefault("guests", "1"));
+            if (nights <= 0 || guests <= 0) {
+                throw new NumberFormatException();
+            }
+        } catch (DateTimeParseException | NumberFormatException e) {
+            send(exchange, 400, error("checkIn must be yyyy-MM-dd and nights and guests positive numbers"));
+            return;
+        }
+        List<RoomQuote> quotes = quoteCache.search(query.get("type"), Dates.toEpochDay(checkInDate), nights, guests);
+        StringBuilder json = new StringBuilder(quotes.size() * 64).append('[');
+        for (int i = 0; i < quotes.size(); i++) {
+            Room room = quotes.get(i).getRoom();
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"type\":").append(Json.quote(room.getType()))
+                    .append(",\"number\":").append(room.getNumber())
+                    .append(",\"price\":").append(room.getPrice())
+                    .append(",\"total\":").append(quotes.get(i).getTotalPrice())
+                    .append('}');
+        }
+        send(exchange, 200, json.append(']').toString());
+    }
+
+    /**
+     * POST /reservations, books a room with the same checks as the reservation form.
+     */
+    private void handleReservations(HttpExchange exchange) throws IOException {
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            send(exchange, 405, error("Use POST"));
+            return;
+        }
+        Map<String, String> fields;
+        Integer roomNumber;
+        try (InputStream body = exchange.getRequestBody()) {
+            fields = Json.parseObject(new String(body.readAllBytes(), StandardCharsets.UTF_8));
+            String room = fields.get("roomNumber");
+            roomNumber = room == null ? null : Integer.valueOf(room);
+        } catch (IllegalArgumentException e) {
+            send(exchange, 400, error("Body must be a JSON object: " + e.getMessage()));
+            return;
+        }
+        ReservationRequest request = new ReservationRequest(fields.get("name"), fields.get("contactNumber"), roomNumber,
+                fields.get("checkInDate"), fields.get("duration"), fields.get("guests"));
+        ReservationResponse response;
+        try {
+            response = reservationService.reserve(request);
+        } catch (UncheckedIOException e) {
+            send(exchange, 503, error("The reservation could not be saved, try again later"));
+            return;
+        }
+        StringBuilder json = new StringBuilder(256)
+                .append("{\"status\":").append(Json.quote(response.getStatus().name()))
+                .append(",\"message\":").append(Json.quote(response.getMessage()));
+        if (response.isReserved()) {
+            Booking booking = response.getBooking();
+            json.append(",\"roomNumber\":").append(booking.getRoomNumber())
+                    .append(",\"nights\":").append(booking.getNights())
+                    .append(",\"totalPrice\":").append(booking.getTotalPrice());
+        }
+        json.append('}');
+        int code;
+        switch (response.getStatus()) {
+            case RESERVED: code = 201; break;
+            case UNAVAILABLE: code = 409; break;
+            default: code = 400;
+        }
+        send(exchange, code, json.toString());
+    }
+
+    /**
+     * POST /cancellations, cancels a booking and frees all of its nights.
+     */
+    private void handleCancellations(HttpExchange exchange) throws IOException {
+        Map<String, String> fields = readRelease(exchange);
+        if (fields == null) {
+            return;
+        }
+        RoomManager roomManager = reservationService.getRoomManager();
+        Booking booking = findBooking(exchange, fields);
+        if (booking == null) {
+            return;
+        }
+        boolean cancelled;
+        try {
+            cancelled = roomManager.cancel(booking);
+        } catch (UncheckedIOException e) {
+            send(exchange, 503, error("The cancellation could not be saved, try again later"));
+            return;
+        }
+        if (!cancelled) {
+            send(exchange, 409, error("The booking changed while cancelling it, try again"));
+            return;
+        }
+        send(exchange, 200, "{\"status\":\"CANCELLED\",\"roomNumber\":" + booking.getRoomNumber() + "}");
+    }
+
+    /**
+     * POST /checkouts, ends a booking early and frees the nights from the new check-out day on.
+     */
+    private void handleCheckouts(HttpExchange exchange) throws IOException {
+        Map<String, String> fields = readRelease(exchange);
+        if (fields == null) {
+            return;
+        }
+        int checkOutDay = Dates.parseEpochDay(fields.getOrDefault("checkOutDate", ""));
+        if (checkOutDay == Dates.NO_DAY) {
+            send(exchange, 400, error("checkOutDate must be yyyy-MM-dd"));
+            return;
+        }
+        Booking booking = findBooking(exchange, fields);
+        if (booking == null) {
+            return;
+        }
+        Booking shortened;
+        try {
+            shortened = reservationService.getRoomManager().checkOutEarly(booking, checkOutDay);
+        } catch (IllegalArgumentException e) {
+            send(exchange, 400, error(e.getMessage()));
+            return;
+        } catch (UncheckedIOException e) {
+            send(exchange, 503, error("The check-out could not be saved, try again later"));
+            return;
+        }
+        if (shortened == null) {
+            send(exchange, 409, error("The booking changed while checking out, try again"));
+            return;
+        }
+        send(exchange, 200, "{\"status\":\"CHECKED_OUT\",\"roomNumber\":" + shortened.getRoomNumber()
+                + ",\"nights\":" + shortened.getNights() + ",\"totalPrice\":" + shortened.getTotalPrice() + "}");
+    }
+
+    /**
+     * Reads the JSON body of a cancellation or early check-out, answering 405 or 400 itself when it can't.
+     * @return The fields, or null if an error was sent.
+     */
+    private static Map<String, String> readRelease(HttpExchange exchange) throws IOException {
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            send(exchange, 405, error("Use POST"));
+            return null;
+        }
+        try (InputStream body = exchange.getRequestBody()) {
+            return Json.parseObject(new String(body.readAllBytes(), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            send(exchange, 400, error("Body must be a JSON object: " + e.getMessage()));
+            return null;
+        }
+    }
+
+    /**
+     * Finds the booking a cancellation or early check-out is about, answering 400 or 404 itself when there is none.
+     * @return The booking, or null if an error was sent.
+     */
+    private Booking findBooking(HttpExchange exchange, Map<String, String> fields) throws IOException {
+        RoomManager roomManager = reservationService.getRoomManager();
+        Room room;
+        try {
+            room = roomManager.getRoom(Integer.parseInt(fields.getOrDefault("roomNumber", "")));
+        } catch (NumberFormatException e) {
+            send(exchange, 400, error("roomNumber must be a number"));
+            return null;
+        }
+        int checkInDay = Dates.parseEpochDay(fields.getOrDefault("checkInDate", ""));
+        if (checkInDay == Dates.NO_DAY) {
+            send(exchange, 400, error("checkInDate must be yyyy-MM-dd"));
+            return null;
+        }
+        Booking booking = room == null ? null : roomManager.findBooking(room, checkInDay);
+        if (booking == null) {
+            send(exchange, 404, error("No booking of that room checks in that day"));
+        }
+        return booking;
+    }
+
+    /**
+     * GET /customers, the bookings made with a contact number or by a customer whose name starts with the given words.
+     */
+    private void handleCustomers(HttpExchange exchange) throws IOException {
+        if (!"GET".equals(exchange.getRequestMethod())) {
+            send(exchange, 405, error("Use GET"));
+            return;
+        }
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        RoomManager roomManager = reservationService.getRoomManager();
+        List<Booking> bookings;
+        if (query.containsKey("contact")) {
+            bookings = roomManager.findBookingsByContact(query.get("contact"));
+        } else if (query.containsKey("name")) {
+            int limit;
+            try {
+                limit = Integer.parseInt(query.getOrDefault("limit", String.valueOf(DEFAULT_CUSTOMER_LIMIT)));
+            } catch (NumberFormatException e) {
+                send(exchange, 400, error("limit must be a number"));
+                return;
+            }
+            bookings = roomManager.findBookingsByName(query.get("name"), limit);
+        } else {
+            send(exchange, 400, error("Give a contact or a name"));
+            return;
+        }
+        StringBuilder json = new StringBuilder(bookings.size() * 192).append('[');
+        for (int i = 0; i < bookings.size(); i++) {
+            Booking booking = bookings.get(i);
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"roomNumber\":").append(booking.getRoomNumber())
+                    .append(",\"customerName\":").append(Json.quote(booking.getCustomerName()))
+                    .append(",\"contactNumber\":").append(Json.quote(booking.getContactNumber()))
+                    .append(",\"checkInDate\":").append(Json.quote(Dates.format(Dates.ISO, booking.getCheckInDay())))
+                    .append(",\"checkOutDate\":").append(Json.quote(Dates.format(Dates.ISO, booking.getCheckOutDay())))
+                    .append(",\"guestCount\":").append(booking.getGuestCount())
+                    .append(",\"totalPrice\":").append(booking.getTotalPrice())
+                    .append('}');
+        }
+        send(exchange, 200, json.append(']').toString());
+    }
+
+    /**
+     * GET /metrics, the ReservationMetrics of the rooms and the QuoteCache counters in the plain text scrape format.
+     */
+    private void handleMetrics(HttpExchange exchange) throws IOException {
+        if (!"GET".equals(exchange.getRequestMethod())) {
+            send(exchange, 405, error("Use GET"));
+            return;
+        }
+        String text = reservationService.getRoomManager().getMetrics().dump()
+                + "# TYPE quote_cache_total counter\n"
+                + "quote_cache_total{event=\"hit\"} " + quoteCache.getHits() + "\n"
+                + "quote_cache_total{event=\"miss\"} " + quoteCache.getMisses() + "\n"
+                + "quote_cache_total{event=\"eviction\"} " + quoteCache.getEvictions() + "\n"
+                + "quote_cache_total{event=\"invalidation\"} " + quoteCache.getInvalidations() + "\n";
+        send(exchange, 200, "text/plain; version=0.0.4; charset=utf-8", text);
+    }
+
+    private static String error(String message) {
+        return "{\"error\":" + Json.quote(message) + "}";
+    }
+
+    private static void send(HttpExchange exchange, int code, String json) throws IOException {
+        send(exchange, code, "application/json; charset=utf-8", json);
+    }
+
+    private static void send(HttpExchange exchange, int code, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(code, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int equals = pair.indexOf('=');
+            String key = URLDecoder.decode(equals < 0 ? pair : pair.substring(0, equals), StandardCharsets.UTF_8);
+            String value = equals < 0 ? "" : URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8);
+            query.put(key, value);
+        }
+        return query;
+    }
+
+    /**
+     * Runs the booking server on the reservations in the data folder.
+     * @param args Optional port number, 8080 by default.
+     * @throws IOException if the data folder or the port can't be used.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        RoomManager roomManager = RoomManager.open(Paths.get("data"), RoomManager.defaultRooms());
+        ReservationHttpServer server = new ReservationHttpServer(new ReservationService(roomManager), port);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop();
+            roomManager.close();
+        }));
+        server.start();
+        System.out.println("Opened data: " + roomManager.getRecoveryReport());
+        System.out.println("Booking server listening on port " + server.getPort());
+    }
+}
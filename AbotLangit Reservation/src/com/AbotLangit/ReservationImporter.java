@@ -0,0 +1,284 @@
+package com.AbotLangit;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * This is the ReservationImporter class
+ * Loads group bookings and channel manager dumps from a CSV file instead of typing every line into the form.
+ * The columns are: name, contact number, room type, check-in date (yyyy-MM-dd), duration, guests.
+ * A first line with exactly these column names (any case) is a header and skipped, fields may be quoted to hold commas.
+ *
+ * The file is streamed in chunks: a pool validates chunks in parallel with the same rules as the reservation form,
+ * while this thread commits the validated chunks in file order against the RoomManager, one RoomManager.tryReserveBatch
+ * per chunk, booking any free room of the type.
+ * Only a few chunks are in flight at a time so memory stays bounded however large the file is.
+ * Every rejected row is written to the error report with its line number and the reason.
+ */
+public class ReservationImporter {
+    static final int CHUNK_SIZE = 4096; // Lines validated together by one pool thread and committed as one batch
+    private static final int COLUMNS = 6;
+    private static final String[] HEADER = {"name", "contact number", "room type", "check-in date", "duration", "guests"};
+
+    private final RoomManager roomManager;
+    private final int threads;
+    private final Set<String> roomTypes;
+
+    /**
+     * One CSV line after validation.
+     */
+    private static class Row {
+        final long lineNumber;
+        final String roomType;
+        final Stay stay; // Parsed stay, null if the row is invalid
+        final String error; // Why the row is invalid, null for a valid row
+
+        Row(long lineNumber, String roomType, Stay stay, String error) {
+            this.lineNumber = lineNumber;
+            this.roomType = roomType;
+            this.stay = stay;
+            this.error = error;
+        }
+    }
+
+    /**
+     * Constructor to import into a RoomManager with one validation thread per core.
+     * @param roomManager The RoomManager to reserve in.
+     */
+    public ReservationImporter(RoomManager roomManager) {
+        this(roomManager, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor with a custom number of validation threads.
+     * @param roomManager The RoomManager to reserve in.
+     * @param threads The number of validation threads.
+     */
+    public ReservationImporter(RoomManager roomManager, int threads) {
+        this.roomManager = roomManager;
+        this.threads = Math.max(1, threads);
+        this.roomTypes = new HashSet<>(roomManager.getIndex().getTypes());
+    }
+
+    /**
+     * Imports every row of a CSV file.
+     * @param input The CSV text.
+     * @param errorReport Receives one line per rejected row: line number and reason.
+     * @return The counts of the import.
+     * @throws IOException if reading the input or writing the report fails.
+     */
+    public ImportSummary importCsv(Reader input, Writer errorReport) throws IOException {
+        long startTime = System.currentTimeMillis();
+        BufferedReader reader = input instanceof BufferedReader ? (BufferedReader) input : new BufferedReader(input, 1 << 16);
+        Writer report = errorReport instanceof BufferedWriter ? errorReport : new BufferedWriter(errorReport, 1 << 16);
+        report.write("line,error\n");
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        ArrayDeque<Future<List<Row>>> inFlight = new ArrayDeque<>();
+        long[] counts = new long[3]; // rows, imported, rejected
+        try {
+            long lineNumber = 0;
+            long chunkStart = 1;
+            List<String> chunk = new ArrayList<>(CHUNK_SIZE);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (lineNumber == 1 && isHeader(line)) {
+                    chunkStart = 2; // Header line
+                    continue;
+                }
+                chunk.add(line);
+                if (chunk.size() == CHUNK_SIZE) {
+                    submit(pool, inFlight, chunk, chunkStart);
+                    chunk = new ArrayList<>(CHUNK_SIZE);
+                    chunkStart = lineNumber + 1;
+                    if (inFlight.size() >= threads * 2) {
+                        commit(await(inFlight.poll()), report, counts);
+                    }
+                }
+            }
+            if (!chunk.isEmpty()) {
+                submit(pool, inFlight, chunk, chunkStart);
+            }
+            while (!inFlight.isEmpty()) {
+                commit(await(inFlight.poll()), report, counts);
+            }
+        } finally {
+            pool.shutdownNow();
+            report.flush();
+        }
+        return new ImportSummary(counts[0], counts[1], counts[2], System.currentTimeMillis() - startTime);
+    }
+
+    private void submit(ExecutorService pool, ArrayDeque<Future<List<Row>>> inFlight, List<String> lines, long firstLineNumber) {
+        inFlight.add(pool.submit(() -> {
+            List<Row> rows = new ArrayList<>(lines.size());
+            for (int i = 0; i < lines.size(); i++) {
+                rows.add(validate(lines.get(i), firstLineNumber + i));
+            }
+            return rows;
+        }));
+    }
+
+    private static List<Row> await(Future<List<Row>> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Import interrupted");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Validation failed", e.getCause());
+        }
+    }
+
+    /**
+     * Validates one CSV line, runs on a pool thread.
+     */
+    private Row validate(String line, long lineNumber) {
+        List<String> fields = parseLine(line);
+        if (fields.size() != COLUMNS) {
+            return new Row(lineNumber, null, null, "Expected " + COLUMNS + " columns but found " + fields.size() + ".");
+        }
+        String roomType = fields.get(2).trim();
+        if (!roomTypes.contains(roomType)) {
+            return new Row(lineNumber, roomType, null, "Unknown room type " + roomType + ".");
+        }
+        Stay stay = ReservationService.validate(fields.get(0), fields.get(1), fields.get(3).trim(), fields.get(4).trim(), fields.get(5).trim());
+        if (!stay.isValid()) {
+            return new Row(lineNumber, roomType, null, stay.getRejection().getMessage());
+        }
+        return new Row(lineNumber, roomType, stay, null);
+    }
+
+    /**
+     * Tells whether a line holds the column names.
+     * @param line The first line of the file.
+     * @return True for a header line.
+     */
+    static boolean isHeader(String line) {
+        List<String> fields = parseLine(line);
+        if (fields.size() != COLUMNS) {
+            return false;
+        }
+        for (int i = 0; i < COLUMNS; i++) {
+            if (!fields.get(i).trim().equalsIgnoreCase(HEADER[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reserves the valid rows of a chunk as one batch and reports the others, in file order.
+     * If the journal can't save the batch, its UncheckedIOException stops the import there.
+     */
+    private void commit(List<Row> rows, Writer report, long[] counts) throws IOException {
+        List<String> types = new ArrayList<>(rows.size());
+        List<Stay> stays = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            if (row.error == null) {
+                types.add(row.roomType);
+                stays.add(row.stay);
+            }
+        }
+        List<ReservationResult> results = stays.isEmpty() ? List.of() : roomManager.tryReserveBatch(types, stays);
+        int next = 0;
+        for (Row row : rows) {
+            counts[0]++;
+            String error = row.error;
+            if (error == null) {
+                if (results.get(next++).isReserved()) {
+                    counts[1]++;
+                    continue;
+                }
+                error = "Sorry, no " + row.roomType + " rooms available for the selected date range.";
+            }
+            counts[2]++;
+            report.write(Long.toString(row.lineNumber));
+            report.write(',');
+            report.write(quote(error));
+            report.write('\n');
+        }
+    }
+
+    /**
+     * Splits one CSV line into its fields. Quoted fields may contain commas and doubled quotes.
+     * @param line The line.
+     * @return List of fields.
+     */
+    static List<String> parseLine(String line) {
+        List<String> fields = new ArrayList<>(COLUMNS);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static String quote(String value) {
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    /**
+     * Imports a CSV file into the reservations of the data folder.
+     * @param args The CSV file and optionally the error report file (default: next to the CSV file).
+     * @throws IOException if a file can't be read or written.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: ReservationImporter reservations.csv [errors.csv]");
+            return;
+        }
+        Path csv = Paths.get(args[0]);
+        Path errors = args.length > 1 ? Paths.get(args[1]) : Paths.get(args[0] + ".errors.csv");
+        RoomManager roomManager = RoomManager.open(Paths.get("data"), RoomManager.defaultRooms());
+        try (Reader input = Files.newBufferedReader(csv, StandardCharsets.UTF_8);
+             Writer report = Files.newBufferedWriter(errors, StandardCharsets.UTF_8)) {
+            ImportSummary summary = new ReservationImporter(roomManager).importCsv(input, report);
+            System.out.println(summary);
+            if (summary.getRejected() > 0) {
+                System.out.println("Rejected rows are listed in " + errors);
+            }
+        } finally {
+            roomManager.close();
+        }
+    }
+}
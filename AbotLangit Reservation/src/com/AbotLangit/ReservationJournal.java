@@ -0,0 +1,470 @@
+package com.AbotLangit;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * This is the ReservationJournal class
+ * An append-only file of every reservation, cancellation and early check-out so the RoomManager can be rebuilt after a restart.
+ * Callers only encode the record and put it in a queue, one writer thread writes everything that is queued
+ * in a single write followed by a single fsync (group commit), so no room lock is held while the disk works
+ * and every booking waiting at the same moment shares one fsync. The returned future tells when a record is on disk.
+ * Every hundred thousand records the writer saves a memory-mappable ReservationSnapshot and starts the journal over.
+ * If a write or fsync fails the file is cut back to the end of the last record on disk and the journal stops:
+ * the records of the failed batch and every later one are refused, so nothing is ever appended after a torn record.
+ *
+ * Each record is framed as: int length, int CRC32 of the payload, payload.
+ * A torn record at the end of the file (crash in the middle of a write) is cut off on recovery.
+ */
+public class ReservationJournal implements AutoCloseable {
+    static final String JOURNAL_FILE = "reservations.journal";
+    static final byte RESERVE = 1; // Record type of a new booking
+    static final byte GROUP = 2; // Record type of the bookings of a group reservation or an import batch, replayed all together
+    static final byte RELEASE = 3; // Record type of a booking cancelled or cut short by an early check-out
+    private static final int DEFAULT_SNAPSHOT_EVERY = 100_000; // Records written between two snapshots
+
+    private final Path journalPath;
+    private final FileChannel channel;
+    private final BlockingQueue<Entry> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private final ReservationSnapshot snapshot;
+    private final SnapshotWriter snapshotWriter; // Saves the current state of every room
+    private final int snapshotEvery;
+    private volatile boolean closed;
+    private volatile IOException failure; // The error that stopped the journal, null while it works
+    private long goodPosition; // End of the last record that is on disk, only touched by the writer thread
+    private long writtenSinceSnapshot;
+
+    /**
+     * Writes the current state into a snapshot, called from the journal thread.
+     */
+    public interface SnapshotWriter {
+        void write(ReservationSnapshot snapshot) throws IOException;
+    }
+
+    /**
+     * Receives the bookings released while replaying the journal.
+     */
+    public interface ReleaseConsumer {
+        /**
+         * A booking was cancelled or its guest checked out early.
+         * @param roomNumber The number of the room.
+         * @param checkInDay The check-in day of the booking as epoch day.
+         * @param bookedCheckOutDay The check-out day the booking had before, to tell it apart from a later booking of the same night.
+         * @param checkOutDay The new check-out day, the check-in day itself if the booking was cancelled.
+         */
+        void released(int roomNumber, int checkInDay, int bookedCheckOutDay, int checkOutDay);
+    }
+
+    /**
+     * A record waiting for the writer thread.
+     */
+    private static class Entry {
+        final byte[] record; // Framed record, or null to ask the writer to stop
+        final CompletableFuture<Void> durable = new CompletableFuture<>();
+
+        Entry(byte[] record) {
+            this.record = record;
+        }
+    }
+
+    /**
+     * Constructor to open (or create) the journal in a directory and start the writer thread.
+     * Call recover first if the existing content should be loaded.
+     * @param directory The data directory.
+     * @param snapshotWriter Writes the current state when a snapshot is due.
+     * @throws IOException if the journal file can't be opened.
+     */
+    public ReservationJournal(Path directory, SnapshotWriter snapshotWriter) throws IOException {
+        this(directory, snapshotWriter, DEFAULT_SNAPSHOT_EVERY);
+    }
+
+    /**
+     * Constructor with a custom snapshot interval.
+     * @param directory The data directory.
+     * @param snapshotWriter Writes the current state when a snapshot is due.
+     * @param snapshotEvery The number of journal records between two snapshots.
+     * @throws IOException if the journal file can't be opened.
+     */
+    public ReservationJournal(Path directory, SnapshotWriter snapshotWriter, int snapshotEvery) throws IOException {
+        this(directory, snapshotWriter, snapshotEvery,
+                FileChannel.open(directory.resolve(JOURNAL_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE));
+    }
+
+    /**
+     * Constructor writing through a channel opened by the caller, for tests that make the disk fail.
+     * @param directory The data directory.
+     * @param snapshotWriter Writes the current state when a snapshot is due.
+     * @param snapshotEvery The number of journal records between two snapshots.
+     * @param channel The journal file of the directory, opened for writing.
+     * @throws IOException if the end of the file can't be found.
+     */
+    ReservationJournal(Path directory, SnapshotWriter snapshotWriter, int snapshotEvery, FileChannel channel) throws IOException {
+        this.journalPath = directory.resolve(JOURNAL_FILE);
+        this.snapshot = new ReservationSnapshot(directory);
+        this.snapshotWriter = snapshotWriter;
+        this.snapshotEvery = snapshotEvery;
+        this.channel = channel;
+        goodPosition = channel.size();
+        channel.position(goodPosition);
+        writer = new Thread(this::writeLoop, "reservation-journal");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Replays the journal of a data directory, the records written since the latest snapshot.
+     * A torn record at the end of the journal is cut off so new records are appended after the last good one.
+     * @param directory The data directory.
+     * @param consumer Receives every booking in the order it was made.
+     * @param releases Receives every cancellation and early check-out, in order with the bookings.
+     * @return The number of bookings read and of torn bytes cut off.
+     * @throws IOException if the file can't be read.
+     */
+    public static RecoveryReport recover(Path directory, Consumer<Booking> consumer, ReleaseConsumer releases) throws IOException {
+        long count = 0;
+        long cutOffBytes = 0;
+        Path journalPath = directory.resolve(JOURNAL_FILE);
+        if (!journalPath.toFile().exists()) {
+            return RecoveryReport.EMPTY;
+        }
+        try (FileChannel channel = FileChannel.open(journalPath, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long goodLength = 0;
+            DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel), 1 << 16));
+            byte[] payload;
+            while ((payload = readFrame(in)) != null) {
+                count += decode(payload, consumer, releases);
+                goodLength += 8 + payload.length;
+            }
+            if (goodLength < channel.size()) {
+                cutOffBytes = channel.size() - goodLength;
+                channel.truncate(goodLength);
+            }
+        }
+        return new RecoveryReport(count, 0, cutOffBytes);
+    }
+
+    /**
+     * Queues a booking for the journal. Returns right away, the future completes once the record is on disk.
+     * @param booking The committed booking.
+     * @return A future that completes when the record has been fsynced.
+     */
+    public CompletableFuture<Void> append(Booking booking) {
+        return enqueue(encode(booking));
+    }
+
+    /**
+     * Queues the bookings of a group reservation, or of one lock stripe of an import batch, as one record,
+     * so after a crash either all of them are replayed or none.
+     * @param bookings The committed bookings.
+     * @return A future that completes when the record has been fsynced.
+     */
+    public CompletableFuture<Void> append(List<Booking> bookings) {
+        return enqueue(encode(bookings));
+    }
+
+    /**
+     * Queues the release of a booking, a cancellation or an early check-out.
+     * @param booking The booking as it was before the release.
+     * @param checkOutDay The new check-out day, the check-in day of the booking if it was cancelled.
+     * @return A future that completes when the record has been fsynced.
+     */
+    public CompletableFuture<Void> appendRelease(Booking booking, int checkOutDay) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(20);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(RELEASE);
+            out.writeInt(booking.getRoomNumber());
+            out.writeInt(booking.getCheckInDay());
+            out.writeInt(booking.getCheckOutDay());
+            out.writeInt(checkOutDay);
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // Can't happen with an in-memory stream
+        }
+        return enqueue(bytes.toByteArray());
+    }
+
+    private CompletableFuture<Void> enqueue(byte[] payload) {
+        return enqueue(new Entry(frame(payload)));
+    }
+
+    private CompletableFuture<Void> enqueue(Entry entry) {
+        IOException failed = failure;
+        if (failed != null) {
+            entry.durable.completeExceptionally(failed);
+            return entry.durable;
+        }
+        queue.add(entry);
+        // Still open after adding means the entry is ahead of the stop request and gets written. Otherwise take it back,
+        // unless the writer already has it, so nobody waits on a record that is never written
+        if (closed && queue.remove(entry)) {
+            entry.durable.completeExceptionally(new IllegalStateException("Journal is closed"));
+        }
+        return entry.durable;
+    }
+
+    /**
+     * Retrieves the error that stopped the journal. Once set, every record is refused with it.
+     * @return The error, or null while the journal works.
+     */
+    public IOException getFailure() {
+        return failure;
+    }
+
+    /**
+     * Writes everything still queued, saves a final snapshot and closes the file.
+     * A journal that failed saves no snapshot, the rooms may hold changes that were refused.
+     * @throws UncheckedIOException if the final snapshot can't be written, the journal still has every record then.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        queue.add(new Entry(null));
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            if (failure == null) {
+                writeSnapshot();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write the final snapshot", e);
+        } finally {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // Nothing left to write, every record was fsynced before
+            }
+        }
+    }
+
+    /**
+     * The writer thread: waits for a record, takes every other queued record with it and commits them together.
+     */
+    private void writeLoop() {
+        List<Entry> batch = new ArrayList<>();
+        boolean running = true;
+        while (running) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                break;
+            }
+            queue.drainTo(batch);
+            List<ByteBuffer> buffers = new ArrayList<>(batch.size());
+            for (Entry entry : batch) {
+                if (entry.record == null) {
+                    running = false;
+                } else {
+                    buffers.add(ByteBuffer.wrap(entry.record));
+                }
+            }
+            if (failure != null) {
+                // Queued before the failure was seen, refused like the ones after it
+                for (Entry entry : batch) {
+                    entry.durable.completeExceptionally(failure);
+                }
+                batch.clear();
+                continue;
+            }
+            try {
+                ByteBuffer[] array = buffers.toArray(new ByteBuffer[0]);
+                long remaining = 0;
+                for (ByteBuffer buffer : array) {
+                    remaining += buffer.remaining();
+                }
+                while (remaining > 0) {
+                    remaining -= channel.write(array);
+                }
+                channel.force(false); // One fsync for the whole batch
+                goodPosition = channel.position();
+                for (Entry entry : batch) {
+                    entry.durable.complete(null);
+                }
+                writtenSinceSnapshot += buffers.size();
+                if (writtenSinceSnapshot >= snapshotEvery) {
+                    writeSnapshot();
+                }
+            } catch (IOException e) {
+                fail(e);
+                // The callers waiting on these records get the error
+                for (Entry entry : batch) {
+                    entry.durable.completeExceptionally(e);
+                }
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * Stops the journal after a failed write, fsync or snapshot. Part of a batch may have reached the file,
+     * so the file is cut back to the last record known to be on disk; recover would stop at the torn record
+     * and drop everything written after it. Nothing is appended from then on, even if the cut worked,
+     * because the rooms still hold the changes of the failed batch until their callers take them back.
+     * @param e The error.
+     */
+    private void fail(IOException e) {
+        failure = e;
+        try {
+            channel.truncate(goodPosition);
+            channel.position(goodPosition);
+            channel.force(false);
+        } catch (IOException cutFailed) {
+            e.addSuppressed(cutFailed); // Recovery cuts the torn record off instead
+        }
+    }
+
+    /**
+     * Saves the state of every room to a new snapshot and empties the journal.
+     * Every record already written belongs to a booking that was committed before it was queued,
+     * so the snapshot contains it; records still in the queue go to the fresh journal.
+     * Replaying one of those again is harmless because the booking is then already in the calendar,
+     * or already released, which replays as nothing to do.
+     * @throws IOException if the snapshot can't be written.
+     */
+    private void writeSnapshot() throws IOException {
+        snapshotWriter.write(snapshot);
+        channel.truncate(0);
+        channel.position(0);
+        goodPosition = 0;
+        channel.force(true);
+        writtenSinceSnapshot = 0;
+    }
+
+    /**
+     * Encodes a booking as a journal payload.
+     * @param booking The booking.
+     * @return The payload bytes.
+     */
+    private static byte[] encode(Booking booking) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(RESERVE);
+            writeBooking(out, booking);
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // Can't happen with an in-memory stream
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Encodes the bookings of a group reservation as one journal payload.
+     * @param bookings The bookings.
+     * @return The payload bytes.
+     */
+    private static byte[] encode(List<Booking> bookings) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 * bookings.size());
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(GROUP);
+            out.writeInt(bookings.size());
+            for (Booking booking : bookings) {
+                writeBooking(out, booking);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // Can't happen with an in-memory stream
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeBooking(DataOutputStream out, Booking booking) throws IOException {
+        out.writeInt(booking.getRoomNumber());
+        out.writeUTF(booking.getCustomerName());
+        out.writeUTF(booking.getContactNumber());
+        out.writeInt(booking.getCheckInDay());
+        out.writeInt(booking.getCheckOutDay());
+        out.writeInt(booking.getGuestCount());
+        out.writeDouble(booking.getTotalPrice());
+    }
+
+    private static Booking readBooking(DataInputStream in) throws IOException {
+        return new Booking(in.readInt(), in.readUTF(), in.readUTF(), in.readInt(), in.readInt(), in.readInt(), in.readDouble());
+    }
+
+    /**
+     * Puts the length and checksum in front of a payload.
+     * @param payload The payload bytes.
+     * @return The framed record.
+     */
+    private static byte[] frame(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        ByteBuffer buffer = ByteBuffer.allocate(8 + payload.length);
+        buffer.putInt(payload.length).putInt((int) crc.getValue()).put(payload);
+        return buffer.array();
+    }
+
+    /**
+     * Reads the payload of one framed record.
+     * @param in The stream to read from.
+     * @return The payload, or null at the end of the stream or at a torn or corrupt record.
+     * @throws IOException if reading fails.
+     */
+    private static byte[] readFrame(DataInputStream in) throws IOException {
+        try {
+            int length = in.readInt();
+            int checksum = in.readInt();
+            if (length <= 0 || length > 1 << 20) {
+                return null;
+            }
+            byte[] payload = new byte[length];
+            in.readFully(payload);
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            return (int) crc.getValue() == checksum ? payload : null;
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Decodes a journal payload.
+     * @param payload The payload bytes.
+     * @param consumer Receives the booking, or every booking of a group.
+     * @param releases Receives a cancellation or early check-out.
+     * @return The number of bookings in the record.
+     * @throws IOException if the payload is not a known record.
+     */
+    private static int decode(byte[] payload, Consumer<Booking> consumer, ReleaseConsumer releases) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            byte type = in.readByte();
+            if (type == RESERVE) {
+                consumer.accept(readBooking(in));
+                return 1;
+            }
+            if (type == GROUP) {
+                int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    consumer.accept(readBooking(in));
+                }
+                return count;
+            }
+            if (type == RELEASE) {
+                releases.released(in.readInt(), in.readInt(), in.readInt(), in.readInt());
+                return 0;
+            }
+            throw new IOException("Unknown journal record type " + type);
+        }
+    }
+}
@@ -0,0 +1,321 @@
+package com.AbotLangit;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * This is the ReservationMetrics class
+ * Counts what happens on the booking hot path: every reservation request by its outcome or validation failure,
+ * every reservation attempt on a room, every group reservation, every availability search,
+ * and the latency of reserving, group reserving and searching.
+ * Counters are LongAdders and latencies go into LatencyHistograms, so recording never makes threads wait on each other.
+ * The numbers can be read over JMX once registered, or as plain text from dump, the format of a metrics scrape.
+ */
+public class ReservationMetrics implements ReservationMetricsMBean {
+    private static final ReservationResponse.Status[] REQUEST_STATUSES = ReservationResponse.Status.values();
+    private static final ReservationResult.Status[] ATTEMPT_STATUSES = ReservationResult.Status.values();
+
+    private final LongAdder[] requests = counters(REQUEST_STATUSES.length); // By ReservationResponse.Status ordinal
+    private final LongAdder[] attempts = counters(ATTEMPT_STATUSES.length); // By ReservationResult.Status ordinal
+    private final LongAdder[] groups = counters(ATTEMPT_STATUSES.length); // Group reservations by ReservationResult.Status ordinal
+    private final LongAdder groupRooms = new LongAdder(); // Rooms booked through group reservations
+    private final LongAdder searches = new LongAdder();
+    private final LatencyHistogram reserveLatency = new LatencyHistogram();
+    private final LatencyHistogram groupLatency = new LatencyHistogram();
+    private final LatencyHistogram searchLatency = new LatencyHistogram();
+    private volatile ObjectName objectName; // Set while registered with the platform MBean server
+
+    /**
+     * Counts a reservation request that went through the ReservationService.
+     * @param status The outcome, RESERVED, UNAVAILABLE or the reason validation failed.
+     */
+    public void recordRequest(ReservationResponse.Status status) {
+        requests[status.ordinal()].increment();
+    }
+
+    /**
+     * Counts an attempt to reserve a room and how long it took.
+     * @param status The outcome of the attempt.
+     * @param nanos The time it took in nanoseconds.
+     */
+    public void recordReserve(ReservationResult.Status status, long nanos) {
+        attempts[status.ordinal()].increment();
+        reserveLatency.record(nanos);
+    }
+
+    /**
+     * Counts a group reservation and how long it took.
+     * @param status RESERVED, or the status of the room that was in the way.
+     * @param rooms The number of rooms in the group.
+     * @param nanos The time it took in nanoseconds.
+     */
+    public void recordGroup(ReservationResult.Status status, int rooms, long nanos) {
+        groups[status.ordinal()].increment();
+        if (status == ReservationResult.Status.RESERVED) {
+            groupRooms.add(rooms);
+        }
+        groupLatency.record(nanos);
+    }
+
+    /**
+     * Counts an availability search and how long it took.
+     * @param nanos The time it took in nanoseconds.
+     */
+    public void recordSearch(long nanos) {
+        searches.increment();
+        searchLatency.record(nanos);
+    }
+
+    public LatencyHistogram getReserveLatency() {
+        return reserveLatency;
+    }
+
+    public LatencyHistogram getGroupLatency() {
+        return groupLatency;
+    }
+
+    public LatencyHistogram getSearchLatency() {
+        return searchLatency;
+    }
+
+    /**
+     * Retrieves how many requests ended with a status.
+     * @param status The status.
+     * @return The number of requests.
+     */
+    public long getRequests(ReservationResponse.Status status) {
+        return requests[status.ordinal()].sum();
+    }
+
+    /**
+     * Retrieves how many reservation attempts ended with a status.
+     * @param status The status.
+     * @return The number of attempts.
+     */
+    public long getAttempts(ReservationResult.Status status) {
+        return attempts[status.ordinal()].sum();
+    }
+
+    @Override
+    public long getRequests() {
+        return sum(requests);
+    }
+
+    @Override
+    public long getRequestsReserved() {
+        return getRequests(ReservationResponse.Status.RESERVED);
+    }
+
+    @Override
+    public long getRequestsRejected() {
+        return getRequests(ReservationResponse.Status.UNAVAILABLE);
+    }
+
+    @Override
+    public long getValidationFailures() {
+        return getRequests() - getRequestsReserved() - getRequestsRejected();
+    }
+
+    @Override
+    public long getReserveAttempts() {
+        return sum(attempts);
+    }
+
+    @Override
+    public long getReservations() {
+        return getAttempts(ReservationResult.Status.RESERVED);
+    }
+
+    @Override
+    public long getConflicts() {
+        return getAttempts(ReservationResult.Status.CONFLICT);
+    }
+
+    @Override
+    public long getGroupReservations() {
+        return groups[ReservationResult.Status.RESERVED.ordinal()].sum();
+    }
+
+    @Override
+    public long getGroupFailures() {
+        return sum(groups) - getGroupReservations();
+    }
+
+    @Override
+    public long getGroupRooms() {
+        return groupRooms.sum();
+    }
+
+    @Override
+    public long getGroupP99Micros() {
+        return micros(groupLatency.getPercentileNanos(99));
+    }
+
+    @Override
+    public long getSearches() {
+        return searches.sum();
+    }
+
+    @Override
+    public long getReserveP50Micros() {
+        return micros(reserveLatency.getPercentileNanos(50));
+    }
+
+    @Override
+    public long getReserveP99Micros() {
+        return micros(reserveLatency.getPercentileNanos(99));
+    }
+
+    @Override
+    public long getReserveMaxMicros() {
+        return micros(reserveLatency.getMaxNanos());
+    }
+
+    @Override
+    public long getSearchP50Micros() {
+        return micros(searchLatency.getPercentileNanos(50));
+    }
+
+    @Override
+    public long getSearchP99Micros() {
+        return micros(searchLatency.getPercentileNanos(99));
+    }
+
+    @Override
+    public long getSearchMaxMicros() {
+        return micros(searchLatency.getMaxNanos());
+    }
+
+    @Override
+    public String dump() {
+        StringBuilder text = new StringBuilder();
+        text.append("# TYPE reservation_requests_total counter\n");
+        for (ReservationResponse.Status status : REQUEST_STATUSES) {
+            text.append("reservation_requests_total{status=\"").append(status).append("\"} ").append(getRequests(status)).append('\n');
+        }
+        text.append("# TYPE reserve_attempts_total counter\n");
+        for (ReservationResult.Status status : ATTEMPT_STATUSES) {
+            text.append("reserve_attempts_total{result=\"").append(status).append("\"} ").append(getAttempts(status)).append('\n');
+        }
+        text.append("# TYPE group_reservations_total counter\n");
+        for (ReservationResult.Status status : ATTEMPT_STATUSES) {
+            text.append("group_reservations_total{result=\"").append(status).append("\"} ").append(groups[status.ordinal()].sum()).append('\n');
+        }
+        text.append("# TYPE group_rooms_total counter\n");
+        text.append("group_rooms_total ").append(getGroupRooms()).append('\n');
+        text.append("# TYPE availability_searches_total counter\n");
+        text.append("availability_searches_total ").append(getSearches()).append('\n');
+        appendLatency(text, "reserve_latency_micros", reserveLatency);
+        appendLatency(text, "group_latency_micros", groupLatency);
+        appendLatency(text, "search_latency_micros", searchLatency);
+        return text.toString();
+    }
+
+    @Override
+    public void dumpTo(String file) {
+        Path path = Paths.get(file);
+        try {
+            // Write next to it and move over, so a scraper never reads half a file
+            Path temp = Files.createTempFile(path.toAbsolutePath().getParent(), "metrics", ".tmp");
+            Files.writeString(temp, dump());
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public void reset() {
+        for (LongAdder counter : requests) {
+            counter.reset();
+        }
+        for (LongAdder counter : attempts) {
+            counter.reset();
+        }
+        for (LongAdder counter : groups) {
+            counter.reset();
+        }
+        groupRooms.reset();
+        searches.reset();
+        reserveLatency.reset();
+        groupLatency.reset();
+        searchLatency.reset();
+    }
+
+    /**
+     * Registers these metrics with the platform MBean server so JMX clients can read them.
+     * Failures are reported and leave the metrics working without JMX.
+     * @param name The name that tells these metrics apart from those of other RoomManagers in the JVM.
+     * @return True if registered.
+     */
+    public boolean register(String name) {
+        try {
+            ObjectName registered = new ObjectName("com.AbotLangit:type=ReservationMetrics,name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, registered);
+            objectName = registered;
+            return true;
+        } catch (JMException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Removes these metrics from the platform MBean server if they were registered.
+     */
+    public void unregister() {
+        ObjectName registered = objectName;
+        objectName = null;
+        if (registered == null) {
+            return;
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.unregisterMBean(registered);
+        } catch (JMException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static void appendLatency(StringBuilder text, String name, LatencyHistogram histogram) {
+        text.append("# TYPE ").append(name).append(" summary\n");
+        for (double quantile : new double[] {0.5, 0.9, 0.99, 0.999}) {
+            text.append(name).append("{quantile=\"").append(quantile).append("\"} ")
+                    .append(micros(histogram.getPercentileNanos(quantile * 100))).append('\n');
+        }
+        text.append(name).append("_max ").append(micros(histogram.getMaxNanos())).append('\n');
+        text.append(name).append("_sum ").append(micros(histogram.getTotalNanos())).append('\n');
+        text.append(name).append("_count ").append(histogram.getCount()).append('\n');
+        text.append(name).append("_mean ").append(String.format(Locale.ROOT, "%.1f", histogram.getMeanNanos() / 1000)).append('\n');
+    }
+
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+
+    private static long sum(LongAdder[] counters) {
+        long total = 0;
+        for (LongAdder counter : counters) {
+            total += counter.sum();
+        }
+        return total;
+    }
+
+    private static LongAdder[] counters(int size) {
+        LongAdder[] counters = new LongAdder[size];
+        for (int i = 0; i < size; i++) {
+            counters[i] = new LongAdder();
+        }
+        return counters;
+    }
+}
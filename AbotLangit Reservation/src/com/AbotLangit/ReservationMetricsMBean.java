@@ -0,0 +1,60 @@
+package com.AbotLangit;
+
+/**
+ * This is the ReservationMetricsMBean interface
+ * What ReservationMetrics shows in JConsole or any other JMX client, latencies are in microseconds.
+ */
+public interface ReservationMetricsMBean {
+    long getRequests();
+
+    long getRequestsReserved();
+
+    long getRequestsRejected();
+
+    long getValidationFailures();
+
+    long getReserveAttempts();
+
+    long getReservations();
+
+    long getConflicts();
+
+    long getGroupReservations();
+
+    long getGroupFailures();
+
+    long getGroupRooms();
+
+    long getGroupP99Micros();
+
+    long getSearches();
+
+    long getReserveP50Micros();
+
+    long getReserveP99Micros();
+
+    long getReserveMaxMicros();
+
+    long getSearchP50Micros();
+
+    long getSearchP99Micros();
+
+    long getSearchMaxMicros();
+
+    /**
+     * Renders every metric in the plain text scrape format.
+     * @return The metrics text.
+     */
+    String dump();
+
+    /**
+     * Writes the metrics text to a file.
+     * @param file The path of the file.
+     */
+    void dumpTo(String file);
+
+    /**
+     * Starts counting from zero.
+     */
+    void reset();
+}
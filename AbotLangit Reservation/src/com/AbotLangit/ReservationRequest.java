@@ -0,0 +1,57 @@
+package com.AbotLangit;
+
+/**
+ * This is the ReservationRequest class
+ * Everything a guest fills in to book a room, kept as the raw text that was typed
+ * so the ReservationService can validate it the same way for the form, a file import or a server.
+ */
+public class ReservationRequest {
+    private final String customerName; // Name of the customer
+    private final String contactNumber; // Contact number, must be 11 digits
+    private final Integer roomNumber; // Number of the chosen room, null if no room was chosen
+    private final String checkInDate; // Check-in date as yyyy-MM-dd
+    private final String duration; // Duration of stay in days
+    private final String guests; // Number of guests
+
+    /**
+     * Constructor to initialize a request with the text of every field.
+     * @param customerName The name of the customer.
+     * @param contactNumber The contact number of the customer.
+     * @param roomNumber The number of the chosen room, or null if none was chosen.
+     * @param checkInDate The check-in date as yyyy-MM-dd.
+     * @param duration The duration of stay in days.
+     * @param guests The number of guests.
+     */
+    public ReservationRequest(String customerName, String contactNumber, Integer roomNumber, String checkInDate, String duration, String guests) {
+        this.customerName = customerName;
+        this.contactNumber = contactNumber;
+        this.roomNumber = roomNumber;
+        this.checkInDate = checkInDate;
+        this.duration = duration;
+        this.guests = guests;
+    }
+
+    public String getCustomerName() {
+        return customerName;
+    }
+
+    public String getContactNumber() {
+        return contactNumber;
+    }
+
+    public Integer getRoomNumber() {
+        return roomNumber;
+    }
+
+    public String getCheckInDate() {
+        return checkInDate;
+    }
+
+    public String getDuration() {
+        return duration;
+    }
+
+    public String getGuests() {
+        return guests;
+    }
+}
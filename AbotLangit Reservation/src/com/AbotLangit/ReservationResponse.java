@@ -0,0 +1,74 @@
+package com.AbotLangit;
+
+/**
+ * This is the ReservationResponse class
+ * What the ReservationService answers to a ReservationRequest: the outcome, the message to show the guest
+ * and the booking when it went through.
+ */
+public class ReservationResponse {
+    /**
+     * The possible outcomes of a request.
+     */
+    public enum Status {
+        RESERVED, // The room was booked
+        NO_ROOM_SELECTED, // No room was chosen
+        MISSING_FIELDS, // At least one field is empty
+        INVALID_CONTACT, // The contact number is not 11 digits
+        INVALID_NUMBER, // Guests or duration is not a positive number, or the stay is too long
+        INVALID_DATE, // The check-in date is not a valid yyyy-MM-dd date
+        UNAVAILABLE // The room is not available for those dates
+    }
+
+    private final Status status;
+    private final String message; // Text to show the guest
+    private final Room room; // The booked room, null unless reserved
+    private final Booking booking; // The booking, null unless reserved
+
+    private ReservationResponse(Status status, String message, Room room, Booking booking) {
+        this.status = status;
+        this.message = message;
+        this.room = room;
+        this.booking = booking;
+    }
+
+    /**
+     * Creates a response for a successful reservation.
+     * @param message The confirmation message.
+     * @param room The booked room.
+     * @param booking The booking.
+     * @return The response.
+     */
+    public static ReservationResponse reserved(String message, Room room, Booking booking) {
+        return new ReservationResponse(Status.RESERVED, message, room, booking);
+    }
+
+    /**
+     * Creates a response for a request that was turned down.
+     * @param status The reason.
+     * @param message The message to show the guest.
+     * @return The response.
+     */
+    public static ReservationResponse rejected(Status status, String message) {
+        return new ReservationResponse(status, message, null, null);
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public boolean isReserved() {
+        return status == Status.RESERVED;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public Room getRoom() {
+        return room;
+    }
+
+    public Booking getBooking() {
+        return booking;
+    }
+}
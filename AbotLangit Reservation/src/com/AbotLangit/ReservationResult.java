@@ -0,0 +1,94 @@
+package com.AbotLangit;
+
+/**
+ * This is the ReservationResult class
+ * The outcome of RoomManager.tryReserve, either the committed booking or the booking that was in the way.
+ * RoomManager.tryReserveAny can also answer that no room of the type was free, and a room held by another desk answers HELD.
+ */
+public class ReservationResult {
+    /**
+     * The possible outcomes of a reservation attempt.
+     */
+    public enum Status {
+        RESERVED, // The booking was committed
+        CONFLICT, // Another booking already covers at least one of the nights
+        NO_ROOM, // No room of the requested type is free for those nights
+        HELD // Another desk holds the room for at least one of the nights
+    }
+
+    private final Status status;
+    private final Room room;
+    private final Booking booking; // The committed booking, or the conflicting one on a conflict
+
+    private ReservationResult(Status status, Room room, Booking booking) {
+        this.status = status;
+        this.room = room;
+        this.booking = booking;
+    }
+
+    /**
+     * Creates a successful result.
+     * @param room The reserved room.
+     * @param booking The committed booking.
+     * @return The result.
+     */
+    public static ReservationResult reserved(Room room, Booking booking) {
+        return new ReservationResult(Status.RESERVED, room, booking);
+    }
+
+    /**
+     * Creates a conflict result.
+     * @param room The room that could not be reserved.
+     * @param conflict The existing booking that overlaps with the request.
+     * @return The result.
+     */
+    public static ReservationResult conflict(Room room, Booking conflict) {
+        return new ReservationResult(Status.CONFLICT, room, conflict);
+    }
+
+    /**
+     * Creates a result for a room another desk is holding.
+     * @param room The room that could not be reserved.
+     * @return The result, without booking.
+     */
+    public static ReservationResult held(Room room) {
+        return new ReservationResult(Status.HELD, room, null);
+    }
+
+    /**
+     * Creates a result for a search where no room of the type was free.
+     * @return The result, without room or booking.
+     */
+    public static ReservationResult noRoom() {
+        return new ReservationResult(Status.NO_ROOM, null, null);
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public boolean isReserved() {
+        return status == Status.RESERVED;
+    }
+
+    public Room getRoom() {
+        return room;
+    }
+
+    /**
+     * The committed booking when reserved, otherwise the existing booking that caused the conflict.
+     * @return The booking.
+     */
+    public Booking getBooking() {
+        return booking;
+    }
+
+    @Override
+    public String toString() {
+        return "ReservationResult{" +
+                "status=" + status +
+                ", room=" + (room == null ? null : room.getNumber()) +
+                ", booking=" + booking +
+                '}';
+    }
+}
@@ -0,0 +1,181 @@
+package com.AbotLangit;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * This is the ReservationService class
+ * The booking engine without any Swing: validates a ReservationRequest, works out the dates and price,
+ * reserves the room and answers with a ReservationResponse.
+ * ReservationForm and AvailabilityFrame call into it, and so can a server, a file import or a load test.
+ */
+public class ReservationService {
+    private static final Pattern CONTACT_NUMBER = Pattern.compile("\\d{11}"); // Compiled once instead of on every String.matches
+    private static final int MAX_NIGHTS = 365; // Longest stay one reservation can book
+    private static final int LAST_DAY = Dates.toEpochDay(LocalDate.of(9999, 12, 31)); // Latest check-out a date field can show
+    private final RoomManager roomManager;
+
+    /**
+     * Constructor to initialize the service on top of a RoomManager.
+     * @param roomManager The RoomManager holding the rooms.
+     */
+    public ReservationService(RoomManager roomManager) {
+        this.roomManager = roomManager;
+    }
+
+    public RoomManager getRoomManager() {
+        return roomManager;
+    }
+
+    /**
+     * Validates the request and reserves the room if it is free.
+     * The checks and messages are the ones the reservation form has always shown.
+     * @param request The request with the text of every field.
+     * @return The response with the outcome and the message for the guest.
+     */
+    public ReservationResponse reserve(ReservationRequest request) {
+        return reserve(request, null);
+    }
+
+    /**
+     * Same as reserve, for a desk that holds the room while the guest fills in the form.
+     * The hold is used when it is still active and covers exactly the requested room and nights,
+     * otherwise the room is reserved as if there was no hold.
+     * @param request The request with the text of every field.
+     * @param hold The hold of this desk, or null.
+     * @return The response with the outcome and the message for the guest.
+     */
+    public ReservationResponse reserve(ReservationRequest request, RoomHold hold) {
+        ReservationResponse response = respond(request, hold);
+        roomManager.getMetrics().recordRequest(response.getStatus());
+        return response;
+    }
+
+    private ReservationResponse respond(ReservationRequest request, RoomHold hold) {
+        if (request.getRoomNumber() == null) {
+            return ReservationResponse.rejected(ReservationResponse.Status.NO_ROOM_SELECTED, "Please select a room type.");
+        }
+        Stay stay = validate(request.getCustomerName(), request.getContactNumber(), request.getCheckInDate(), request.getDuration(), request.getGuests());
+        if (!stay.isValid()) {
+            return stay.getRejection();
+        }
+
+        Room room = roomManager.getRoom(request.getRoomNumber());
+        boolean held = hold != null && hold.isActive() && hold.getRoom() == room
+                && hold.getCheckInDay() == Dates.toEpochDay(stay.getCheckInDate()) && hold.getCheckOutDay() == Dates.toEpochDay(stay.getCheckOutDate());
+        if (room != null) {
+            // tryReserve checks the room calendar and books in one step, so a room booked on other dates can still be
+            // reserved and another desk can't take the nights in between
+            ReservationResult result = held
+                    ? roomManager.tryReserve(hold, stay.getCustomerName(), stay.getContactNumber(), stay.getGuests())
+                    : roomManager.tryReserve(room, stay.getCustomerName(), stay.getContactNumber(), stay.getCheckInDate(), stay.getCheckOutDate(), stay.getGuests());
+            if (result.isReserved()) {
+                String message = String.format("Reservation made successfully for %s.\nRoom: %s - %d\nCheck-in: %s\nCheck-out: %s\nDuration of Stay: %d day(s)\nNumber of Guests: %d \nTotal Price: Php %.2f",
+                        stay.getCustomerName(), room.getType(), room.getNumber(), Dates.ISO.format(stay.getCheckInDate()), Dates.ISO.format(stay.getCheckOutDate()),
+                        stay.getDuration(), stay.getGuests(), result.getBooking().getTotalPrice());
+                return ReservationResponse.reserved(message, room, result.getBooking());
+            }
+        }
+        return ReservationResponse.rejected(ReservationResponse.Status.UNAVAILABLE, "Sorry, no rooms available for the selected date range or type.");
+    }
+
+    /**
+     * Checks the fields of a reservation and parses them, with the rules of the reservation form:
+     * every field filled in, an 11 digit contact number, positive guests and duration and a strict yyyy-MM-dd date.
+     * A stay longer than a year, or one checking out after 9999-12-31, is rejected as an invalid number.
+     * Safe to call from many threads at once.
+     * @param customerName The name of the customer.
+     * @param contactNumberText The contact number.
+     * @param checkInDateText The check-in date as yyyy-MM-dd.
+     * @param durationText The duration of stay in days.
+     * @param guestsText The number of guests.
+     * @return The parsed stay, or an invalid stay holding the rejection.
+     */
+    public static Stay validate(String customerName, String contactNumberText, String checkInDateText, String durationText, String guestsText) {
+        String name = nullToEmpty(customerName);
+        String contactNumber = nullToEmpty(contactNumberText).trim();
+        String checkInDateStr = nullToEmpty(checkInDateText);
+        String durationStr = nullToEmpty(durationText);
+        String guestsStr = nullToEmpty(guestsText);
+
+        if (name.isEmpty() || contactNumber.isEmpty() || checkInDateStr.isEmpty() || durationStr.isEmpty() || guestsStr.isEmpty()) {
+            return Stay.invalid(ReservationResponse.Status.MISSING_FIELDS, "Please fill in all fields.");
+        }
+        if (!CONTACT_NUMBER.matcher(contactNumber).matches()) {
+            return Stay.invalid(ReservationResponse.Status.INVALID_CONTACT, "Contact number must be exactly 11 digits.");
+        }
+        int guests, duration;
+        try {
+            guests = Integer.parseInt(guestsStr);
+            if (guests <= 0) {
+                throw new NumberFormatException();
+            }
+            duration = Integer.parseInt(durationStr);
+            if (duration <= 0) {
+                throw new NumberFormatException();
+            }
+        } catch (NumberFormatException e) {
+            return Stay.invalid(ReservationResponse.Status.INVALID_NUMBER, "Invalid number of guests or duration.");
+        }
+
+        // Parse check-in date
+        int checkInDay = Dates.parseEpochDay(checkInDateStr);
+        if (checkInDay == Dates.NO_DAY) {
+            return Stay.invalid(ReservationResponse.Status.INVALID_DATE, "Invalid date format. Please use yyyy-MM-dd.");
+        }
+        // Checked before any date arithmetic, a huge duration would overflow the epoch days
+        if (duration > MAX_NIGHTS || checkInDay > LAST_DAY - duration) {
+            return Stay.invalid(ReservationResponse.Status.INVALID_NUMBER, "Duration of stay must be at most " + MAX_NIGHTS + " days.");
+        }
+
+        // Calculate the check-out date based on the Check-in date and duration of stay input, in whole days so daylight saving can't shift it
+        LocalDate checkInDate = LocalDate.ofEpochDay(checkInDay);
+        return Stay.valid(name, contactNumber, checkInDate, checkInDate.plusDays(duration), duration, guests);
+    }
+
+    /**
+     * Retrieves the rooms that can still be chosen.
+     * @return List of available rooms.
+     */
+    public List<Room> getAvailableRooms() {
+        return roomManager.getAvailableRooms();
+    }
+
+    /**
+     * Finds the rooms of a type that are free for a stay.
+     * @param type The room type, or null for every type.
+     * @param checkInDate The check-in date.
+     * @param nights The number of nights.
+     * @return List of free rooms.
+     */
+    public List<Room> findAvailable(String type, LocalDate checkInDate, int nights) {
+        return roomManager.findAvailable(type, checkInDate, checkInDate.plusDays(nights));
+    }
+
+    /**
+     * Finds the rooms of a type that are free for a stay and what the stay would cost in each.
+     * Searches every time, a server answering the same searches over and over puts a QuoteCache in front.
+     * @param type The room type, or null for every type.
+     * @param checkInDate The check-in date.
+     * @param nights The number of nights.
+     * @param guests The number of guests.
+     * @return Unmodifiable list of quotes.
+     */
+    public List<RoomQuote> quoteAvailable(String type, LocalDate checkInDate, int nights, int guests) {
+        return QuoteCache.quote(roomManager, type, Dates.toEpochDay(checkInDate), nights, guests);
+    }
+
+    /**
+     * Retrieves the status of every room, as shown by the availability table.
+     * The statuses come from one RoomSnapshot, so they all show the same moment.
+     * @return List of room statuses in inventory order.
+     */
+    public List<RoomStatus> getRoomStatuses() {
+        return roomManager.snapshot().getStatuses();
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
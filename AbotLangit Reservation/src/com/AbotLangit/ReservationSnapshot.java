@@ -0,0 +1,251 @@
+package com.AbotLangit;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * This is the ReservationSnapshot class
+ * Writes the whole room inventory with its bookings as one fixed-width binary file that
+ * MappedRoomInventory can memory-map and read in place, so a restart doesn't deserialize every room.
+ *
+ * The file is laid out column by column (struct of arrays):
+ * header, type names, room numbers, type ids, prices, availability flags, index of the first booking of each room,
+ * then the booking columns (check-in, check-out, guests, total price, offset of the customer details)
+ * and finally the customer names and contact numbers.
+ * Bookings of one room are stored together in check-in order.
+ *
+ * Each snapshot gets the next generation number in its file name and older ones are deleted afterwards,
+ * so a snapshot that is still mapped is never overwritten.
+ */
+public class ReservationSnapshot {
+    static final int MAGIC = 0x41424C49; // "ABLI"
+    static final int VERSION = 2;
+    static final int HEADER_SIZE = 48;
+    private static final String PREFIX = "rooms-";
+    private static final String SUFFIX = ".snapshot";
+
+    private final Path directory;
+    private volatile int undeletedSnapshots; // Old snapshots the last write could not delete
+
+    /**
+     * Constructor for the snapshots of a data directory.
+     * @param directory The data directory.
+     */
+    public ReservationSnapshot(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Maps the latest snapshot of the directory.
+     * @return The mapped inventory or null if there is no snapshot yet.
+     * @throws IOException if the file can't be mapped or is not a valid snapshot.
+     */
+    public MappedRoomInventory map() throws IOException {
+        Path latest = latest();
+        return latest == null ? null : new MappedRoomInventory(latest);
+    }
+
+    /**
+     * Writes a new snapshot generation and deletes the older ones.
+     * @param rooms Every room of the inventory.
+     * @param bookingsOf Reads the current bookings of a room in check-in order.
+     * @throws IOException if the file can't be written.
+     */
+    public void write(List<Room> rooms, Function<Room, List<Booking>> bookingsOf) throws IOException {
+        int roomCount = rooms.size();
+        Map<String, Integer> typeIds = new LinkedHashMap<>();
+        List<List<Booking>> bookings = new ArrayList<>(roomCount);
+        long bookingCount = 0;
+        long detailsSize = 0;
+        for (Room room : rooms) {
+            typeIds.putIfAbsent(room.getType(), typeIds.size());
+            List<Booking> roomBookings = bookingsOf.apply(room);
+            bookings.add(roomBookings);
+            bookingCount += roomBookings.size();
+            for (Booking booking : roomBookings) {
+                detailsSize += 8 + utf8(booking.getCustomerName()).length + utf8(booking.getContactNumber()).length;
+            }
+        }
+        long typesSize = 0;
+        for (String type : typeIds.keySet()) {
+            typesSize += 4 + utf8(type).length;
+        }
+        long roomsOffset = HEADER_SIZE + typesSize;
+        long bookingIndexOffset = roomsOffset + (long) roomCount * MappedRoomInventory.ROOM_WIDTH;
+        long bookingsOffset = bookingIndexOffset + (roomCount + 1L) * 4;
+        long detailsOffset = bookingsOffset + bookingCount * MappedRoomInventory.BOOKING_WIDTH;
+        long fileSize = detailsOffset + detailsSize;
+        if (fileSize > Integer.MAX_VALUE) {
+            throw new IOException("Snapshot of " + fileSize + " bytes is too large to map in one piece");
+        }
+
+        int generation = generationOf(latest()) + 1;
+        Path target = directory.resolve(PREFIX + generation + SUFFIX);
+        Path temp = directory.resolve(PREFIX + generation + SUFFIX + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+            // Header
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(roomCount);
+            out.writeInt(typeIds.size());
+            out.writeInt((int) bookingCount);
+            out.writeInt((int) roomsOffset);
+            out.writeInt((int) bookingIndexOffset);
+            out.writeInt((int) bookingsOffset);
+            out.writeInt((int) detailsOffset);
+            out.writeInt((int) fileSize);
+            out.writeLong(0); // Reserved
+            // Type names
+            for (String type : typeIds.keySet()) {
+                writeString(out, type);
+            }
+            // Room columns
+            for (Room room : rooms) {
+                out.writeInt(room.getNumber());
+            }
+            for (Room room : rooms) {
+                out.writeInt(typeIds.get(room.getType()));
+            }
+            for (Room room : rooms) {
+                out.writeDouble(room.getPrice());
+            }
+            for (List<Booking> roomBookings : bookings) {
+                // Worked out from the bookings: a hold also marks a room not available, but holds are not saved
+                out.writeByte(roomBookings.isEmpty() ? 1 : 0);
+            }
+            // First booking of each room, plus the end of the last one
+            int first = 0;
+            for (List<Booking> roomBookings : bookings) {
+                out.writeInt(first);
+                first += roomBookings.size();
+            }
+            out.writeInt(first);
+            // Booking columns
+            for (List<Booking> roomBookings : bookings) {
+                for (Booking booking : roomBookings) {
+                    out.writeInt(booking.getCheckInDay());
+                }
+            }
+            for (List<Booking> roomBookings : bookings) {
+                for (Booking booking : roomBookings) {
+                    out.writeInt(booking.getCheckOutDay());
+                }
+            }
+            for (List<Booking> roomBookings : bookings) {
+                for (Booking booking : roomBookings) {
+                    out.writeInt(booking.getGuestCount());
+                }
+            }
+            for (List<Booking> roomBookings : bookings) {
+                for (Booking booking : roomBookings) {
+                    out.writeDouble(booking.getTotalPrice());
+                }
+            }
+            int detailOffset = 0;
+            for (List<Booking> roomBookings : bookings) {
+                for (Booking booking : roomBookings) {
+                    out.writeInt(detailOffset);
+                    detailOffset += 8 + utf8(booking.getCustomerName()).length + utf8(booking.getContactNumber()).length;
+                }
+            }
+            // Customer details
+            for (List<Booking> roomBookings : bookings) {
+                for (Booking booking : roomBookings) {
+                    writeString(out, booking.getCustomerName());
+                    writeString(out, booking.getContactNumber());
+                }
+            }
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        deleteOlderThan(generation);
+    }
+
+    /**
+     * Finds the snapshot with the highest generation.
+     * @return The path or null if there is no snapshot.
+     * @throws IOException if the directory can't be listed.
+     */
+    private Path latest() throws IOException {
+        Path latest = null;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            for (Path file : files) {
+                if (generationOf(file) > generationOf(latest)) {
+                    latest = file;
+                }
+            }
+        }
+        return latest;
+    }
+
+    /**
+     * Removes the snapshots before a generation. A file that is still mapped may refuse to go on some systems,
+     * it is then tried again after the next snapshot.
+     */
+    private void deleteOlderThan(int generation) throws IOException {
+        int undeleted = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            for (Path file : files) {
+                if (generationOf(file) < generation) {
+                    try {
+                        Files.deleteIfExists(file);
+                    } catch (IOException e) {
+                        undeleted++; // Left for the next snapshot
+                    }
+                }
+            }
+        }
+        undeletedSnapshots = undeleted;
+    }
+
+    /**
+     * Counts the old snapshots the last write could not delete. They only take up disk space
+     * and are tried again after the next snapshot, but a count that keeps growing means they never go.
+     * @return The number of old snapshot files left behind.
+     */
+    public int getUndeletedSnapshots() {
+        return undeletedSnapshots;
+    }
+
+    /**
+     * Reads the generation number from a snapshot file name.
+     * @return The generation, or 0 for null or a file name that doesn't match.
+     */
+    private static int generationOf(Path file) {
+        if (file == null) {
+            return 0;
+        }
+        String name = file.getFileName().toString();
+        try {
+            return Integer.parseInt(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            return 0;
+        }
+    }
+
+    private static byte[] utf8(String value) {
+        return value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = utf8(value);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+}
@@ -1,27 +1,19 @@
 package com.AbotLangit;
 
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.time.LocalDate;
 
 /**
  * This is the Room class
  * Which basically the managing the formats of input value and variables inputed in Reservation Form then transfer it to the Availability Frame
  * Represents a room in a hotel or accommodation.
  * This class encapsulates information about room type, price, reservation details, and availability.
+ * The values themselves live in a slot of an OccupancyStore, a Room only knows where its slot is and its booking calendar.
+ * The RoomManager that takes the room in moves it into its own store.
  */
 public class Room {
-    private String type; // Type of the room (e.g., single, double)
-    private double price; // Price per night of the room
-    private String customerName; // Name of the customer currently occupying the room
-    private String contactNumber; // Contact number of the customer
-    private Date checkInDate; // Date when the customer checks into the room
-    private Date checkOutDate; // Date when the customer checks out of the room
-    private boolean isAvailable; // Availability status of the room
-    private int number; // Room number
-    private double totalPrice; // Total price of the reservation
-    private int guestCount; // Number of guests staying in the room
-
-    private SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy/MM/dd");
+    private OccupancyStore store; // Holds the type, price, reservation details and availability of this room, only moved before the room is shared
+    private int slot; // Position of this room in the store
+    private final BookingCalendar calendar; // Every booking of this room sorted by date
 
     /**
      * Constructor to initialize a Room object with type, price, and room number.
@@ -30,98 +22,189 @@ public class Room {
      * @param number The room number.
      */
     public Room(String type, double price, int number) {
-        this.type = type;
-        this.price = price;
-        this.number = number;
-        this.isAvailable = true; // Initialize room as available
+        this(new OccupancyStore(1), type, price, number, new BookingCalendar(), true); // Initialize room as available, in a store of its own until a RoomManager takes it in
+    }
+
+    /**
+     * Constructor for a room in a given store, as loaded from a mapped snapshot.
+     * The customer details of a booked room are read from its calendar the first time they are used.
+     * @param store The store to take a slot in.
+     * @param type The type of the room.
+     * @param price The price per night of the room.
+     * @param number The room number.
+     * @param calendar The calendar of the room.
+     * @param available The availability status of the room.
+     */
+    Room(OccupancyStore store, String type, double price, int number, BookingCalendar calendar, boolean available) {
+        this.store = store;
+        this.slot = store.add(number, type, price, available, !available);
+        this.calendar = calendar;
+    }
+
+    OccupancyStore getStore() {
+        return store;
+    }
+
+    /**
+     * Moves the values of this room into a slot of another store. Only called by a RoomManager taking the room in,
+     * before the room is used by any other thread.
+     * @param target The store of the RoomManager.
+     */
+    void moveTo(OccupancyStore target) {
+        slot = target.copy(store, slot);
+        store = target;
+    }
+
+    /**
+     * Fills the customer details from the latest booking if they were not read yet.
+     */
+    private void loadDetails() {
+        if (!store.isDetailsPending(slot)) {
+            return;
+        }
+        synchronized (this) {
+            if (store.isDetailsPending(slot)) {
+                Booking latest = calendar.getLatest();
+                if (latest != null) {
+                    store.setCustomerName(slot, latest.getCustomerName());
+                    store.setContactNumber(slot, latest.getContactNumber());
+                    store.setCheckInDay(slot, latest.getCheckInDay());
+                    store.setCheckOutDay(slot, latest.getCheckOutDay());
+                    store.setGuestCount(slot, latest.getGuestCount());
+                    store.setTotalCents(slot, OccupancyStore.toCents(latest.getTotalPrice()));
+                }
+                store.clearDetailsPending(slot);
+            }
+        }
     }
 
     // Getters and setters for all fields
 
     public String getType() {
-        return type;
+        return store.getType(slot);
     }
 
     public void setType(String type) {
-        this.type = type;
+        store.setType(slot, type);
     }
 
     public double getPrice() {
-        return price;
+        return store.getPriceCents(slot) / 100.0;
     }
 
     public void setPrice(double price) {
-        this.price = price;
+        store.setPriceCents(slot, OccupancyStore.toCents(price));
     }
 
     public String getCustomerName() {
-        return customerName;
+        loadDetails();
+        return store.getCustomerName(slot);
     }
 
     public void setCustomerName(String customerName) {
-        this.customerName = customerName;
+        loadDetails();
+        store.setCustomerName(slot, customerName);
     }
 
     public String getContactNumber() {
-        return contactNumber;
+        loadDetails();
+        return store.getContactNumber(slot);
     }
 
     public void setContactNumber(String contactNumber) {
-        this.contactNumber = contactNumber;
+        loadDetails();
+        store.setContactNumber(slot, contactNumber);
+    }
+
+    public LocalDate getCheckInDate() {
+        return Dates.toLocalDate(getCheckInDay());
+    }
+
+    public void setCheckInDate(LocalDate checkInDate) {
+        setCheckInDay(checkInDate == null ? Dates.NO_DAY : Dates.toEpochDay(checkInDate));
     }
 
-    public Date getCheckInDate() {
-        return checkInDate;
+    public LocalDate getCheckOutDate() {
+        return Dates.toLocalDate(getCheckOutDay());
     }
 
-    public void setCheckInDate(Date checkInDate) {
-        this.checkInDate = checkInDate;
+    public void setCheckOutDate(LocalDate checkOutDate) {
+        setCheckOutDay(checkOutDate == null ? Dates.NO_DAY : Dates.toEpochDay(checkOutDate));
     }
 
-    public Date getCheckOutDate() {
-        return checkOutDate;
+    /**
+     * Retrieves the check-in of the current stay without creating a LocalDate.
+     * @return The check-in as epoch day, or Dates.NO_DAY if not set.
+     */
+    public int getCheckInDay() {
+        loadDetails();
+        return store.getCheckInDay(slot);
     }
 
-    public void setCheckOutDate(Date checkOutDate) {
-        this.checkOutDate = checkOutDate;
+    public void setCheckInDay(int checkInDay) {
+        loadDetails();
+        store.setCheckInDay(slot, checkInDay);
+    }
+
+    /**
+     * Retrieves the check-out of the current stay without creating a LocalDate.
+     * @return The check-out as epoch day, or Dates.NO_DAY if not set.
+     */
+    public int getCheckOutDay() {
+        loadDetails();
+        return store.getCheckOutDay(slot);
+    }
+
+    public void setCheckOutDay(int checkOutDay) {
+        loadDetails();
+        store.setCheckOutDay(slot, checkOutDay);
     }
 
     public int getGuestCount() {
-        return guestCount;
+        loadDetails();
+        return store.getGuestCount(slot);
     }
 
     public void setGuestCount(int guestCount) {
-        this.guestCount = guestCount;
+        loadDetails();
+        store.setGuestCount(slot, guestCount);
     }
 
     public boolean isAvailable() {
-        return isAvailable;
+        return store.isAvailable(slot);
     }
 
     public void setAvailable(boolean available) {
-        isAvailable = available;
+        store.setAvailable(slot, available);
     }
 
     public int getNumber() {
-        return number;
+        return store.getNumber(slot);
+    }
+
+    public BookingCalendar getCalendar() {
+        return calendar;
     }
 
     public double getTotalPrice() {
-        return totalPrice;
+        loadDetails();
+        return store.getTotalCents(slot) / 100.0;
     }
 
     public void setTotalPrice(double totalPrice) {
-        this.totalPrice = totalPrice;
+        loadDetails();
+        store.setTotalCents(slot, OccupancyStore.toCents(totalPrice));
     }
 
     /**
-     * Calculate the total price of the reservation based on duration and number of guests.
+     * Calculate the total price of the reservation based on duration and number of guests, at the flat price per day.
+     * Reservations are priced by the PricingEngine of the RoomManager, see RoomManager.quote.
      * @param duration The duration of stay in days.
      * @param guests The number of guests staying in the room.
      * @return The total price of the reservation.
      */
     public double calculateTotalPrice(int duration, int guests) {
-        return price * duration * guests;
+        return getPrice() * duration * guests;
     }
 
     /**
@@ -131,24 +214,34 @@ public class Room {
     @Override
     public String toString() {
         return "Room{" +
-                "type='" + type + '\'' +
-                ", price=" + price +
-                ", customerName='" + customerName + '\'' +
-                ", contactNumber='" + contactNumber + '\'' +
-                ", checkInDate=" + checkInDate +
-                ", checkOutDate=" + checkOutDate +
-                ", isAvailable=" + isAvailable +
-                ", number=" + number +
-                ", totalPrice=" + totalPrice +
+                "type='" + getType() + '\'' +
+                ", price=" + getPrice() +
+                ", customerName='" + getCustomerName() + '\'' +
+                ", contactNumber='" + getContactNumber() + '\'' +
+                ", checkInDate=" + getCheckInDate() +
+                ", checkOutDate=" + getCheckOutDate() +
+                ", isAvailable=" + isAvailable() +
+                ", number=" + getNumber() +
+                ", totalPrice=" + getTotalPrice() +
                 '}';
     }
 
+    /**
+     * Counts the nights of the current stay.
+     * @return The number of nights, 0 if no stay is set.
+     */
+    public int getNights() {
+        int checkInDay = getCheckInDay();
+        int checkOutDay = getCheckOutDay();
+        return checkInDay == Dates.NO_DAY || checkOutDay == Dates.NO_DAY ? 0 : checkOutDay - checkInDay;
+    }
+
     /**
      * Get formatted check-in date.
      * @return Formatted check-in date as string.
      */
     public String getCheckInDateFormatted() {
-        return checkInDate != null ? dateFormat.format(checkInDate) : "";
+        return Dates.format(Dates.DISPLAY, getCheckInDay());
     }
 
     /**
@@ -156,6 +249,6 @@ public class Room {
      * @return Formatted check-out date as string.
      */
     public String getCheckOutDateFormatted() {
-        return checkOutDate != null ? dateFormat.format(checkOutDate) : "";
+        return Dates.format(Dates.DISPLAY, getCheckOutDay());
     }
 }
@@ -0,0 +1,63 @@
+package com.AbotLangit;
+
+/**
+ * This is the RoomEvent class
+ * Something that happened to one room, published by the RoomManager on its RoomEventBus.
+ */
+public class RoomEvent {
+    /**
+     * The kinds of change.
+     */
+    public enum Type {
+        RESERVED, // A booking was added to the room
+        RELEASED, // A booking was taken off the room
+        PRICE_CHANGED, // The price per day of the room changed
+        HELD, // A hold was put on the room
+        HOLD_ENDED // A hold on the room expired or was released
+    }
+
+    private final Type type;
+    private final Room room;
+    private final Booking booking; // The booking that was added or taken off, null for a price change or a hold
+    private final RoomHold hold; // The hold that was put on or ended, null unless the event is about a hold
+
+    public RoomEvent(Type type, Room room, Booking booking) {
+        this.type = type;
+        this.room = room;
+        this.booking = booking;
+        this.hold = null;
+    }
+
+    public RoomEvent(Type type, Room room, RoomHold hold) {
+        this.type = type;
+        this.room = room;
+        this.booking = null;
+        this.hold = hold;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Room getRoom() {
+        return room;
+    }
+
+    public Booking getBooking() {
+        return booking;
+    }
+
+    public RoomHold getHold() {
+        return hold;
+    }
+
+    @Override
+    public String toString() {
+        return "RoomEvent{" +
+                "type=" + type +
+                ", room=" + room.getNumber() +
+                ", booking=" + booking +
+                ", hold=" + hold +
+                '}';
+    }
+}
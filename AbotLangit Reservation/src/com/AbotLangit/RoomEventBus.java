@@ -0,0 +1,118 @@
+package com.AbotLangit;
+
+import javax.swing.SwingUtilities;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * This is the RoomEventBus class
+ * Lets the RoomManager tell every open form and window which rooms changed, so they update
+ * just those rooms instead of rescanning the inventory.
+ *
+ * Publishing never blocks: the event goes on a lock-free queue per subscriber and, if no delivery is pending yet,
+ * one delivery task is scheduled on the subscriber's executor (the Swing event thread by default).
+ * That task takes everything queued so far and hands it over as one batch, keeping only the latest event of each room,
+ * so a burst of bookings costs the UI one repaint instead of hundreds.
+ * A listener that needs every event, like a cache dropping the nights of each booking, subscribes without coalescing.
+ */
+public class RoomEventBus {
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    /**
+     * A listener with its own queue and delivery executor.
+     */
+    private static class Subscription implements Runnable {
+        final RoomEventListener listener;
+        final Executor executor;
+        final ConcurrentLinkedQueue<RoomEvent> queue = new ConcurrentLinkedQueue<>();
+        final boolean coalesce; // Keep only the latest event of each room in a batch
+        final AtomicBoolean scheduled = new AtomicBoolean(); // true while a delivery task is waiting to run
+
+        Subscription(RoomEventListener listener, Executor executor, boolean coalesce) {
+            this.listener = listener;
+            this.executor = executor;
+            this.coalesce = coalesce;
+        }
+
+        void offer(RoomEvent event) {
+            queue.add(event);
+            if (scheduled.compareAndSet(false, true)) {
+                executor.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            scheduled.set(false); // Events published from now on schedule the next delivery
+            RoomEvent event;
+            if (!coalesce) {
+                List<RoomEvent> all = new ArrayList<>();
+                while ((event = queue.poll()) != null) {
+                    all.add(event);
+                }
+                if (!all.isEmpty()) {
+                    listener.roomsChanged(all);
+                }
+                return;
+            }
+            Map<Integer, RoomEvent> latest = new LinkedHashMap<>();
+            while ((event = queue.poll()) != null) {
+                latest.put(event.getRoom().getNumber(), event);
+            }
+            if (!latest.isEmpty()) {
+                listener.roomsChanged(new ArrayList<>(latest.values()));
+            }
+        }
+    }
+
+    /**
+     * Subscribes a listener that is called on the Swing event thread.
+     * @param listener The listener.
+     */
+    public void subscribe(RoomEventListener listener) {
+        subscribe(listener, SwingUtilities::invokeLater);
+    }
+
+    /**
+     * Subscribes a listener that is called on the given executor.
+     * @param listener The listener.
+     * @param executor Runs the deliveries, one at a time per listener is up to the executor (a direct executor delivers on the publishing thread).
+     */
+    public void subscribe(RoomEventListener listener, Executor executor) {
+        subscribe(listener, executor, true);
+    }
+
+    /**
+     * Subscribes a listener that is called on the given executor.
+     * @param listener The listener.
+     * @param executor Runs the deliveries.
+     * @param coalesce true to get only the latest event of each room in a batch, false to get every event in publishing order.
+     */
+    public void subscribe(RoomEventListener listener, Executor executor, boolean coalesce) {
+        subscriptions.add(new Subscription(listener, executor, coalesce));
+    }
+
+    /**
+     * Removes every subscription of a listener. Batches already scheduled may still arrive.
+     * @param listener The listener.
+     */
+    public void unsubscribe(RoomEventListener listener) {
+        subscriptions.removeIf(subscription -> subscription.listener == listener);
+    }
+
+    /**
+     * Publishes an event to every subscriber.
+     * @param event The event.
+     */
+    public void publish(RoomEvent event) {
+        for (Subscription subscription : subscriptions) {
+            subscription.offer(event);
+        }
+    }
+}
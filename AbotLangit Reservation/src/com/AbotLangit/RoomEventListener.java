@@ -0,0 +1,17 @@
+package com.AbotLangit;
+
+import java.util.List;
+
+/**
+ * This is the RoomEventListener interface
+ * Receives the room events of a RoomEventBus in batches.
+ */
+public interface RoomEventListener {
+    /**
+     * Called with every event published since the last call, at most one event per room
+     * (the latest one), in the order the rooms first changed. A listener subscribed without coalescing
+     * gets all of them, in the order they were published.
+     * @param events The events, never empty.
+     */
+    void roomsChanged(List<RoomEvent> events);
+}
@@ -0,0 +1,98 @@
+package com.AbotLangit;
+
+import java.time.LocalDate;
+
+/**
+ * This is the RoomHold class
+ * Keeps a room free for one desk for a few minutes, between choosing the room and making the reservation.
+ * While it is active nobody else can reserve or hold the room for those nights.
+ * It ends when it expires, when it is released or when the reservation is made with it.
+ */
+public class RoomHold {
+    private final Room room;
+    private final int checkInDay;
+    private final int checkOutDay;
+    private final long expiresAtMillis; // Wall clock time it expires at
+    private volatile boolean active = true;
+    private boolean hidesRoom; // The hold marked the room not available, guarded by the lock stripe of the room
+    private TimerWheel.Timeout timeout; // Ends the hold when it is due
+
+    RoomHold(Room room, int checkInDay, int checkOutDay, long expiresAtMillis) {
+        this.room = room;
+        this.checkInDay = checkInDay;
+        this.checkOutDay = checkOutDay;
+        this.expiresAtMillis = expiresAtMillis;
+    }
+
+    public Room getRoom() {
+        return room;
+    }
+
+    public int getCheckInDay() {
+        return checkInDay;
+    }
+
+    public int getCheckOutDay() {
+        return checkOutDay;
+    }
+
+    public LocalDate getCheckInDate() {
+        return Dates.toLocalDate(checkInDay);
+    }
+
+    public LocalDate getCheckOutDate() {
+        return Dates.toLocalDate(checkOutDay);
+    }
+
+    public long getExpiresAtMillis() {
+        return expiresAtMillis;
+    }
+
+    /**
+     * Tells whether the hold still keeps the room.
+     * @return False once it expired, was released or was turned into a reservation.
+     */
+    public boolean isActive() {
+        return active;
+    }
+
+    /**
+     * Checks if the hold covers at least one night between the two days.
+     * @param startDay The first night as epoch day.
+     * @param endDay The day after the last night as epoch day.
+     * @return true if the ranges overlap.
+     */
+    public boolean overlaps(int startDay, int endDay) {
+        return checkInDay < endDay && startDay < checkOutDay;
+    }
+
+    void end() {
+        active = false;
+    }
+
+    boolean hidesRoom() {
+        return hidesRoom;
+    }
+
+    void setHidesRoom(boolean hidesRoom) {
+        this.hidesRoom = hidesRoom;
+    }
+
+    TimerWheel.Timeout getTimeout() {
+        return timeout;
+    }
+
+    void setTimeout(TimerWheel.Timeout timeout) {
+        this.timeout = timeout;
+    }
+
+    @Override
+    public String toString() {
+        return "RoomHold{" +
+                "room=" + room.getNumber() +
+                ", checkIn=" + Dates.format(Dates.ISO, checkInDay) +
+                ", checkOut=" + Dates.format(Dates.ISO, checkOutDay) +
+                ", active=" + active +
+                '}';
+    }
+}
@@ -0,0 +1,151 @@
+package com.AbotLangit;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This is the RoomIndex class
+ * Looks rooms up by number, by type and by availability without scanning the whole inventory.
+ * The RoomManager keeps it in sync every time a room changes its availability,
+ * so listing the available rooms of a type only touches those rooms.
+ */
+public class RoomIndex {
+    private final Map<Integer, Room> byNumber = new ConcurrentHashMap<>(); // Every room keyed by its number
+    private final Map<String, List<Room>> byType = new LinkedHashMap<>(); // Every room of a type, in inventory order
+    private final Map<String, ConcurrentSkipListMap<Integer, Room>> availableByType = new LinkedHashMap<>(); // Available rooms of a type sorted by number
+    private final Map<String, AtomicInteger> availableCount = new LinkedHashMap<>(); // Size of each availableByType entry, the skip list counts by walking
+
+    /**
+     * Constructor to build the index for the given rooms.
+     * @param rooms The rooms to index.
+     * @throws IllegalArgumentException if two rooms share the same number.
+     */
+    public RoomIndex(Collection<Room> rooms) {
+        for (Room room : rooms) {
+            if (byNumber.putIfAbsent(room.getNumber(), room) != null) {
+                throw new IllegalArgumentException("Duplicate room number: " + room.getNumber());
+            }
+            byType.computeIfAbsent(room.getType(), type -> new ArrayList<>()).add(room);
+            ConcurrentSkipListMap<Integer, Room> available = availableByType.computeIfAbsent(room.getType(), type -> new ConcurrentSkipListMap<>());
+            AtomicInteger count = availableCount.computeIfAbsent(room.getType(), type -> new AtomicInteger());
+            if (room.isAvailable()) {
+                available.put(room.getNumber(), room);
+                count.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Finds a room by its number.
+     * @param number The room number.
+     * @return The room or null if there is no room with that number.
+     */
+    public Room get(int number) {
+        return byNumber.get(number);
+    }
+
+    /**
+     * Retrieves the room types in the order they first appear in the inventory.
+     * @return List of room types.
+     */
+    public List<String> getTypes() {
+        return new ArrayList<>(byType.keySet());
+    }
+
+    /**
+     * Retrieves every room of a type.
+     * @param type The room type.
+     * @return Unmodifiable list of rooms, empty for an unknown type.
+     */
+    public List<Room> getRoomsOfType(String type) {
+        List<Room> rooms = byType.get(type);
+        return rooms == null ? Collections.emptyList() : Collections.unmodifiableList(rooms);
+    }
+
+    /**
+     * Counts the rooms of a type, without a list around them for callers that only need the number.
+     * @param type The room type.
+     * @return The number of rooms, 0 for an unknown type.
+     */
+    public int countOfType(String type) {
+        List<Room> rooms = byType.get(type);
+        return rooms == null ? 0 : rooms.size();
+    }
+
+    /**
+     * Retrieves the available rooms of a type sorted by room number.
+     * @param type The room type.
+     * @return Unmodifiable live view of the available rooms, empty for an unknown type.
+     */
+    public Collection<Room> getAvailableRoomsOfType(String type) {
+        ConcurrentSkipListMap<Integer, Room> available = availableByType.get(type);
+        return available == null ? Collections.emptyList() : Collections.unmodifiableCollection(available.values());
+    }
+
+    /**
+     * Retrieves every available room grouped by type.
+     * @return List of available rooms.
+     */
+    public List<Room> getAvailableRooms() {
+        List<Room> rooms = new ArrayList<>();
+        for (ConcurrentSkipListMap<Integer, Room> available : availableByType.values()) {
+            rooms.addAll(available.values());
+        }
+        return rooms;
+    }
+
+    /**
+     * Retrieves the types that still have at least one available room.
+     * @return List of room types.
+     */
+    public List<String> getAvailableTypes() {
+        List<String> types = new ArrayList<>();
+        for (Map.Entry<String, ConcurrentSkipListMap<Integer, Room>> entry : availableByType.entrySet()) {
+            if (!entry.getValue().isEmpty()) {
+                types.add(entry.getKey());
+            }
+        }
+        return types;
+    }
+
+    /**
+     * Counts the available rooms of a type.
+     * @param type The room type.
+     * @return The number of available rooms.
+     */
+    public int countAvailable(String type) {
+        AtomicInteger count = availableCount.get(type);
+        return count == null ? 0 : count.get();
+    }
+
+    /**
+     * Updates the availability index after a room was marked available or not.
+     * Must be called by the RoomManager whenever it changes Room.setAvailable.
+     * @param room The room that changed.
+     */
+    public void update(Room room) {
+        ConcurrentSkipListMap<Integer, Room> available = availableByType.get(room.getType());
+        if (available == null) {
+            return; // Not one of our rooms
+        }
+        AtomicInteger count = availableCount.get(room.getType());
+        if (room.isAvailable()) {
+            if (available.put(room.getNumber(), room) == null) {
+                count.incrementAndGet();
+            }
+        } else if (available.remove(room.getNumber()) != null) {
+            count.decrementAndGet();
+        }
+    }
+
+    public int size() {
+        return byNumber.size();
+    }
+}
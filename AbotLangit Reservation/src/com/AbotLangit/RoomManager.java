@@ -1,8 +1,25 @@
 package com.AbotLangit;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.Date;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * This is the RoomManager class
@@ -10,14 +27,49 @@ import java.util.List;
  * and retrieve information about rooms which are used in Reservation and availability.
  */
 public class RoomManager {
+    private static final TimerWheel HOLD_TIMER = new TimerWheel("room-holds", 10, TimeUnit.MILLISECONDS); // Ends the holds of every RoomManager on one thread
+
     private List<Room> rooms; // List to store all rooms managed by this RoomManager
+    private RoomIndex index; // Looks rooms up by number, type and availability without scanning the list
+    private final ReentrantLock[] locks = createLocks(); // Lock stripes, a room always maps to the same stripe
+    private volatile ReservationJournal journal; // Durable log of reservations, null when running in memory only
+    private volatile boolean confirmBeforeSaved; // Confirm changes before the journal has them on disk, off unless set
+    private volatile RecoveryReport recovery = RecoveryReport.EMPTY; // What openJournal found
+    private long skippedRecords; // Recovered bookings and releases for unknown rooms, only touched by the thread opening the journal
+    private MappedRoomInventory inventory; // Snapshot the rooms were loaded from, null for rooms built in code
+    private final RoomEventBus eventBus = new RoomEventBus(); // Tells open views which rooms changed
+    private volatile PricingEngine pricingEngine = PricingEngine.FLAT; // Quotes the total price of every reservation
+    private volatile AvailabilitySearch search; // Cheapest free rooms on the common ForkJoinPool, made by the first search
+    private final ReservationMetrics metrics = new ReservationMetrics(); // Counts and times reservations and searches
+    private volatile RoomSnapshot snapshot; // Null until a view asks, then brought up to date by the next view that asks
+    private final Object snapshotBuild = new Object(); // Lets only one caller build or update the snapshot
+    private volatile boolean snapshotStarted; // Changed rooms are tracked for the snapshot from now on
+    private final List<Set<Room>> snapshotChanged = createChangedSets(locks.length); // Rooms of each stripe changed since the snapshot read them, used under the stripe lock
+    private final AtomicIntegerArray snapshotDirty = new AtomicIntegerArray(locks.length); // 1 for a stripe with changed rooms, so readers skip the clean ones
+    private final CustomerIndex customers = new CustomerIndex(); // Bookings by contact number and name, filled in with the first lookup
+    private final Object customersBuild = new Object(); // Lets only one caller fill in the customer index
+    private volatile boolean customersStarted; // Bookings go into the customer index from now on
+    private volatile boolean customersReady; // Every booking made before the first lookup is in the customer index
+    private final NightOccupancy occupancy = new NightOccupancy(); // Booked rooms of each type per night, counted from the first surge quote
+    private final Object occupancyBuild = new Object(); // Lets only one caller count the bookings already made
+    private final boolean[] occupancyCounted = new boolean[locks.length]; // Stripes whose bookings are counted, used under the stripe lock
+    private volatile boolean occupancyReady; // Every stripe is counted
 
     /**
      * Constructor to initialize the RoomManager with some predefined rooms.
      * Initializes single, double, and VIP rooms with their respective types, prices, and numbers.
      */
     public RoomManager() {
-        rooms = new ArrayList<>();
+        this(defaultRooms());
+    }
+
+    /**
+     * Builds the predefined rooms: single, double, and VIP rooms with their respective types, prices, and numbers.
+     * Used for a new hotel without a snapshot, without making a whole RoomManager just to read them.
+     * @return A new list of new rooms.
+     */
+    public static List<Room> defaultRooms() {
+        List<Room> rooms = new ArrayList<>();
         // Initialize rooms with some data
         // Room Type/Price/Room number format
         // For Single rooms
@@ -32,6 +84,58 @@ public class RoomManager {
         rooms.add(new Room("VIP", 4500, 8));
         rooms.add(new Room("VIP", 4500, 9));
         rooms.add(new Room("VIP", 4500, 10));
+        return rooms;
+    }
+
+    /**
+     * Constructor to initialize the RoomManager with the given inventory of rooms.
+     * @param rooms The rooms to manage.
+     */
+    public RoomManager(List<Room> rooms) {
+        this.rooms = new ArrayList<>(rooms);
+        takeIn(this.rooms);
+        index = new RoomIndex(this.rooms);
+    }
+
+    /**
+     * Keeps the rooms in the store holding exactly them, as loaded from a snapshot, or moves them into a new store
+     * sized to them, so the arrays behind the rooms belong to this RoomManager alone.
+     */
+    private static void takeIn(List<Room> rooms) {
+        OccupancyStore common = rooms.isEmpty() ? null : rooms.get(0).getStore();
+        for (Room room : rooms) {
+            if (room.getStore() != common) {
+                common = null;
+                break;
+            }
+        }
+        if (common != null && common.size() == rooms.size()) {
+            return;
+        }
+        OccupancyStore store = new OccupancyStore(rooms.size());
+        for (Room room : rooms) {
+            room.moveTo(store);
+        }
+    }
+
+    /**
+     * Opens the reservation data in a directory. If there is a snapshot, the rooms come straight from the
+     * memory-mapped file and availability queries work right away, each room loading its bookings only when touched.
+     * Otherwise the default rooms are used. The journal is replayed on top and stays open for new reservations.
+     * The metrics are registered over JMX under the path of the directory until close.
+     * @param dataDirectory The directory holding the snapshots and journal, created if missing.
+     * @param defaultRooms The rooms to start with when there is no snapshot yet.
+     * @return The RoomManager with every recovered reservation.
+     * @throws IOException if the files can't be read or opened.
+     */
+    public static RoomManager open(Path dataDirectory, List<Room> defaultRooms) throws IOException {
+        Files.createDirectories(dataDirectory);
+        MappedRoomInventory inventory = new ReservationSnapshot(dataDirectory).map();
+        RoomManager roomManager = new RoomManager(inventory != null ? inventory.createRooms() : defaultRooms);
+        roomManager.inventory = inventory;
+        roomManager.openJournal(dataDirectory);
+        roomManager.metrics.register(dataDirectory.toAbsolutePath().normalize().toString());
+        return roomManager;
     }
 
     /**
@@ -42,18 +146,70 @@ public class RoomManager {
         return rooms;
     }
 
+    /**
+     * Retrieves the index used to look rooms up by number, type and availability.
+     * @return The RoomIndex of this RoomManager.
+     */
+    public RoomIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * Finds a room by its number.
+     * @param number The room number.
+     * @return The Room or null if there is no such room.
+     */
+    public Room getRoom(int number) {
+        return index.get(number);
+    }
+
     /**
      * Retrieves a list of available room types (e.g., "Single", "Double", "VIP").
+     * Each type is listed once if it still has at least one available room.
      * @return List of available room types as strings.
      */
     public List<String> getAvailableRoomTypes() {
-        List<String> availableRoomTypes = new ArrayList<>();
-        for (Room room : rooms) {
-            if (room.isAvailable()) {
-                availableRoomTypes.add(room.getType());
-            }
+        return index.getAvailableTypes();
+    }
+
+    /**
+     * Creates the lock stripes, a few per core so that bookings of different rooms rarely wait on each other.
+     * @return The array of locks, its length is a power of two.
+     */
+    private static ReentrantLock[] createLocks() {
+        int stripes = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors()) * 4 - 1) << 1;
+        ReentrantLock[] locks = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        return locks;
+    }
+
+    /**
+     * Creates one empty set of changed rooms per lock stripe.
+     * @param stripes The number of lock stripes.
+     * @return The list of sets.
+     */
+    private static List<Set<Room>> createChangedSets(int stripes) {
+        List<Set<Room>> sets = new ArrayList<>(stripes);
+        for (int i = 0; i < stripes; i++) {
+            sets.add(new HashSet<>());
         }
-        return availableRoomTypes;
+        return sets;
+    }
+
+    /**
+     * Finds the lock stripe that guards a room.
+     * @param room The room.
+     * @return The lock of that room.
+     */
+    private ReentrantLock lockFor(Room room) {
+        return locks[stripeOf(room)];
+    }
+
+    private int stripeOf(Room room) {
+        int hash = room.getNumber() * 0x9E3779B9; // Spread consecutive room numbers over the stripes
+        return (hash ^ (hash >>> 16)) & (locks.length - 1);
     }
 
     /**
@@ -66,47 +222,1388 @@ public class RoomManager {
      * @param checkInDate The check-in date.
      * @param checkOutDate The check-out date.
      * @param guestCount The number of guests staying in the room.
+     * @throws IllegalStateException if the room is already booked or held for some of the nights.
      */
-    public void reserveRoom(Room room, String customerName, String contactNumber, Date checkInDate, Date checkOutDate, int guestCount) {
-        room.setCustomerName(customerName);
-        room.setContactNumber(contactNumber);
-        room.setCheckInDate(checkInDate);
-        room.setCheckOutDate(checkOutDate);
-        room.setGuestCount(guestCount);
-        room.setAvailable(false);
+    public void reserveRoom(Room room, String customerName, String contactNumber, LocalDate checkInDate, LocalDate checkOutDate, int guestCount) {
+        ReservationResult result = tryReserve(room, customerName, contactNumber, checkInDate, checkOutDate, guestCount);
+        if (!result.isReserved()) {
+            throw new IllegalStateException(result.getStatus() == ReservationResult.Status.HELD
+                    ? "Room " + room.getNumber() + " is held by another desk"
+                    : "Room " + room.getNumber() + " is already booked: " + result.getBooking());
+        }
+    }
 
-        // Calculate and set total price
-        int duration = calculateDuration(checkInDate, checkOutDate);
-        double totalPrice = room.getPrice() * duration * guestCount;
-        room.setTotalPrice(totalPrice);
+    /**
+     * Atomically checks the room calendar and reserves the room if every night is free.
+     * Only the lock stripe of the room is held, so bookings of other rooms go on in parallel
+     * and two callers can never both get the same night.
+     * @param room The Room object to reserve.
+     * @param customerName The name of the customer reserving the room.
+     * @param contactNumber The contact number of the customer.
+     * @param checkInDate The check-in date.
+     * @param checkOutDate The check-out date.
+     * @param guestCount The number of guests staying in the room.
+     * @return The committed booking, or a conflict with the booking that is in the way.
+     */
+    public ReservationResult tryReserve(Room room, String customerName, String contactNumber, LocalDate checkInDate, LocalDate checkOutDate, int guestCount) {
+        return tryReserve(room, customerName, contactNumber, Dates.toEpochDay(checkInDate), Dates.toEpochDay(checkOutDate), guestCount);
     }
 
     /**
-     * Retrieves a list of all available rooms.
-     * @return List of Room objects that are currently available.
+     * Same as tryReserve with dates, for callers that already have epoch days.
+     * @param room The Room object to reserve.
+     * @param customerName The name of the customer reserving the room.
+     * @param contactNumber The contact number of the customer.
+     * @param checkInDay The check-in date as epoch day.
+     * @param checkOutDay The check-out date as epoch day.
+     * @param guestCount The number of guests staying in the room.
+     * @return The committed booking, or a conflict with the booking that is in the way.
      */
-    public List<Room> getAvailableRooms() {
-        List<Room> availableRooms = new ArrayList<>();
-        for (Room room : rooms) {
+    public ReservationResult tryReserve(Room room, String customerName, String contactNumber, int checkInDay, int checkOutDay, int guestCount) {
+        long start = System.nanoTime();
+        ReservationResult result = reserve(room, customerName, contactNumber, checkInDay, checkOutDay, guestCount, null);
+        metrics.recordReserve(result.getStatus(), System.nanoTime() - start);
+        return result;
+    }
+
+    /**
+     * Reserves the room and nights of a hold, which is the only one allowed to while the hold is active.
+     * The hold ends with the reservation. If it already expired the room is reserved like any other, if still free.
+     * @param hold The hold to turn into a booking.
+     * @param customerName The name of the customer reserving the room.
+     * @param contactNumber The contact number of the customer.
+     * @param guestCount The number of guests staying in the room.
+     * @return The committed booking, or why it could not be made.
+     */
+    public ReservationResult tryReserve(RoomHold hold, String customerName, String contactNumber, int guestCount) {
+        long start = System.nanoTime();
+        ReservationResult result = reserve(hold.getRoom(), customerName, contactNumber, hold.getCheckInDay(), hold.getCheckOutDay(), guestCount, hold);
+        metrics.recordReserve(result.getStatus(), System.nanoTime() - start);
+        return result;
+    }
+
+    private ReservationResult reserve(Room room, String customerName, String contactNumber, int checkInDay, int checkOutDay, int guestCount, RoomHold own) {
+        // Quote the total price outside of the lock
+        double totalPrice = quote(room, checkInDay, checkOutDay - checkInDay, guestCount);
+        Booking booking = new Booking(room.getNumber(), customerName, contactNumber, checkInDay, checkOutDay, guestCount, totalPrice);
+
+        CompletableFuture<Void> saved = null;
+        ReentrantLock lock = lockFor(room);
+        lock.lock();
+        try {
+            ReservationResult taken = findTaken(room, checkInDay, checkOutDay, own);
+            if (taken != null) {
+                return taken;
+            }
+            ReservationJournal currentJournal = writableJournal();
+            commit(room, booking);
+            if (currentJournal != null) {
+                // Only queues the record, the journal thread does the disk work. Queued under the lock
+                // so the journal has the bookings of a room in the order they were made
+                saved = currentJournal.append(booking);
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (own != null && own.getTimeout() != null) {
+            own.getTimeout().cancel();
+        }
+        try {
+            awaitSaved(saved); // Outside the lock, other bookings of the stripe go into the same fsync
+        } catch (UncheckedIOException e) {
+            takeBack(room, booking);
+            throw e;
+        }
+        eventBus.publish(new RoomEvent(RoomEvent.Type.RESERVED, room, booking));
+        return ReservationResult.reserved(room, booking);
+    }
+
+    /**
+     * Checks whether a booking or another desk's hold is in the way of a stay.
+     * Must be called with the lock stripe of the room held.
+     * @param room The room.
+     * @param checkInDay The check-in date as epoch day.
+     * @param checkOutDay The check-out date as epoch day.
+     * @param own The hold of the caller, which is not in the way, or null.
+     * @return The conflict or held result, or null if the room is free for the stay.
+     */
+    private ReservationResult findTaken(Room room, int checkInDay, int checkOutDay, RoomHold own) {
+        Booking conflict = room.getCalendar().findOverlap(checkInDay, checkOutDay);
+        if (conflict != null) {
+            return ReservationResult.conflict(room, conflict);
+        }
+        RoomHold held = room.getCalendar().findHold(checkInDay, checkOutDay);
+        if (held != null && held != own) {
+            return ReservationResult.held(room);
+        }
+        return null;
+    }
+
+    /**
+     * Puts a booking in the room and shows it as the current guest.
+     * Must be called with the lock stripe of the room held, after findTaken found nothing in the way.
+     * @param room The room.
+     * @param booking The booking.
+     */
+    private void commit(Room room, Booking booking) {
+        RoomHold held = room.getCalendar().findHold(booking.getCheckInDay(), booking.getCheckOutDay());
+        if (held != null) {
+            room.getCalendar().removeHold(held); // The hold of the caller turns into the booking
+            held.end();
+        }
+        // Record the stay in the room calendar so date range searches see it
+        room.getCalendar().add(booking);
+        if (countsOccupancy(room)) {
+            occupancy.add(room.getType(), booking);
+        }
+        show(room, booking);
+        for (RoomHold other : room.getCalendar().getHolds()) {
+            other.setHidesRoom(false); // The booking keeps the room not available once they end
+        }
+        if (customersStarted) {
+            customers.add(booking);
+        }
+        markSnapshot(room);
+    }
+
+    /**
+     * Shows a booking as the current guest of a room, or the room as free when there is none.
+     * A room with no bookings left stays not available while a hold keeps it.
+     * Must be called with the lock stripe of the room held.
+     * @param room The room.
+     * @param booking The booking to show, or null.
+     */
+    private void show(Room room, Booking booking) {
+        if (booking != null) {
+            room.setCustomerName(booking.getCustomerName());
+            room.setContactNumber(booking.getContactNumber());
+            room.setCheckInDay(booking.getCheckInDay());
+            room.setCheckOutDay(booking.getCheckOutDay());
+            room.setGuestCount(booking.getGuestCount());
+            room.setTotalPrice(booking.getTotalPrice());
+            room.setAvailable(false);
+        } else {
+            room.setCustomerName(null);
+            room.setContactNumber(null);
+            room.setCheckInDay(Dates.NO_DAY);
+            room.setCheckOutDay(Dates.NO_DAY);
+            room.setGuestCount(0);
+            room.setTotalPrice(0);
+            List<RoomHold> holds = room.getCalendar().getHolds();
+            room.setAvailable(holds.isEmpty());
+            if (!holds.isEmpty()) {
+                holds.get(0).setHidesRoom(true); // Makes the room available again when it ends
+            }
+        }
+        index.update(room);
+    }
+
+    /**
+     * Retrieves the journal to save a change in, before the change is made.
+     * Must be called with the lock stripe of the room held.
+     * @return The journal, or null when running without one.
+     * @throws UncheckedIOException if the journal failed before, nothing can be saved any more.
+     */
+    private ReservationJournal writableJournal() {
+        ReservationJournal currentJournal = journal;
+        if (currentJournal != null && currentJournal.getFailure() != null) {
+            throw new UncheckedIOException("The journal failed, no change can be saved", currentJournal.getFailure());
+        }
+        return currentJournal;
+    }
+
+    /**
+     * Waits until the journal has a change on disk, so the caller only confirms what a crash can't take back.
+     * @param saved The future of the journal record, null when running without a journal.
+     * @throws UncheckedIOException if the journal could not write the record. The caller takes the change back
+     * and must not confirm it.
+     */
+    private void awaitSaved(CompletableFuture<Void> saved) {
+        if (saved != null && !confirmBeforeSaved) {
+            join(saved);
+        }
+    }
+
+    /**
+     * Takes a booking back out of its room after the journal failed to save it, so the rooms show only what is on disk.
+     * A booking released meanwhile is left alone. A hold that turned into the booking stays ended.
+     * @param room The room.
+     * @param booking The booking that was not saved.
+     */
+    private void takeBack(Room room, Booking booking) {
+        ReentrantLock lock = lockFor(room);
+        lock.lock();
+        try {
+            Booking current = room.getCalendar().startingOn(booking.getCheckInDay());
+            if (current == null || !sameStay(current, booking)) {
+                return;
+            }
+            applyRelease(room, current, null);
+        } finally {
+            lock.unlock();
+        }
+        eventBus.publish(new RoomEvent(RoomEvent.Type.RELEASED, room, booking));
+    }
+
+    private static void join(CompletableFuture<Void> saved) {
+        try {
+            saved.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            throw new UncheckedIOException("The change could not be saved to the journal",
+                    cause instanceof IOException ? (IOException) cause : new IOException(cause));
+        }
+    }
+
+    /**
+     * Cancels a booking and frees all of its nights.
+     * Only what the booking touched is updated: its room in the index, the snapshot and the customer index,
+     * and through a RELEASED event the quote cache and the room lists of open forms.
+     * @param booking The booking as it was made.
+     * @return True if it was cancelled, false if it was cancelled before or is not a booking of these rooms.
+     */
+    public boolean cancel(Booking booking) {
+        return releaseNights(booking, null);
+    }
+
+    /**
+     * Ends a stay early and frees the nights from the new check-out day on.
+     * The guest pays for the nights stayed at the average night price of the booking.
+     * @param booking The booking as it was made.
+     * @param checkOutDate The day the guest leaves.
+     * @return The shortened booking, or null if the booking was cancelled or changed before.
+     * @throws IllegalArgumentException if the day is not after the check-in and before the booked check-out.
+     */
+    public Booking checkOutEarly(Booking booking, LocalDate checkOutDate) {
+        return checkOutEarly(booking, Dates.toEpochDay(checkOutDate));
+    }
+
+    /**
+     * Same as checkOutEarly with a date, for callers that already have epoch days.
+     * @param booking The booking as it was made.
+     * @param checkOutDay The day the guest leaves as epoch day.
+     * @return The shortened booking, or null if the booking was cancelled or changed before.
+     * @throws IllegalArgumentException if the day is not after the check-in and before the booked check-out.
+     */
+    public Booking checkOutEarly(Booking booking, int checkOutDay) {
+        if (checkOutDay <= booking.getCheckInDay() || checkOutDay >= booking.getCheckOutDay()) {
+            throw new IllegalArgumentException("Early check-out must be after " + Dates.format(Dates.ISO, booking.getCheckInDay())
+                    + " and before " + Dates.format(Dates.ISO, booking.getCheckOutDay()));
+        }
+        Booking shortened = shorten(booking, checkOutDay);
+        return releaseNights(booking, shortened) ? shortened : null;
+    }
+
+    /**
+     * Finds the booking of a room that checks in on a day, to cancel or check out early.
+     * @param room The room.
+     * @param checkInDay The check-in day as epoch day.
+     * @return The booking or null if none checks in that day.
+     */
+    public Booking findBooking(Room room, int checkInDay) {
+        ReentrantLock lock = lockFor(room);
+        lock.lock();
+        try {
+            return room.getCalendar().startingOn(checkInDay);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes a booking off its room, or puts back a shorter one, if the booking is still there as the caller knows it.
+     * @param booking The booking as the caller knows it.
+     * @param shortened The booking to keep for the first nights, or null to cancel.
+     * @return True if the nights were freed.
+     */
+    private boolean releaseNights(Booking booking, Booking shortened) {
+        Room room = index.get(booking.getRoomNumber());
+        if (room == null) {
+            return false;
+        }
+        CompletableFuture<Void> saved = null;
+        ReentrantLock lock = lockFor(room);
+        lock.lock();
+        try {
+            Booking current = room.getCalendar().startingOn(booking.getCheckInDay());
+            if (current == null || !sameStay(current, booking)) {
+                return false; // Released before, by another desk or an earlier call
+            }
+            ReservationJournal currentJournal = writableJournal();
+            applyRelease(room, current, shortened);
+            if (currentJournal != null) {
+                saved = currentJournal.appendRelease(current, shortened == null ? current.getCheckInDay() : shortened.getCheckOutDay());
+            }
+        } finally {
+            lock.unlock();
+        }
+        try {
+            awaitSaved(saved);
+        } catch (UncheckedIOException e) {
+            putBack(room, booking, shortened);
+            throw e;
+        }
+        eventBus.publish(new RoomEvent(RoomEvent.Type.RELEASED, room, booking));
+        return true;
+    }
+
+    /**
+     * Puts a released booking back after the journal failed to save the release, if its nights are still free.
+     * @param room The room.
+     * @param booking The booking as it was before the release.
+     * @param shortened The shorter part that was kept, or null if it was cancelled.
+     */
+    private void putBack(Room room, Booking booking, Booking shortened) {
+        ReentrantLock lock = lockFor(room);
+        lock.lock();
+        try {
+            Booking current = room.getCalendar().startingOn(booking.getCheckInDay());
+            if (shortened == null ? current != null : current == null || !sameStay(current, shortened)) {
+                return; // Changed again meanwhile
+            }
+            if (current != null) {
+                applyRelease(room, current, null);
+            }
+            if (findTaken(room, booking.getCheckInDay(), booking.getCheckOutDay(), null) != null) {
+                if (current != null) {
+                    commit(room, current); // The freed nights were taken, keep what was there
+                }
+                return;
+            }
+            commit(room, booking);
+        } finally {
+            lock.unlock();
+        }
+        eventBus.publish(new RoomEvent(RoomEvent.Type.RESERVED, room, booking));
+    }
+
+    /**
+     * Swaps a booking for its shorter part, or takes it off, and updates the room where it is shown.
+     * Must be called with the lock stripe of the room held.
+     * @param room The room.
+     * @param current The booking in the calendar.
+     * @param shortened The booking to keep, or null.
+     */
+    private void applyRelease(Room room, Booking current, Booking shortened) {
+        room.getCalendar().remove(current.getCheckInDay());
+        if (shortened != null) {
+            room.getCalendar().add(shortened);
+        }
+        if (customersStarted) {
+            customers.remove(current);
+            if (shortened != null) {
+                customers.add(shortened);
+            }
+        }
+        countRelease(room, current, shortened);
+        if (room.isAvailable() || room.getCheckInDay() != current.getCheckInDay()) {
+            return; // The room shows another booking, which is still there
+        }
+        show(room, shortened != null ? shortened : room.getCalendar().getLatest());
+        markSnapshot(room);
+    }
+
+    private static boolean sameStay(Booking a, Booking b) {
+        return a.getCheckOutDay() == b.getCheckOutDay()
+                && a.getGuestCount() == b.getGuestCount()
+                && Objects.equals(a.getCustomerName(), b.getCustomerName())
+                && Objects.equals(a.getContactNumber(), b.getContactNumber());
+    }
+
+    /**
+     * Cuts a booking short, pricing the nights kept at the average night price of the booking.
+     * @param booking The booking.
+     * @param checkOutDay The new check-out day as epoch day.
+     * @return The shorter booking.
+     */
+    private static Booking shorten(Booking booking, int checkOutDay) {
+        double totalPrice = Math.round(booking.getTotalPrice() * (checkOutDay - booking.getCheckInDay()) / booking.getNights() * 100) / 100.0;
+        return new Booking(booking.getRoomNumber(), booking.getCustomerName(), booking.getContactNumber(),
+                booking.getCheckInDay(), checkOutDay, booking.getGuestCount(), totalPrice);
+    }
+
+    /**
+     * Reserves every room of a group, or none of them.
+     * Prices are quoted and the rooms checked without any lock first, so a group that can't go through
+     * fails without holding anyone up. Then the lock stripes of the rooms are taken in ascending order,
+     * which can't deadlock with another group or with single bookings that take one stripe,
+     * and held only while the rooms are checked again and the bookings put in.
+     * The bookings go to the journal as one record, so a restart replays all of them or none.
+     * @param group The rooms and stays to reserve.
+     * @return Every booking, or the first room that was in the way.
+     * @throws IllegalArgumentException if the group is empty or books a room twice for the same night.
+     */
+    public GroupReservationResult tryReserveGroup(GroupReservation group) {
+        long start = System.nanoTime();
+        GroupReservationResult result = reserveGroup(group);
+        metrics.recordGroup(result.getStatus(), group.size(), System.nanoTime() - start);
+        return result;
+    }
+
+    private GroupReservationResult reserveGroup(GroupReservation group) {
+        List<GroupReservation.Item> items = group.getItems();
+        if (items.isEmpty()) {
+            throw new IllegalArgumentException("A group needs at least one room");
+        }
+        checkNoDoubleBooking(items);
+
+        List<Booking> bookings = new ArrayList<>(items.size());
+        for (GroupReservation.Item item : items) {
+            Room room = item.getRoom();
+            // Fail fast on a room that is already taken, without taking a lock
+            if (!room.getCalendar().isFree(item.getCheckInDay(), item.getCheckOutDay())) {
+                ReservationResult taken = findTaken(room, item.getCheckInDay(), item.getCheckOutDay(), null);
+                if (taken != null) {
+                    return GroupReservationResult.failed(taken);
+                }
+            }
+            double totalPrice = quote(room, item.getCheckInDay(), item.getCheckOutDay() - item.getCheckInDay(), item.getGuestCount());
+            bookings.add(new Booking(room.getNumber(), group.getCustomerName(), group.getContactNumber(),
+                    item.getCheckInDay(), item.getCheckOutDay(), item.getGuestCount(), totalPrice));
+        }
+
+        int[] stripes = new int[items.size()];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = stripeOf(items.get(i).getRoom());
+        }
+        Arrays.sort(stripes);
+        CompletableFuture<Void> saved = null;
+        int locked = 0;
+        try {
+            for (int i = 0; i < stripes.length; i++) {
+                if (i == 0 || stripes[i] != stripes[i - 1]) {
+                    locks[stripes[i]].lock();
+                    locked = i + 1;
+                }
+            }
+            for (GroupReservation.Item item : items) {
+                ReservationResult taken = findTaken(item.getRoom(), item.getCheckInDay(), item.getCheckOutDay(), null);
+                if (taken != null) {
+                    return GroupReservationResult.failed(taken); // Nothing was put in yet
+                }
+            }
+            ReservationJournal currentJournal = writableJournal();
+            for (int i = 0; i < items.size(); i++) {
+                commit(items.get(i).getRoom(), bookings.get(i));
+            }
+            if (currentJournal != null) {
+                saved = currentJournal.append(bookings); // Under the locks, in order with the other bookings of the rooms
+            }
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                if (i == 0 || stripes[i] != stripes[i - 1]) {
+                    locks[stripes[i]].unlock();
+                }
+            }
+        }
+
+        try {
+            awaitSaved(saved);
+        } catch (UncheckedIOException e) {
+            for (int i = 0; i < items.size(); i++) {
+                takeBack(items.get(i).getRoom(), bookings.get(i)); // The group was one record, none of it is on disk
+            }
+            throw e;
+        }
+        for (int i = 0; i < items.size(); i++) {
+            eventBus.publish(new RoomEvent(RoomEvent.Type.RESERVED, items.get(i).getRoom(), bookings.get(i)));
+        }
+        return GroupReservationResult.reserved(bookings);
+    }
+
+    /**
+     * Makes sure a group doesn't book one room twice for the same night, which would fail half way through.
+     * @param items The rooms of the group.
+     */
+    private static void checkNoDoubleBooking(List<GroupReservation.Item> items) {
+        List<GroupReservation.Item> sorted = new ArrayList<>(items);
+        sorted.sort((a, b) -> a.getRoom().getNumber() != b.getRoom().getNumber()
+                ? Integer.compare(a.getRoom().getNumber(), b.getRoom().getNumber())
+                : Integer.compare(a.getCheckInDay(), b.getCheckInDay()));
+        for (int i = 1; i < sorted.size(); i++) {
+            GroupReservation.Item previous = sorted.get(i - 1);
+            GroupReservation.Item item = sorted.get(i);
+            if (previous.getRoom().getNumber() == item.getRoom().getNumber() && item.getCheckInDay() < previous.getCheckOutDay()) {
+                throw new IllegalArgumentException("Room " + item.getRoom().getNumber() + " is in the group twice for the same night");
+            }
+        }
+    }
+
+    /**
+     * Same as hold with epoch days, for callers that have dates.
+     * @param room The room to hold.
+     * @param checkInDate The check-in date.
+     * @param checkOutDate The check-out date.
+     * @param ttl How long the hold lasts.
+     * @return The hold, or null if the room is booked or held for some of the nights.
+     */
+    public RoomHold hold(Room room, LocalDate checkInDate, LocalDate checkOutDate, Duration ttl) {
+        return hold(room, Dates.toEpochDay(checkInDate), Dates.toEpochDay(checkOutDate), ttl);
+    }
+
+    /**
+     * Keeps a room for a few minutes so nobody else can reserve or hold it for those nights,
+     * for example while a guest fills in the reservation form. The room is shown as not available meanwhile.
+     * The hold ends by itself after the ttl, through the shared TimerWheel, unless it is released or reserved first.
+     * @param room The room to hold.
+     * @param checkInDay The check-in date as epoch day.
+     * @param checkOutDay The check-out date as epoch day.
+     * @param ttl How long the hold lasts.
+     * @return The hold, or null if the room is booked or held for some of the nights.
+     */
+    public RoomHold hold(Room room, int checkInDay, int checkOutDay, Duration ttl) {
+        if (checkOutDay <= checkInDay) {
+            throw new IllegalArgumentException("A hold needs at least one night");
+        }
+        RoomHold hold = new RoomHold(room, checkInDay, checkOutDay, System.currentTimeMillis() + ttl.toMillis());
+        ReentrantLock lock = lockFor(room);
+        lock.lock();
+        try {
+            if (!room.getCalendar().isFree(checkInDay, checkOutDay)) {
+                return null;
+            }
+            room.getCalendar().addHold(hold);
             if (room.isAvailable()) {
-                availableRooms.add(room);
+                room.setAvailable(false);
+                index.update(room);
+                hold.setHidesRoom(true);
+                markSnapshot(room);
             }
+            // Scheduled under the lock so a release right after always finds the timeout to cancel
+            hold.setTimeout(HOLD_TIMER.schedule(() -> endHold(hold), ttl.toNanos(), TimeUnit.NANOSECONDS));
+        } finally {
+            lock.unlock();
         }
-        return availableRooms;
+        eventBus.publish(new RoomEvent(RoomEvent.Type.HELD, room, hold));
+        return hold;
+    }
+
+    /**
+     * Ends a hold before it expires, for example when the guest picks another room.
+     * @param hold The hold.
+     * @return True if it was still active.
+     */
+    public boolean release(RoomHold hold) {
+        TimerWheel.Timeout timeout = hold.getTimeout();
+        if (timeout != null) {
+            timeout.cancel();
+        }
+        return endHold(hold);
+    }
+
+    /**
+     * Takes a hold off its room, and makes the room available again if the hold was what kept it from being.
+     * @param hold The hold.
+     * @return True if it was still active.
+     */
+    private boolean endHold(RoomHold hold) {
+        Room room = hold.getRoom();
+        ReentrantLock lock = lockFor(room);
+        lock.lock();
+        try {
+            if (!hold.isActive()) {
+                return false;
+            }
+            hold.end();
+            room.getCalendar().removeHold(hold);
+            if (hold.hidesRoom()) {
+                List<RoomHold> others = room.getCalendar().getHolds();
+                if (others.isEmpty()) {
+                    room.setAvailable(true);
+                    index.update(room);
+                    markSnapshot(room);
+                } else {
+                    others.get(0).setHidesRoom(true); // Another hold keeps the room from being available
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        eventBus.publish(new RoomEvent(RoomEvent.Type.HOLD_ENDED, room, hold));
+        return true;
+    }
+
+    /**
+     * Retrieves a consistent, immutable view of every room as of now.
+     * Readers never lock the rooms while reading a view, and bookings go on while a view is being read.
+     * The first call copies every room once. A change only notes its room in the set of its lock stripe,
+     * and the next call copies the statuses of the noted rooms into a new version, one chunk copy per changed chunk.
+     * @return The latest RoomSnapshot.
+     */
+    public RoomSnapshot snapshot() {
+        RoomSnapshot current = snapshot;
+        if (current != null && !hasSnapshotChanges()) {
+            return current;
+        }
+        synchronized (snapshotBuild) {
+            if (snapshot == null) {
+                buildSnapshot();
+            }
+            snapshot = updateSnapshot(snapshot);
+            return snapshot;
+        }
+    }
+
+    /**
+     * Copies every room into the first snapshot while bookings keep going.
+     * Changes are tracked before the first room is read, so a room changed after it was copied is updated right after.
+     */
+    private void buildSnapshot() {
+        snapshotStarted = true;
+        RoomSnapshot built = RoomSnapshot.empty(rooms);
+        for (int chunk = 0; chunk < built.chunkCount(); chunk++) {
+            int start = built.chunkStart(chunk);
+            RoomStatus[] filled = new RoomStatus[built.chunkLength(chunk)];
+            for (int i = 0; i < filled.length; i++) {
+                Room room = rooms.get(start + i);
+                ReentrantLock lock = lockFor(room);
+                lock.lock();
+                try {
+                    filled[i] = statusOf(room);
+                } finally {
+                    lock.unlock();
+                }
+            }
+            built = built.fill(chunk, filled);
+        }
+        snapshot = built;
+    }
+
+    private boolean hasSnapshotChanges() {
+        for (int stripe = 0; stripe < locks.length; stripe++) {
+            if (snapshotDirty.get(stripe) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reads the rooms changed since the last version, stripe by stripe under the stripe lock, and makes the next version.
+     * Must be called holding snapshotBuild.
+     * @param current The latest version.
+     * @return The next version, or the same one if nothing changed.
+     */
+    private RoomSnapshot updateSnapshot(RoomSnapshot current) {
+        List<Room> changed = new ArrayList<>();
+        List<RoomStatus> statuses = new ArrayList<>();
+        for (int stripe = 0; stripe < locks.length; stripe++) {
+            if (snapshotDirty.get(stripe) == 0) {
+                continue;
+            }
+            locks[stripe].lock();
+            try {
+                Set<Room> stripeChanged = snapshotChanged.get(stripe);
+                for (Room room : stripeChanged) {
+                    changed.add(room);
+                    statuses.add(statusOf(room));
+                }
+                stripeChanged.clear();
+                snapshotDirty.set(stripe, 0);
+            } finally {
+                locks[stripe].unlock();
+            }
+        }
+        if (changed.isEmpty()) {
+            return current;
+        }
+        int[] positions = new int[changed.size()];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = current.positionOf(changed.get(i).getNumber());
+        }
+        return current.with(positions, statuses.toArray(new RoomStatus[0]));
+    }
+
+    /**
+     * Notes that a room changed, for the next snapshot a view asks for. Does nothing until a view asked for one.
+     * Must be called with the lock stripe of the room held; the status itself is read when the snapshot is updated.
+     * @param room The room that changed.
+     */
+    private void markSnapshot(Room room) {
+        if (!snapshotStarted) {
+            return;
+        }
+        int stripe = stripeOf(room);
+        if (snapshotChanged.get(stripe).add(room) && snapshotDirty.get(stripe) == 0) {
+            snapshotDirty.set(stripe, 1);
+        }
+    }
+
+    /**
+     * Finds every booking, past and upcoming, made with a contact number.
+     * @param contactNumber The contact number the guest gives, spaces and dashes are ignored.
+     * @return The bookings in check-in order.
+     */
+    public List<Booking> findBookingsByContact(String contactNumber) {
+        return customerIndex().findByContact(contactNumber);
+    }
+
+    /**
+     * Finds the bookings of customers whose name has a word starting with every word given,
+     * so "dela cr" finds "Juan Dela Cruz". Case and accents don't matter.
+     * @param name The name or the beginning of it.
+     * @param limit The most bookings to return.
+     * @return The matching bookings.
+     */
+    public List<Booking> findBookingsByName(String name, int limit) {
+        return customerIndex().findByName(name, limit);
+    }
+
+    /**
+     * Retrieves the customer index, putting in every booking made so far the first time it is asked for.
+     * Bookings made while it is filled in go in through commit, and each room is read under its lock,
+     * so none is missed and one that goes in twice simply replaces itself.
+     * @return The CustomerIndex of these rooms.
+     */
+    private CustomerIndex customerIndex() {
+        if (!customersReady) {
+            synchronized (customersBuild) {
+                if (!customersReady) {
+                    customersStarted = true;
+                    for (Room room : rooms) {
+                        ReentrantLock lock = lockFor(room);
+                        lock.lock();
+                        try {
+                            for (Booking booking : room.getCalendar().getBookings()) {
+                                customers.add(booking);
+                            }
+                        } finally {
+                            lock.unlock();
+                        }
+                    }
+                    customersReady = true;
+                }
+            }
+        }
+        return customers;
+    }
+
+    private static RoomStatus statusOf(Room room) {
+        return new RoomStatus(room, room.isAvailable() ? 0 : room.getNights());
+    }
+
+    /**
+     * Retrieves the counters and latency histograms of the reservations and searches on these rooms.
+     * @return The ReservationMetrics of this RoomManager.
+     */
+    public ReservationMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Retrieves the bus on which every change to a room is published.
+     * @return The RoomEventBus of this RoomManager.
+     */
+    public RoomEventBus getEventBus() {
+        return eventBus;
+    }
+
+    /**
+     * Changes the price per day of a room. Bookings already made keep their total price.
+     * @param room The room.
+     * @param price The new price per day.
+     */
+    public void changePrice(Room room, double price) {
+        ReentrantLock lock = lockFor(room);
+        lock.lock();
+        try {
+            room.setPrice(price);
+            markSnapshot(room);
+        } finally {
+            lock.unlock();
+        }
+        eventBus.publish(new RoomEvent(RoomEvent.Type.PRICE_CHANGED, room, (Booking) null));
     }
 
     /**
-     * Calculates the duration in days between the check-in and check-out dates.
+     * Retrieves the engine that prices the reservations.
+     * @return The PricingEngine, FLAT unless another one was set.
+     */
+    public PricingEngine getPricingEngine() {
+        return pricingEngine;
+    }
+
+    /**
+     * Replaces the engine that prices the reservations. Bookings already made keep their total price.
+     * @param pricingEngine The new PricingEngine.
+     */
+    public void setPricingEngine(PricingEngine pricingEngine) {
+        if (pricingEngine == null) {
+            throw new IllegalArgumentException("Pricing engine must not be null");
+        }
+        this.pricingEngine = pricingEngine;
+    }
+
+    /**
+     * Quotes the total price of a stay with the current pricing engine and how full the room type is on the nights of the stay.
+     * @param room The room.
+     * @param checkInDay The check-in date as epoch day.
+     * @param nights The number of nights.
+     * @param guests The number of guests.
+     * @return The total price of the stay.
+     */
+    public double quote(Room room, int checkInDay, int nights, int guests) {
+        PricingEngine engine = pricingEngine;
+        double share = 0; // Nothing to count for an engine that doesn't surge
+        if (engine.usesOccupancy()) {
+            share = nightOccupancy().getOccupancy(room.getType(), checkInDay, nights, index.countOfType(room.getType()));
+        }
+        return engine.quote(room, checkInDay, nights, guests, share);
+    }
+
+    /**
+     * Retrieves the booked rooms of each type per night, counting the bookings made so far the first time.
+     * Bookings are only counted when a pricing engine surges, so rooms of a mapped snapshot stay unread until then.
+     * Each stripe is counted under its lock and from then on kept up to date by every booking and release of its rooms,
+     * so a booking made while the counting runs is counted exactly once.
+     * @return The NightOccupancy of these rooms.
+     */
+    private NightOccupancy nightOccupancy() {
+        if (!occupancyReady) {
+            synchronized (occupancyBuild) {
+                if (!occupancyReady) {
+                    List<List<Room>> byStripe = new ArrayList<>(locks.length);
+                    for (int stripe = 0; stripe < locks.length; stripe++) {
+                        byStripe.add(new ArrayList<>());
+                    }
+                    for (Room room : rooms) {
+                        byStripe.get(stripeOf(room)).add(room);
+                    }
+                    for (int stripe = 0; stripe < locks.length; stripe++) {
+                        locks[stripe].lock();
+                        try {
+                            for (Room room : byStripe.get(stripe)) {
+                                for (Booking booking : room.getCalendar().getBookings()) {
+                                    occupancy.add(room.getType(), booking);
+                                }
+                            }
+                            occupancyCounted[stripe] = true;
+                        } finally {
+                            locks[stripe].unlock();
+                        }
+                    }
+                    occupancyReady = true;
+                }
+            }
+        }
+        if (occupancy.isOutdated()) {
+            moveOccupancyForward();
+        }
+        return occupancy;
+    }
+
+    /**
+     * Moves the night occupancy to the nights of the current pricing tables, with every lock stripe held
+     * (in order, like a group reservation) so no booking changes the counts meanwhile. Happens once a week.
+     */
+    private void moveOccupancyForward() {
+        synchronized (occupancyBuild) {
+            if (!occupancy.isOutdated()) {
+                return; // Another caller moved it
+            }
+            int locked = 0;
+            try {
+                for (ReentrantLock lock : locks) {
+                    lock.lock();
+                    locked++;
+                }
+                occupancy.moveForward();
+            } finally {
+                for (int stripe = locked - 1; stripe >= 0; stripe--) {
+                    locks[stripe].unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * Tells whether the bookings of a room are counted in the night occupancy yet.
+     * Must be called with the lock stripe of the room held.
+     */
+    private boolean countsOccupancy(Room room) {
+        return occupancyReady || occupancyCounted[stripeOf(room)];
+    }
+
+    /**
+     * Moves a released booking out of the night occupancy, and its shorter part back in.
+     * Must be called with the lock stripe of the room held.
+     */
+    private void countRelease(Room room, Booking current, Booking shortened) {
+        if (countsOccupancy(room)) {
+            occupancy.remove(room.getType(), current);
+            if (shortened != null) {
+                occupancy.add(room.getType(), shortened);
+            }
+        }
+    }
+
+    /**
+     * Reserves any room of a type that is free for the whole stay.
+     * The search starts at a random room of the type so parallel callers don't all race for the first one,
+     * and moves on to the next free room if another caller got there first.
+     * @param type The room type.
+     * @param customerName The name of the customer reserving the room.
+     * @param contactNumber The contact number of the customer.
      * @param checkInDate The check-in date.
      * @param checkOutDate The check-out date.
-     * @return The duration in days as an integer.
+     * @param guestCount The number of guests staying in the room.
+     * @return The committed booking, or NO_ROOM if every room of the type is taken for some of the nights.
+     */
+    public ReservationResult tryReserveAny(String type, String customerName, String contactNumber, LocalDate checkInDate, LocalDate checkOutDate, int guestCount) {
+        List<Room> candidates = index.getRoomsOfType(type);
+        int size = candidates.size();
+        if (size == 0) {
+            return ReservationResult.noRoom();
+        }
+        int startDay = Dates.toEpochDay(checkInDate);
+        int endDay = Dates.toEpochDay(checkOutDate);
+        int start = ThreadLocalRandom.current().nextInt(size);
+        for (int i = 0; i < size; i++) {
+            Room room = candidates.get((start + i) % size);
+            if (room.getCalendar().isFree(startDay, endDay)) {
+                ReservationResult result = tryReserve(room, customerName, contactNumber, startDay, endDay, guestCount);
+                if (result.isReserved()) {
+                    return result;
+                }
+            }
+        }
+        return ReservationResult.noRoom();
+    }
+
+    /**
+     * Reserves many stays at once, each in any free room of its type, for a bulk import.
+     * Rooms are picked for the whole batch first without any lock, keeping two stays of the batch out of the same nights.
+     * Then each lock stripe with picked rooms is taken once: the picks are checked again, the bookings put in
+     * and queued to the journal as one record, and the whole batch waits once for the disk.
+     * A stay whose room another desk took since it was picked is tried again on its own, like tryReserveAny.
+     * @param types The room type of each stay.
+     * @param stays The stays, valid ones from ReservationService.validate, in the same order as the types.
+     * @return The result of each stay in the same order, the booking or NO_ROOM.
+     * @throws UncheckedIOException if the journal could not save the batch. The bookings whose record
+     * did not reach the disk are taken back out of the rooms.
      */
-    private int calculateDuration(Date checkInDate, Date checkOutDate) {
-        if (checkInDate != null && checkOutDate != null) {
-            long differenceInMillis = checkOutDate.getTime() - checkInDate.getTime();
-            return (int) (differenceInMillis / (1000 * 60 * 60 * 24)); // Calculate duration in days
+    public List<ReservationResult> tryReserveBatch(List<String> types, List<Stay> stays) {
+        long start = System.nanoTime();
+        int count = stays.size();
+        ReservationResult[] results = new ReservationResult[count];
+        Room[] picked = new Room[count];
+        Booking[] bookings = new Booking[count];
+        Map<Room, List<Booking>> claimed = new HashMap<>(); // Stays of this batch in each picked room
+        for (int i = 0; i < count; i++) {
+            Stay stay = stays.get(i);
+            int checkInDay = Dates.toEpochDay(stay.getCheckInDate());
+            int checkOutDay = Dates.toEpochDay(stay.getCheckOutDate());
+            Room room = pickRoom(types.get(i), checkInDay, checkOutDay, claimed);
+            if (room == null) {
+                results[i] = ReservationResult.noRoom();
+                continue;
+            }
+            double totalPrice = quote(room, checkInDay, checkOutDay - checkInDay, stay.getGuests());
+            bookings[i] = new Booking(room.getNumber(), stay.getCustomerName(), stay.getContactNumber(), checkInDay, checkOutDay, stay.getGuests(), totalPrice);
+            picked[i] = room;
+            claimed.computeIfAbsent(room, r -> new ArrayList<>()).add(bookings[i]);
+        }
+
+        List<List<Integer>> byStripe = new ArrayList<>(locks.length);
+        for (int stripe = 0; stripe < locks.length; stripe++) {
+            byStripe.add(new ArrayList<>());
+        }
+        for (int i = 0; i < count; i++) {
+            if (picked[i] != null) {
+                byStripe.get(stripeOf(picked[i])).add(i);
+            }
+        }
+        List<List<Integer>> committed = new ArrayList<>(); // Positions committed under each journal record
+        List<CompletableFuture<Void>> saved = new ArrayList<>();
+        UncheckedIOException failure = null;
+        for (int stripe = 0; stripe < locks.length && failure == null; stripe++) {
+            List<Integer> positions = byStripe.get(stripe);
+            if (positions.isEmpty()) {
+                continue;
+            }
+            List<Integer> done = new ArrayList<>(positions.size());
+            List<Booking> record = new ArrayList<>(positions.size());
+            locks[stripe].lock();
+            try {
+                ReservationJournal currentJournal = writableJournal();
+                for (int i : positions) {
+                    if (picked[i].getCalendar().isFree(bookings[i].getCheckInDay(), bookings[i].getCheckOutDay())) {
+                        commit(picked[i], bookings[i]);
+                        results[i] = ReservationResult.reserved(picked[i], bookings[i]);
+                        done.add(i);
+                        record.add(bookings[i]);
+                    }
+                }
+                committed.add(done);
+                // One record per stripe, under the lock, in order with the other bookings of its rooms
+                saved.add(currentJournal != null && !record.isEmpty() ? currentJournal.append(record) : null);
+            } catch (UncheckedIOException e) {
+                failure = e; // The journal failed, the rest of the batch is not put in
+            } finally {
+                locks[stripe].unlock();
+            }
+        }
+        for (int r = 0; r < saved.size(); r++) {
+            try {
+                awaitSaved(saved.get(r));
+            } catch (UncheckedIOException e) {
+                failure = e;
+                for (int i : committed.get(r)) {
+                    takeBack(picked[i], bookings[i]);
+                }
+                continue;
+            }
+            for (int i : committed.get(r)) {
+                eventBus.publish(new RoomEvent(RoomEvent.Type.RESERVED, picked[i], bookings[i]));
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+
+        long each = (System.nanoTime() - start) / Math.max(1, count);
+        for (int i = 0; i < count; i++) {
+            if (results[i] == null) {
+                // The picked room was taken by another desk meanwhile
+                Stay stay = stays.get(i);
+                results[i] = tryReserveAny(types.get(i), stay.getCustomerName(), stay.getContactNumber(), stay.getCheckInDate(), stay.getCheckOutDate(), stay.getGuests());
+            } else {
+                metrics.recordReserve(results[i].getStatus(), each);
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Picks a room of a type for a stay of a batch: free in its calendar and not picked for those nights by an earlier stay.
+     * The search starts at a random room of the type, like tryReserveAny.
+     * @return The room, or null if none is free.
+     */
+    private Room pickRoom(String type, int checkInDay, int checkOutDay, Map<Room, List<Booking>> claimed) {
+        List<Room> candidates = index.getRoomsOfType(type);
+        int size = candidates.size();
+        if (size == 0) {
+            return null;
+        }
+        int start = ThreadLocalRandom.current().nextInt(size);
+        for (int i = 0; i < size; i++) {
+            Room room = candidates.get((start + i) % size);
+            if (room.getCalendar().isFree(checkInDay, checkOutDay) && !overlapsAny(claimed.get(room), checkInDay, checkOutDay)) {
+                return room;
+            }
+        }
+        return null;
+    }
+
+    private static boolean overlapsAny(List<Booking> bookings, int checkInDay, int checkOutDay) {
+        if (bookings != null) {
+            for (Booking booking : bookings) {
+                if (booking.getCheckInDay() < checkOutDay && checkInDay < booking.getCheckOutDay()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Rebuilds the reservations from the snapshot and journal in a data directory
+     * and from then on journals every new reservation there.
+     * @param dataDirectory The directory holding the snapshots and journal, created if missing.
+     * @return The number of bookings that were recovered.
+     * @throws IOException if the files can't be read or opened.
+     */
+    public long openJournal(Path dataDirectory) throws IOException {
+        if (journal != null) {
+            throw new IllegalStateException("Journal is already open");
+        }
+        Files.createDirectories(dataDirectory);
+        Set<Room> touched = new HashSet<>();
+        skippedRecords = 0;
+        long recovered;
+        if (inventory != null) {
+            recovered = inventory.getBookingCount(); // Already in the rooms, read from the mapped file on demand
         } else {
-            return 0; // Handle case where dates are not set properly
+            // Rooms were built in code, copy the bookings of the snapshot into them
+            recovered = 0;
+            MappedRoomInventory snapshot = new ReservationSnapshot(dataDirectory).map();
+            if (snapshot != null) {
+                for (int slot = 0; slot < snapshot.getRoomCount(); slot++) {
+                    for (Booking booking : snapshot.getBookings(slot)) {
+                        restore(booking, touched);
+                        recovered++;
+                    }
+                }
+            }
+        }
+        RecoveryReport journalRecovery = ReservationJournal.recover(dataDirectory, booking -> restore(booking, touched),
+                (roomNumber, checkInDay, bookedCheckOutDay, checkOutDay) -> restoreRelease(roomNumber, checkInDay, bookedCheckOutDay, checkOutDay, touched));
+        recovered += journalRecovery.getBookings();
+        recovery = new RecoveryReport(journalRecovery.getBookings(), skippedRecords, journalRecovery.getCutOffBytes());
+        for (Room room : touched) {
+            showLatestBooking(room);
+        }
+        journal = createJournal(dataDirectory, snapshot -> snapshot.write(rooms, this::getBookings));
+        return recovered;
+    }
+
+    /**
+     * Opens the journal openJournal writes to, after the recovery. Tests override it to make the disk fail.
+     * @param dataDirectory The data directory.
+     * @param snapshotWriter Writes the rooms when a snapshot is due.
+     * @return The journal.
+     * @throws IOException if the journal file can't be opened.
+     */
+    ReservationJournal createJournal(Path dataDirectory, ReservationJournal.SnapshotWriter snapshotWriter) throws IOException {
+        return new ReservationJournal(dataDirectory, snapshotWriter);
+    }
+
+    /**
+     * Retrieves what opening the journal found besides the bookings: records for rooms that are not in the inventory
+     * and a torn record cut off the end of the journal.
+     * @return The report of the last openJournal, empty if no journal was opened.
+     */
+    public RecoveryReport getRecoveryReport() {
+        return recovery;
+    }
+
+    /**
+     * Tells whether reservations, cancellations and early check-outs are confirmed before the journal has them on disk.
+     * @return True if changes are confirmed early.
+     */
+    public boolean isConfirmBeforeSaved() {
+        return confirmBeforeSaved;
+    }
+
+    /**
+     * Lets changes be confirmed as soon as they are in memory and queued for the journal, without waiting for the fsync.
+     * This saves the caller the disk wait (a few milliseconds on most disks), but a crash or power cut before
+     * the journal thread writes its next batch loses every change confirmed since the last one:
+     * guests who were told they are booked have no booking after the restart, and cancelled nights are booked again.
+     * Off by default. Has no effect without a journal, where nothing survives a restart anyway.
+     * @param confirmBeforeSaved True to confirm changes early.
+     */
+    public void setConfirmBeforeSaved(boolean confirmBeforeSaved) {
+        this.confirmBeforeSaved = confirmBeforeSaved;
+    }
+
+    /**
+     * Flushes and closes the journal if one is open and takes the metrics off JMX.
+     */
+    public void close() {
+        metrics.unregister();
+        ReservationJournal currentJournal = journal;
+        journal = null;
+        if (currentJournal != null) {
+            currentJournal.close();
+        }
+    }
+
+    /**
+     * Puts a recovered booking back into its room calendar without journaling it again.
+     * Bookings that are already there (replayed twice after a snapshot) or for unknown rooms are skipped.
+     * @param booking The recovered booking.
+     * @param touched Collects the rooms that got a booking.
+     */
+    private void restore(Booking booking, Set<Room> touched) {
+        Room room = index.get(booking.getRoomNumber());
+        if (room == null) {
+            skippedRecords++; // Reported by getRecoveryReport
+            return;
+        }
+        ReentrantLock lock = lockFor(room);
+        lock.lock();
+        try {
+            if (room.getCalendar().isFree(booking.getCheckInDay(), booking.getCheckOutDay())) {
+                room.getCalendar().add(booking);
+                if (customersStarted) {
+                    customers.add(booking);
+                }
+                if (countsOccupancy(room)) {
+                    occupancy.add(room.getType(), booking);
+                }
+                touched.add(room);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Replays a cancellation or early check-out without journaling it again.
+     * A release that is already done (replayed twice after a snapshot) finds no booking with the old check-out and does nothing.
+     * @param roomNumber The number of the room.
+     * @param checkInDay The check-in day of the booking.
+     * @param bookedCheckOutDay The check-out day the booking had before.
+     * @param checkOutDay The new check-out day, the check-in day if the booking was cancelled.
+     * @param touched Collects the rooms that changed.
+     */
+    private void restoreRelease(int roomNumber, int checkInDay, int bookedCheckOutDay, int checkOutDay, Set<Room> touched) {
+        Room room = index.get(roomNumber);
+        if (room == null) {
+            skippedRecords++; // Reported by getRecoveryReport
+            return;
+        }
+        ReentrantLock lock = lockFor(room);
+        lock.lock();
+        try {
+            Booking current = room.getCalendar().startingOn(checkInDay);
+            if (current == null || current.getCheckOutDay() != bookedCheckOutDay) {
+                return;
+            }
+            room.getCalendar().remove(checkInDay);
+            Booking shortened = checkOutDay > checkInDay ? shorten(current, checkOutDay) : null;
+            if (shortened != null) {
+                room.getCalendar().add(shortened);
+            }
+            if (customersStarted) {
+                customers.remove(current);
+                if (shortened != null) {
+                    customers.add(shortened);
+                }
+            }
+            countRelease(room, current, shortened);
+            touched.add(room);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Copies the latest booking of a recovered room into its customer fields, as reserveRoom would have,
+     * or shows the room as free if the journal cancelled every booking it had.
+     * Done once per room after recovery instead of once per replayed booking.
+     * @param room The room to update.
+     */
+    private void showLatestBooking(Room room) {
+        ReentrantLock lock = lockFor(room);
+        lock.lock();
+        try {
+            show(room, room.getCalendar().getLatest());
+            markSnapshot(room);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Retrieves the bookings of one room in check-in order.
+     * @param room The room.
+     * @return List of bookings.
+     */
+    public List<Booking> getBookings(Room room) {
+        ReentrantLock lock = lockFor(room);
+        lock.lock();
+        try {
+            return room.getCalendar().getBookings();
+        } finally {
+            lock.unlock();
         }
     }
+
+    /**
+     * Retrieves every booking of every room, each room read under its own lock.
+     * @return List of all bookings.
+     */
+    public List<Booking> getAllBookings() {
+        List<Booking> bookings = new ArrayList<>();
+        for (Room room : rooms) {
+            ReentrantLock lock = lockFor(room);
+            lock.lock();
+            try {
+                bookings.addAll(room.getCalendar().getBookings());
+            } finally {
+                lock.unlock();
+            }
+        }
+        return bookings;
+    }
+
+    /**
+     * Finds the rooms of a type that are free for every night between the check-in and check-out dates.
+     * Each room answers from its own booking calendar in O(log n) of its bookings,
+     * so a room booked for next month still shows up as free for tonight.
+     * @param type The room type to search (e.g., "Single"), or null for every type.
+     * @param checkInDate The check-in date.
+     * @param checkOutDate The check-out date.
+     * @return List of Room objects free for the whole stay.
+     */
+    public List<Room> findAvailable(String type, LocalDate checkInDate, LocalDate checkOutDate) {
+        return findAvailable(type, Dates.toEpochDay(checkInDate), Dates.toEpochDay(checkOutDate));
+    }
+
+    /**
+     * Same as findAvailable with dates, for callers that already have epoch days.
+     * @param type The room type to search, or null for every type.
+     * @param startDay The check-in date as epoch day.
+     * @param endDay The check-out date as epoch day.
+     * @return List of Room objects free for the whole stay.
+     */
+    public List<Room> findAvailable(String type, int startDay, int endDay) {
+        List<Room> availableRooms = new ArrayList<>();
+        if (endDay <= startDay) {
+            return availableRooms; // Nothing to search for an empty stay
+        }
+        long start = System.nanoTime();
+        List<Room> candidates = type == null ? rooms : index.getRoomsOfType(type);
+        for (Room room : candidates) {
+            ReentrantLock lock = lockFor(room);
+            lock.lock();
+            try {
+                if (room.getCalendar().isFree(startDay, endDay)) {
+                    availableRooms.add(room);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        metrics.recordSearch(System.nanoTime() - start);
+        return availableRooms;
+    }
+
+    /**
+     * Finds the cheapest rooms that are free for a stay, searching big inventories in parallel.
+     * @param type The room type, or null for every type.
+     * @param checkInDay The check-in date as epoch day.
+     * @param nights The number of nights.
+     * @param guests The number of guests.
+     * @param limit The most rooms to return.
+     * @return The cheapest free rooms with their total price, cheapest first.
+     */
+    public List<RoomQuote> findCheapest(String type, int checkInDay, int nights, int guests, int limit) {
+        long start = System.nanoTime();
+        List<RoomQuote> quotes = availabilitySearch().cheapest(type, checkInDay, nights, guests, limit);
+        metrics.recordSearch(System.nanoTime() - start);
+        return quotes;
+    }
+
+    /**
+     * Retrieves the search for the cheapest rooms, made here rather than while this RoomManager is still being built.
+     * It keeps no state of its own, so if two callers race each may make one and either will do.
+     */
+    private AvailabilitySearch availabilitySearch() {
+        AvailabilitySearch current = search;
+        if (current == null) {
+            current = new AvailabilitySearch(this);
+            search = current;
+        }
+        return current;
+    }
+
+    /**
+     * Retrieves a list of all available rooms.
+     * @return List of Room objects that are currently available.
+     */
+    public List<Room> getAvailableRooms() {
+        return index.getAvailableRooms();
+    }
+
+    /**
+     * Retrieves the available rooms of one type.
+     * @param type The room type.
+     * @return List of available Room objects of that type sorted by room number.
+     */
+    public List<Room> getAvailableRooms(String type) {
+        return new ArrayList<>(index.getAvailableRoomsOfType(type));
+    }
 }
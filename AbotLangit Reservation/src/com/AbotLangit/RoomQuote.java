@@ -0,0 +1,31 @@
+package com.AbotLangit;
+
+/**
+ * This is the RoomQuote class
+ * A room that is free for a stay together with what the stay would cost in it.
+ */
+public class RoomQuote {
+    private final Room room;
+    private final double totalPrice;
+
+    public RoomQuote(Room room, double totalPrice) {
+        this.room = room;
+        this.totalPrice = totalPrice;
+    }
+
+    public Room getRoom() {
+        return room;
+    }
+
+    public double getTotalPrice() {
+        return totalPrice;
+    }
+
+    @Override
+    public String toString() {
+        return "RoomQuote{" +
+                "room=" + room.getNumber() +
+                ", totalPrice=" + totalPrice +
+                '}';
+    }
+}
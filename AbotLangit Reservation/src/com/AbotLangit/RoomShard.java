@@ -0,0 +1,54 @@
+package com.AbotLangit;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * This is the RoomShard interface
+ * The rooms of one property, or of some room types of it, as the PropertyRegistry sees them.
+ * A LocalShard answers from a RoomManager in this JVM, a RemoteShard asks a ShardServer in another one.
+ */
+public interface RoomShard {
+    /**
+     * Retrieves the name of the property the rooms belong to.
+     * @return The property name.
+     */
+    String getProperty();
+
+    /**
+     * Retrieves the room types this shard holds.
+     * @return List of room types.
+     */
+    List<String> getTypes();
+
+    /**
+     * Finds the rooms free for a stay with their price.
+     * @param type The room type, or null for every type of the shard.
+     * @param checkInDay The check-in date as epoch day.
+     * @param nights The number of nights.
+     * @param guests The number of guests.
+     * @return List of quotes.
+     * @throws IOException if the shard can't be reached.
+     */
+    List<PropertyQuote> search(String type, int checkInDay, int nights, int guests) throws IOException;
+
+    /**
+     * Reserves a room of the shard.
+     * @param type The room type.
+     * @param roomNumber The room to reserve, or null for any free room of the type.
+     * @param customerName The name of the customer.
+     * @param contactNumber The contact number of the customer.
+     * @param checkInDay The check-in date as epoch day.
+     * @param nights The number of nights.
+     * @param guests The number of guests.
+     * @return The outcome.
+     * @throws IOException if the shard can't be reached.
+     */
+    PropertyReservation reserve(String type, Integer roomNumber, String customerName, String contactNumber,
+                                int checkInDay, int nights, int guests) throws IOException;
+
+    /**
+     * Releases what the shard holds, connections for a remote shard.
+     */
+    void close();
+}
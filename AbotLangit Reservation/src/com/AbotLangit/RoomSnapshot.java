@@ -0,0 +1,200 @@
+package com.AbotLangit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This is the RoomSnapshot class
+ * An immutable, versioned view of every room at one point in time, in inventory order.
+ * Each room is a RoomStatus copied while the room was locked, so a view never sees a room half way through a booking.
+ * The statuses are kept in chunks; the next version copies only the chunks of the changed rooms and the list of chunks,
+ * and every other chunk is shared with the previous version. Old versions simply stay valid until nobody reads them.
+ */
+public class RoomSnapshot {
+    private static final int CHUNK_BITS = 10;
+    private static final int CHUNK = 1 << CHUNK_BITS; // Statuses per chunk
+
+    private final Layout layout;
+    private final RoomStatus[][] chunks; // A chunk is null only while the first snapshot is built
+    private final long version;
+
+    /**
+     * Where each room number sits in the inventory, shared by every version.
+     */
+    private static final class Layout {
+        private final int size;
+        private final int[] sortedNumbers; // Room numbers in ascending order
+        private final int[] positions; // Inventory position of each sorted number
+
+        Layout(List<Room> rooms) {
+            size = rooms.size();
+            long[] pairs = new long[size];
+            for (int i = 0; i < size; i++) {
+                pairs[i] = (long) rooms.get(i).getNumber() << 32 | i; // Sort number and position together
+            }
+            Arrays.sort(pairs);
+            sortedNumbers = new int[size];
+            positions = new int[size];
+            for (int i = 0; i < size; i++) {
+                sortedNumbers[i] = (int) (pairs[i] >> 32);
+                positions[i] = (int) pairs[i];
+            }
+        }
+
+        int positionOf(int number) {
+            int found = Arrays.binarySearch(sortedNumbers, number);
+            return found < 0 ? -1 : positions[found];
+        }
+    }
+
+    private RoomSnapshot(Layout layout, RoomStatus[][] chunks, long version) {
+        this.layout = layout;
+        this.chunks = chunks;
+        this.version = version;
+    }
+
+    /**
+     * Creates the version 0 snapshot of an inventory with no statuses filled in yet.
+     * @param rooms The rooms in inventory order.
+     * @return The empty snapshot.
+     */
+    static RoomSnapshot empty(List<Room> rooms) {
+        Layout layout = new Layout(rooms);
+        return new RoomSnapshot(layout, new RoomStatus[(layout.size + CHUNK - 1) >> CHUNK_BITS][], 0);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int size() {
+        return layout.size;
+    }
+
+    /**
+     * Retrieves the status of the room at an inventory position.
+     * @param position The position, from 0 to size - 1.
+     * @return The status.
+     */
+    public RoomStatus get(int position) {
+        RoomStatus[] chunk = chunks[position >> CHUNK_BITS];
+        return chunk == null ? null : chunk[position & (CHUNK - 1)];
+    }
+
+    /**
+     * Finds the status of a room by its number.
+     * @param number The room number.
+     * @return The status, or null if there is no such room.
+     */
+    public RoomStatus find(int number) {
+        int position = layout.positionOf(number);
+        return position < 0 ? null : get(position);
+    }
+
+    /**
+     * Finds where a room sits in the inventory.
+     * @param number The room number.
+     * @return The position, or -1 if there is no such room.
+     */
+    public int positionOf(int number) {
+        return layout.positionOf(number);
+    }
+
+    /**
+     * Retrieves every status in inventory order.
+     * @return Unmodifiable list of statuses.
+     */
+    public List<RoomStatus> getStatuses() {
+        List<RoomStatus> statuses = new ArrayList<>(layout.size);
+        for (int i = 0; i < layout.size; i++) {
+            statuses.add(get(i));
+        }
+        return Collections.unmodifiableList(statuses);
+    }
+
+    /**
+     * Retrieves the available rooms, grouped by type in the given order and sorted by number within a type.
+     * @param types The room types in the order to list them.
+     * @return List of statuses of the available rooms.
+     */
+    public List<RoomStatus> getAvailable(List<String> types) {
+        List<List<RoomStatus>> byType = new ArrayList<>(types.size());
+        for (int i = 0; i < types.size(); i++) {
+            byType.add(new ArrayList<>());
+        }
+        for (int i = 0; i < layout.size; i++) {
+            RoomStatus status = get(i);
+            if (status.isAvailable()) {
+                int order = types.indexOf(status.getType());
+                if (order >= 0) {
+                    byType.get(order).add(status);
+                }
+            }
+        }
+        List<RoomStatus> available = new ArrayList<>();
+        for (List<RoomStatus> statuses : byType) {
+            statuses.sort((a, b) -> Integer.compare(a.getNumber(), b.getNumber()));
+            available.addAll(statuses);
+        }
+        return available;
+    }
+
+    /**
+     * Creates the next version with the statuses of some rooms replaced.
+     * Each chunk holding one of those rooms is copied once.
+     * @param positions The inventory positions of the rooms.
+     * @param statuses The new statuses, in the same order.
+     * @return The next version.
+     */
+    RoomSnapshot with(int[] positions, RoomStatus[] statuses) {
+        RoomStatus[][] nextChunks = chunks.clone();
+        for (int i = 0; i < positions.length; i++) {
+            int index = positions[i] >> CHUNK_BITS;
+            if (nextChunks[index] == chunks[index]) {
+                nextChunks[index] = chunks[index].clone();
+            }
+            nextChunks[index][positions[i] & (CHUNK - 1)] = statuses[i];
+        }
+        return new RoomSnapshot(layout, nextChunks, version + 1);
+    }
+
+    /**
+     * Creates the next version with a whole chunk filled in, while the first snapshot is built.
+     * @param index The chunk number.
+     * @param filled The statuses read for the chunk.
+     * @return The next version.
+     */
+    RoomSnapshot fill(int index, RoomStatus[] filled) {
+        RoomStatus[][] nextChunks = chunks.clone();
+        nextChunks[index] = filled.clone();
+        return new RoomSnapshot(layout, nextChunks, version + 1);
+    }
+
+    /**
+     * Counts the chunks of the inventory.
+     * @return The number of chunks.
+     */
+    int chunkCount() {
+        return chunks.length;
+    }
+
+    /**
+     * Works out the inventory position of the first room of a chunk.
+     * @param index The chunk number.
+     * @return The position.
+     */
+    int chunkStart(int index) {
+        return index << CHUNK_BITS;
+    }
+
+    /**
+     * Works out how many rooms a chunk holds, the last one may be short.
+     * @param index The chunk number.
+     * @return The number of rooms in the chunk.
+     */
+    int chunkLength(int index) {
+        return Math.min(CHUNK, layout.size - (index << CHUNK_BITS));
+    }
+}
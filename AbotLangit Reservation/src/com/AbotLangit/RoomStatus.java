@@ -0,0 +1,92 @@
+package com.AbotLangit;
+
+import java.time.LocalDate;
+
+/**
+ * This is the RoomStatus class
+ * One line of the room status listing: the room and, when it is booked, its current guest.
+ */
+public class RoomStatus {
+    private final String type;
+    private final int number;
+    private final boolean available;
+    private final double price; // Price per day
+    private final String customerName; // The fields below are null or 0 for an available room
+    private final String contactNumber;
+    private final int checkInDay; // Epoch days, Dates.NO_DAY for an available room or one that is only held
+    private final int checkOutDay;
+    private final int duration; // Duration of stay in days
+    private final int guestCount;
+    private final double totalPrice;
+
+    /**
+     * Constructor to copy the status of a room.
+     * @param room The room.
+     * @param duration The duration of the current stay in days, 0 for an available room.
+     */
+    public RoomStatus(Room room, int duration) {
+        this.type = room.getType();
+        this.number = room.getNumber();
+        this.available = room.isAvailable();
+        this.price = room.getPrice();
+        this.customerName = available ? null : room.getCustomerName();
+        this.contactNumber = available ? null : room.getContactNumber();
+        this.checkInDay = available ? Dates.NO_DAY : room.getCheckInDay();
+        this.checkOutDay = available ? Dates.NO_DAY : room.getCheckOutDay();
+        this.duration = available ? 0 : duration;
+        this.guestCount = available ? 0 : room.getGuestCount();
+        this.totalPrice = available ? 0 : room.getTotalPrice(); // What the stay was booked for, the price may have changed since
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public int getNumber() {
+        return number;
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    public double getPrice() {
+        return price;
+    }
+
+    public String getCustomerName() {
+        return customerName;
+    }
+
+    public String getContactNumber() {
+        return contactNumber;
+    }
+
+    public LocalDate getCheckInDate() {
+        return Dates.toLocalDate(checkInDay);
+    }
+
+    public LocalDate getCheckOutDate() {
+        return Dates.toLocalDate(checkOutDay);
+    }
+
+    public int getCheckInDay() {
+        return checkInDay;
+    }
+
+    public int getCheckOutDay() {
+        return checkOutDay;
+    }
+
+    public int getDuration() {
+        return duration;
+    }
+
+    public int getGuestCount() {
+        return guestCount;
+    }
+
+    public double getTotalPrice() {
+        return totalPrice;
+    }
+}
@@ -0,0 +1,104 @@
+package com.AbotLangit;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.List;
+
+/**
+ * This is the RoomTableModel class
+ * The table model of the availability screen. It reads the rooms from a RoomSnapshot of the RoomManager,
+ * so a row never shows a booking half written and painting never holds up a booking,
+ * and formats a cell only when the table paints it.
+ * It listens to the RoomManager event bus, moves on to the latest snapshot and repaints just the rows of the rooms that changed.
+ */
+public class RoomTableModel extends AbstractTableModel implements RoomEventListener {
+    private static final long serialVersionUID = 1L;
+    private static final String[] COLUMN_NAMES = {"Room Type", "Room Number", "Availability", "Price per day", "Customer Name", "Contact #", "Check-in Date", "Check-out Date", "Duration (days)", "Guest Count", "Total Price"};
+
+    private final transient RoomManager roomManager;
+    private transient RoomSnapshot snapshot; // One row per room, in inventory order, only touched on the event thread
+
+    /**
+     * Constructor to show every room of a RoomManager. Call attach to start receiving changes.
+     * @param roomManager The RoomManager holding the rooms.
+     */
+    public RoomTableModel(RoomManager roomManager) {
+        this.roomManager = roomManager;
+        this.snapshot = roomManager.snapshot();
+    }
+
+    /**
+     * Starts listening to room changes.
+     */
+    public void attach() {
+        roomManager.getEventBus().subscribe(this);
+    }
+
+    /**
+     * Stops listening to room changes, call it when the table goes away.
+     */
+    public void detach() {
+        roomManager.getEventBus().unsubscribe(this);
+    }
+
+    @Override
+    public int getRowCount() {
+        return snapshot.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMN_NAMES.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMN_NAMES[column];
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        RoomStatus room = snapshot.get(row);
+        boolean available = room.isAvailable();
+        switch (column) {
+            case 0: return room.getType();
+            case 1: return room.getNumber();
+            case 2: return available ? "Available" : "Not Available";
+            case 3: return String.format("Php %.2f", room.getPrice());
+            default:
+                break;
+        }
+        if (available) {
+            return ""; // The booking columns stay empty for an available room
+        }
+        switch (column) {
+            case 4: return room.getCustomerName();
+            case 5: return room.getContactNumber();
+            case 6: return Dates.format(Dates.DISPLAY, room.getCheckInDay()); // Empty for a room that is only held
+            case 7: return Dates.format(Dates.DISPLAY, room.getCheckOutDay());
+            case 8: return room.getDuration();
+            case 9: return room.getGuestCount();
+            case 10: return String.format("Php %.2f", room.getTotalPrice()); // What the stay was booked for
+            default: return "";
+        }
+    }
+
+    /**
+     * Repaints the rows of the rooms that changed, delivered on the Swing event thread.
+     * @param events The latest event of every room that changed.
+     */
+    @Override
+    public void roomsChanged(List<RoomEvent> events) {
+        snapshot = roomManager.snapshot();
+        for (RoomEvent event : events) {
+            int row = snapshot.positionOf(event.getRoom().getNumber());
+            if (row >= 0) {
+                fireTableRowsUpdated(row, row);
+            }
+        }
+    }
+}
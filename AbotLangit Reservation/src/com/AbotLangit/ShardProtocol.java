@@ -0,0 +1,78 @@
+package com.AbotLangit;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This is the ShardProtocol class
+ * The line protocol between a RemoteShard and a ShardServer: one UTF-8 line per request,
+ * tab separated fields, with tabs, newlines and backslashes in names escaped.
+ *
+ * HELLO                                                             OK property type...
+ * SEARCH type|- checkInDay nights guests                            Q type number price total (one line per room), then END
+ * RESERVE type number|- name contact checkInDay nights guests       RESERVED|CONFLICT|NO_ROOM|HELD number total
+ * Any request can also be answered with ERROR message.
+ */
+final class ShardProtocol {
+    static final String HELLO = "HELLO";
+    static final String SEARCH = "SEARCH";
+    static final String RESERVE = "RESERVE";
+    static final String OK = "OK";
+    static final String QUOTE = "Q";
+    static final String END = "END";
+    static final String ERROR = "ERROR";
+    static final String NONE = "-"; // No type or no room number
+
+    private ShardProtocol() {
+    }
+
+    /**
+     * Joins fields into one line, escaping each of them.
+     * @param fields The fields.
+     * @return The line without the line break.
+     */
+    static String line(Object... fields) {
+        StringBuilder line = new StringBuilder(64);
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                line.append('\t');
+            }
+            String field = String.valueOf(fields[i]);
+            for (int c = 0; c < field.length(); c++) {
+                char ch = field.charAt(c);
+                switch (ch) {
+                    case '\\': line.append("\\\\"); break;
+                    case '\t': line.append("\\t"); break;
+                    case '\n': line.append("\\n"); break;
+                    case '\r': line.append("\\r"); break;
+                    default: line.append(ch);
+                }
+            }
+        }
+        return line.toString();
+    }
+
+    /**
+     * Splits a line into its fields, undoing the escaping.
+     * @param line The line without the line break.
+     * @return List of fields.
+     */
+    static List<String> fields(String line) {
+        List<String> fields = new ArrayList<>(8);
+        StringBuilder field = new StringBuilder();
+        for (int i = 0; i < line.length(); i++) {
+            char ch = line.charAt(i);
+            if (ch == '\t') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (ch == '\\' && i + 1 < line.length()) {
+                char next = line.charAt(++i);
+                field.append(next == 't' ? '\t' : next == 'n' ? '\n' : next == 'r' ? '\r' : next);
+            } else {
+                field.append(ch);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
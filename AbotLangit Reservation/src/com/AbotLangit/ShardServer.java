@@ -0,0 +1,175 @@
+package com.AbotLangit;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * This is the ShardServer class
+ * Serves the rooms of one property to RemoteShards over a local socket, with the ShardProtocol.
+ * Every connection gets a virtual thread and can send any number of requests one after the other,
+ * so a property can run in its own JVM and the PropertyRegistry of another JVM books into it.
+ */
+public class ShardServer {
+    private final LocalShard shard;
+    private final ServerSocket serverSocket;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private volatile boolean running;
+
+    /**
+     * Constructor to bind the server to a port on the loopback address, call start to begin taking requests.
+     * @param shard The shard to serve.
+     * @param port The TCP port, 0 for any free port.
+     * @throws IOException if the port can't be bound.
+     */
+    public ShardServer(LocalShard shard, int port) throws IOException {
+        this.shard = shard;
+        this.serverSocket = new ServerSocket();
+        serverSocket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 1024);
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Starts accepting connections on a thread of its own, which keeps the JVM running until stop is called.
+     */
+    public void start() {
+        running = true;
+        new Thread(this::acceptLoop, "shard-" + shard.getProperty()).start();
+    }
+
+    /**
+     * Stops accepting connections and closes the open ones.
+     */
+    public void stop() {
+        running = false;
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        executor.shutdownNow();
+        shard.close();
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true); // Requests and answers are single small lines
+                executor.execute(() -> serve(socket));
+            } catch (IOException e) {
+                if (running) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             BufferedWriter out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                try {
+                    answer(ShardProtocol.fields(line), out);
+                } catch (RuntimeException e) {
+                    out.write(ShardProtocol.line(ShardProtocol.ERROR, e.toString()));
+                    out.newLine();
+                }
+                out.flush();
+            }
+        } catch (SocketException e) {
+            // The client went away, nothing to answer
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void answer(List<String> request, BufferedWriter out) throws IOException {
+        switch (request.get(0)) {
+            case ShardProtocol.HELLO: {
+                List<String> types = shard.getTypes();
+                Object[] fields = new Object[types.size() + 2];
+                fields[0] = ShardProtocol.OK;
+                fields[1] = shard.getProperty();
+                for (int i = 0; i < types.size(); i++) {
+                    fields[i + 2] = types.get(i);
+                }
+                out.write(ShardProtocol.line(fields));
+                out.newLine();
+                break;
+            }
+            case ShardProtocol.SEARCH: {
+                String type = request.get(1).equals(ShardProtocol.NONE) ? null : request.get(1);
+                List<PropertyQuote> quotes = shard.search(type, Integer.parseInt(request.get(2)),
+                        Integer.parseInt(request.get(3)), Integer.parseInt(request.get(4)));
+                for (PropertyQuote quote : quotes) {
+                    out.write(ShardProtocol.line(ShardProtocol.QUOTE, quote.getType(), quote.getRoomNumber(), quote.getPrice(), quote.getTotalPrice()));
+                    out.newLine();
+                }
+                out.write(ShardProtocol.END);
+                out.newLine();
+                break;
+            }
+            case ShardProtocol.RESERVE: {
+                Integer roomNumber = request.get(2).equals(ShardProtocol.NONE) ? null : Integer.valueOf(request.get(2));
+                PropertyReservation reservation = shard.reserve(request.get(1), roomNumber, request.get(3), request.get(4),
+                        Integer.parseInt(request.get(5)), Integer.parseInt(request.get(6)), Integer.parseInt(request.get(7)));
+                out.write(ShardProtocol.line(reservation.getStatus(), reservation.getRoomNumber(), reservation.getTotalPrice()));
+                out.newLine();
+                break;
+            }
+            default:
+                out.write(ShardProtocol.line(ShardProtocol.ERROR, "Unknown request " + request.get(0)));
+                out.newLine();
+        }
+    }
+
+    /**
+     * Runs one property as a shard in its own JVM, on the reservations in data/property.
+     * Prints "READY port" once it takes connections.
+     * @param args The property name, optionally the port (0 or left out for any free port)
+     *             and a comma separated list of the room types this shard holds (every type by default).
+     * @throws IOException if the data folder or the port can't be used.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: java com.AbotLangit.ShardServer property [port] [type,type...]");
+            System.exit(2);
+        }
+        String property = args[0];
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 0;
+        List<Room> rooms = RoomManager.defaultRooms();
+        String dataFolder = property;
+        if (args.length > 2) {
+            List<String> types = Arrays.asList(args[2].split(","));
+            rooms.removeIf(room -> !types.contains(room.getType()));
+            dataFolder = property + "-" + String.join("-", types); // Each part of a split property keeps its own journal
+        }
+        RoomManager roomManager = RoomManager.open(Paths.get("data", dataFolder), rooms);
+        ShardServer server = new ShardServer(new LocalShard(property, roomManager), port);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop();
+            roomManager.close();
+        }));
+        server.start();
+        System.out.println("READY " + server.getPort());
+    }
+}
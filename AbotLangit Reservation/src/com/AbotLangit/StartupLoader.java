@@ -0,0 +1,107 @@
+package com.AbotLangit;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This is the StartupLoader class
+ * Loads what the frames need (the jpgs and the rooms with their reservations) on a few worker threads
+ * while the welcome screen is already showing, and keeps the timings of the startup so they can be printed.
+ */
+public class StartupLoader {
+    private static final String[] IMAGES = {"/image/background.jpg", "/image/apartment.jpg", "/image/couple.jpg"};
+    private static final long START = System.nanoTime(); // Roughly when main started, this class is loaded first thing
+
+    private static final ExecutorService WORKERS = Executors.newFixedThreadPool(
+            Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors())), new java.util.concurrent.ThreadFactory() {
+                private final AtomicInteger count = new AtomicInteger();
+
+                @Override
+                public Thread newThread(Runnable task) {
+                    Thread thread = new Thread(task, "startup-loader-" + count.incrementAndGet());
+                    thread.setDaemon(true); // Never keeps the application alive
+                    return thread;
+                }
+            });
+    private static final List<String> TIMINGS = new ArrayList<>();
+    private static CompletableFuture<RoomManager> roomManager;
+
+    private StartupLoader() {
+    }
+
+    /**
+     * Starts loading the images and the rooms in the background. Calling it again does nothing.
+     */
+    public static synchronized void begin() {
+        if (roomManager != null) {
+            return;
+        }
+        mark("startup begins");
+        for (String image : IMAGES) {
+            ImageCache.getImageAsync(image, WORKERS).thenRun(() -> mark(image + " decoded"));
+        }
+        roomManager = CompletableFuture.supplyAsync(StartupLoader::openRoomManager, WORKERS);
+    }
+
+    /**
+     * Retrieves the RoomManager being loaded, starting the load if begin wasn't called yet.
+     * @return The RoomManager once the rooms and reservations are loaded.
+     */
+    public static synchronized CompletableFuture<RoomManager> getRoomManager() {
+        begin();
+        return roomManager;
+    }
+
+    /**
+     * Retrieves the worker threads that do the loading.
+     * @return The executor.
+     */
+    public static ExecutorService getWorkers() {
+        return WORKERS;
+    }
+
+    /**
+     * Records that a step of the startup is done.
+     * @param step What was done.
+     */
+    public static void mark(String step) {
+        long millis = (System.nanoTime() - START) / 1_000_000;
+        synchronized (TIMINGS) {
+            TIMINGS.add(String.format("%6d ms  %s", millis, step));
+        }
+    }
+
+    /**
+     * Prints every step recorded so far with the time since main started (JVM boot itself isn't included).
+     */
+    public static void report() {
+        StringBuilder report = new StringBuilder("Startup timings:\n");
+        synchronized (TIMINGS) {
+            for (String timing : TIMINGS) {
+                report.append(timing).append('\n');
+            }
+        }
+        System.out.print(report);
+    }
+
+    private static RoomManager openRoomManager() {
+        RoomManager manager;
+        try {
+            // Bring back the rooms and reservations of the last run from the data folder
+            manager = RoomManager.open(Paths.get("data"), RoomManager.defaultRooms());
+            RoomManager opened = manager;
+            Runtime.getRuntime().addShutdownHook(new Thread(opened::close));
+        } catch (IOException e) {
+            e.printStackTrace(); // Keep going in memory only if the data folder can't be used
+            manager = new RoomManager();
+        }
+        mark("rooms loaded (" + manager.getRooms().size() + " rooms)");
+        return manager;
+    }
+}
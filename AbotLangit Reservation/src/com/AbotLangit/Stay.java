@@ -0,0 +1,72 @@
+package com.AbotLangit;
+
+import java.time.LocalDate;
+
+/**
+ * This is the Stay class
+ * A reservation request that passed validation: the customer and the parsed dates, duration and guests.
+ * Either a stay or the reason it was rejected comes out of ReservationService.validate.
+ */
+public class Stay {
+    private final String customerName;
+    private final String contactNumber;
+    private final LocalDate checkInDate;
+    private final LocalDate checkOutDate;
+    private final int duration; // Duration of stay in days
+    private final int guests;
+    private final ReservationResponse rejection; // Why the request is invalid, null for a valid stay
+
+    private Stay(String customerName, String contactNumber, LocalDate checkInDate, LocalDate checkOutDate, int duration, int guests, ReservationResponse rejection) {
+        this.customerName = customerName;
+        this.contactNumber = contactNumber;
+        this.checkInDate = checkInDate;
+        this.checkOutDate = checkOutDate;
+        this.duration = duration;
+        this.guests = guests;
+        this.rejection = rejection;
+    }
+
+    static Stay valid(String customerName, String contactNumber, LocalDate checkInDate, LocalDate checkOutDate, int duration, int guests) {
+        return new Stay(customerName, contactNumber, checkInDate, checkOutDate, duration, guests, null);
+    }
+
+    static Stay invalid(ReservationResponse.Status status, String message) {
+        return new Stay(null, null, null, null, 0, 0, ReservationResponse.rejected(status, message));
+    }
+
+    public boolean isValid() {
+        return rejection == null;
+    }
+
+    /**
+     * The response explaining why the request is invalid.
+     * @return The rejection, or null for a valid stay.
+     */
+    public ReservationResponse getRejection() {
+        return rejection;
+    }
+
+    public String getCustomerName() {
+        return customerName;
+    }
+
+    public String getContactNumber() {
+        return contactNumber;
+    }
+
+    public LocalDate getCheckInDate() {
+        return checkInDate;
+    }
+
+    public LocalDate getCheckOutDate() {
+        return checkOutDate;
+    }
+
+    public int getDuration() {
+        return duration;
+    }
+
+    public int getGuests() {
+        return guests;
+    }
+}
@@ -0,0 +1,251 @@
+package com.AbotLangit;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * This is the TimerWheel class
+ * Runs tasks after a delay for very many short-lived timeouts, such as room holds, on one thread.
+ * Timeouts go into the slots of four wheels of 64 slots each: the first wheel has a slot per tick,
+ * the next a slot per 64 ticks and so on, and a timeout moves down a wheel each time its slot comes up.
+ * Adding and cancelling are O(1), and each tick only touches the timeouts that are due.
+ * Other threads never touch the wheels: new and cancelled timeouts are queued and the wheel thread picks them up.
+ * Tasks run on the wheel thread and should be quick, a slow task delays every timeout after it.
+ */
+public class TimerWheel {
+    private static final int WHEEL_BITS = 6;
+    private static final int SLOTS = 1 << WHEEL_BITS; // Slots per wheel
+    private static final int WHEELS = 4; // With 10 ms ticks the last wheel reaches about two days ahead
+
+    private static final int PENDING = 0;
+    private static final int CANCELLED = 1;
+    private static final int EXPIRED = 2;
+
+    private final String name;
+    private final long tickNanos;
+    private final Slot[][] wheels = new Slot[WHEELS][SLOTS];
+    private final Slot overflow = new Slot(); // Timeouts beyond the last wheel, placed again whenever it turns
+    private final ConcurrentLinkedQueue<Timeout> added = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+    private final long startNanos = System.nanoTime();
+    private long currentTick; // Only read and written by the wheel thread
+    private volatile Thread worker; // Started with the first timeout
+
+    /**
+     * A scheduled task that can be cancelled until it runs.
+     */
+    public final class Timeout {
+        private final Runnable task;
+        private final long deadlineTick;
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+        private Timeout previous; // Links within its slot, owned by the wheel thread
+        private Timeout next;
+        private Slot slot;
+
+        private Timeout(Runnable task, long deadlineTick) {
+            this.task = task;
+            this.deadlineTick = deadlineTick;
+        }
+
+        /**
+         * Stops the task from running.
+         * @return True if it was cancelled, false if it already ran or was cancelled before.
+         */
+        public boolean cancel() {
+            if (!state.compareAndSet(PENDING, CANCELLED)) {
+                return false;
+            }
+            cancelled.add(this); // The wheel thread takes it out of its slot
+            return true;
+        }
+
+        public boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return state.get() == EXPIRED;
+        }
+    }
+
+    /**
+     * A doubly linked list of timeouts, so a cancelled one can be unlinked without searching.
+     */
+    private static final class Slot {
+        private Timeout head;
+
+        void add(Timeout timeout) {
+            timeout.slot = this;
+            timeout.previous = null;
+            timeout.next = head;
+            if (head != null) {
+                head.previous = timeout;
+            }
+            head = timeout;
+        }
+
+        void remove(Timeout timeout) {
+            if (timeout.previous != null) {
+                timeout.previous.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.previous = timeout.previous;
+            }
+            timeout.previous = null;
+            timeout.next = null;
+            timeout.slot = null;
+        }
+
+        Timeout takeAll() {
+            Timeout all = head;
+            head = null;
+            return all;
+        }
+    }
+
+    /**
+     * Constructor to create a wheel with the given tick. Timeouts fire up to one tick late.
+     * @param name The name of the wheel thread.
+     * @param tick The length of a tick.
+     * @param unit The unit of the tick.
+     */
+    public TimerWheel(String name, long tick, TimeUnit unit) {
+        this.name = name;
+        this.tickNanos = Math.max(1, unit.toNanos(tick));
+        for (Slot[] wheel : wheels) {
+            for (int i = 0; i < SLOTS; i++) {
+                wheel[i] = new Slot();
+            }
+        }
+    }
+
+    /**
+     * Runs a task after a delay.
+     * @param task The task, run on the wheel thread.
+     * @param delay The delay.
+     * @param unit The unit of the delay.
+     * @return The Timeout to cancel the task with.
+     */
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        long elapsed = System.nanoTime() - startNanos + Math.max(0, unit.toNanos(delay));
+        Timeout timeout = new Timeout(task, (elapsed + tickNanos - 1) / tickNanos); // Round up so it never fires early
+        added.add(timeout);
+        if (worker == null) {
+            startWorker();
+        }
+        return timeout;
+    }
+
+    private synchronized void startWorker() {
+        if (worker == null) {
+            Thread thread = new Thread(this::run, name);
+            thread.setDaemon(true);
+            thread.start();
+            worker = thread;
+        }
+    }
+
+    private void run() {
+        while (true) {
+            long now = (System.nanoTime() - startNanos) / tickNanos;
+            while (currentTick < now) {
+                placeAdded();
+                unlinkCancelled();
+                currentTick++;
+                tick();
+            }
+            placeAdded(); // Timeouts already due run right away instead of a tick later
+            unlinkCancelled();
+            LockSupport.parkNanos(startNanos + (currentTick + 1) * tickNanos - System.nanoTime());
+        }
+    }
+
+    private void placeAdded() {
+        Timeout timeout;
+        while ((timeout = added.poll()) != null) {
+            if (timeout.state.get() == PENDING) {
+                place(timeout);
+            }
+        }
+    }
+
+    private void unlinkCancelled() {
+        Timeout timeout;
+        while ((timeout = cancelled.poll()) != null) {
+            if (timeout.slot != null) {
+                timeout.slot.remove(timeout);
+            }
+        }
+    }
+
+    /**
+     * Puts a timeout in the lowest wheel whose higher tick bits it shares with the current tick,
+     * so its slot comes up exactly when it is due or when it has to move down a wheel.
+     */
+    private void place(Timeout timeout) {
+        long deadline = timeout.deadlineTick;
+        if (deadline <= currentTick) {
+            expire(timeout);
+            return;
+        }
+        for (int wheel = 0; wheel < WHEELS; wheel++) {
+            int shift = WHEEL_BITS * (wheel + 1);
+            if (deadline >>> shift == currentTick >>> shift) {
+                wheels[wheel][(int) (deadline >>> (WHEEL_BITS * wheel)) & (SLOTS - 1)].add(timeout);
+                return;
+            }
+        }
+        overflow.add(timeout);
+    }
+
+    /**
+     * Moves the slots that came up down a wheel, highest wheel first, then runs what is due this tick.
+     */
+    private void tick() {
+        for (int wheel = WHEELS - 1; wheel >= 1; wheel--) {
+            int shift = WHEEL_BITS * wheel;
+            if ((currentTick & ((1L << shift) - 1)) != 0) {
+                continue; // This wheel didn't turn a slot
+            }
+            if (wheel == WHEELS - 1) {
+                replace(overflow.takeAll());
+            }
+            replace(wheels[wheel][(int) (currentTick >>> shift) & (SLOTS - 1)].takeAll());
+        }
+        Timeout due = wheels[0][(int) currentTick & (SLOTS - 1)].takeAll();
+        while (due != null) {
+            Timeout next = due.next;
+            due.slot = null;
+            due.previous = null;
+            due.next = null;
+            expire(due);
+            due = next;
+        }
+    }
+
+    private void replace(Timeout timeout) {
+        while (timeout != null) {
+            Timeout next = timeout.next;
+            timeout.slot = null;
+            timeout.previous = null;
+            timeout.next = null;
+            place(timeout);
+            timeout = next;
+        }
+    }
+
+    private void expire(Timeout timeout) {
+        if (!timeout.state.compareAndSet(PENDING, EXPIRED)) {
+            return; // Cancelled while waiting
+        }
+        try {
+            timeout.task.run();
+        } catch (RuntimeException e) {
+            e.printStackTrace(); // One bad task must not stop the wheel
+        }
+    }
+}
@@ -5,8 +5,6 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.util.Timer;
-import java.util.TimerTask;
 
 /*
  * The class that gives the Wekcome message for the system
@@ -16,8 +14,6 @@ public class WelcomeFrame extends JFrame {
     private RoomManager roomManager;
 
     public WelcomeFrame() {
-        roomManager = new RoomManager();
-
         setTitle("Welcome");
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setSize(600, 500);
@@ -35,29 +31,41 @@ public class WelcomeFrame extends JFrame {
         styleContinueButton(continueButton);
         add(continueButton, BorderLayout.SOUTH);
 
+        // Animate the welcome label by gradually changing its text color to gold, on the Swing thread like every other change to the label
+        Color[] colors = {Color.black, Color.decode("#FFD700")}; // Black and gold colors
+        Timer timer = new Timer(1000, new ActionListener() {
+            int colorIndex = 0;
+
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                welcomeLabel.setForeground(colors[colorIndex]);
+                colorIndex = (colorIndex + 1) % colors.length;
+            }
+        }); // Change color every second
+        timer.setInitialDelay(10);
+        timer.start();
+
         continueButton.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
+                timer.stop();
                 dispose();
-                new ReservationForm(roomManager);
+                new ReservationForm(roomManager); // Only built now, its jpg is decoded by then
             }
         });
 
-        // Animate the welcome label by gradually changing its text color to gold
-        Timer timer = new Timer();
-        timer.scheduleAtFixedRate(new TimerTask() {
-            int colorIndex = 0;
-            Color[] colors = {Color.black, Color.decode("#FFD700")}; // Black and gold colors
-
-            @Override
-            public void run() {
-                welcomeLabel.setForeground(colors[colorIndex]);
-                colorIndex = (colorIndex + 1) % colors.length;
-            }
-        }, 10, 1000); // Change color every second
+        // The rooms are loaded by the StartupLoader while this frame is showing, continue is possible once they are in
+        continueButton.setEnabled(false);
+        StartupLoader.getRoomManager().thenAccept(manager -> SwingUtilities.invokeLater(() -> {
+            roomManager = manager;
+            continueButton.setEnabled(true);
+            StartupLoader.mark("ready for input");
+            StartupLoader.report();
+        }));
 
         setLocationRelativeTo(null);
         setVisible(true);
+        StartupLoader.mark("welcome screen shown");
     }
     
     // The customization of the continue button
@@ -85,6 +93,7 @@ public class WelcomeFrame extends JFrame {
     }
 
     public static void main(String[] args) {
-        new WelcomeFrame();
+        StartupLoader.begin();
+        SwingUtilities.invokeLater(WelcomeFrame::new);
     }
 }